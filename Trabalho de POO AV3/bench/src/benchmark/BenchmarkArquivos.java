@@ -0,0 +1,133 @@
+package benchmark;
+
+import model.Dependente;
+import model.Funcionario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.SnapshotCompacto;
+import service.FuncionarioService;
+import storage.ArmazenamentoFuncionarios;
+import util.FileUtil;
+import util.ImportadorCsv;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot binário contra a importação do mesmo cadastro em CSV, em
+ * arquivos temporários: cada benchmark é uma passada pelo cadastro inteiro.
+ * carregarSnapshot e importarCsv cadastram num serviço novo a cada iteração;
+ * lerSnapshot só decodifica.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BenchmarkArquivos {
+
+    /**
+     * Cadastro populado e os dois arquivos gerados a partir dele, mais um
+     * serviço vazio a cada iteração para carregar o snapshot ou importar o CSV.
+     */
+    @State(Scope.Benchmark)
+    public static class Arquivos {
+        @Param({"10000", "1000000", "10000000"})
+        public int tamanho;
+
+        @Param({"2"})
+        public int dependentes;
+
+        @Param({"mapa"})
+        public String armazenamento;
+
+        ArmazenamentoFuncionarios dados;
+        FuncionarioService servico;
+        Path diretorio;
+        Path snapshot;
+        Path csv;
+        ArmazenamentoFuncionarios dadosDestino;
+        FuncionarioService destino;
+
+        @Setup(Level.Trial)
+        public void preparar() throws Exception {
+            dados = Cadastros.armazenamento(armazenamento);
+            servico = Cadastros.popular(dados, tamanho, dependentes);
+            diretorio = Files.createTempDirectory("bench-arquivos");
+            snapshot = diretorio.resolve("cadastro.bin");
+            csv = diretorio.resolve("cadastro.csv");
+            SnapshotCompacto.gravar(servico, snapshot);
+            gravarCsv(servico, csv);
+        }
+
+        @TearDown(Level.Trial)
+        public void apagar() throws Exception {
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(diretorio);
+            Cadastros.fechar(dados);
+        }
+
+        @Setup(Level.Iteration)
+        public void prepararDestino() {
+            dadosDestino = Cadastros.armazenamento(armazenamento);
+            destino = new FuncionarioService(dadosDestino);
+        }
+
+        @TearDown(Level.Iteration)
+        public void fecharDestino() throws Exception {
+            Cadastros.fechar(dadosDestino);
+        }
+    }
+
+    @Benchmark
+    public long gravarSnapshot(Arquivos a) throws Exception {
+        return SnapshotCompacto.gravar(a.servico, a.snapshot);
+    }
+
+    @Benchmark
+    public long lerSnapshot(Arquivos a) throws Exception {
+        long[] soma = new long[1];
+        long lidos = SnapshotCompacto.ler(a.snapshot, lote -> soma[0] += lote.size());
+        return lidos + soma[0];
+    }
+
+    @Benchmark
+    public long carregarSnapshot(Arquivos a) throws Exception {
+        return SnapshotCompacto.carregar(a.snapshot, a.destino);
+    }
+
+    @Benchmark
+    public long importarCsv(Arquivos a) throws Exception {
+        return ImportadorCsv.importar(a.csv, a.destino).getImportados();
+    }
+
+    private static void gravarCsv(FuncionarioService s, Path csv) throws Exception {
+        FileUtil.escreverEmArquivo(csv, w -> {
+            w.write("codigo;nome;cargo;salario;dependentes");
+            w.newLine();
+            for (Funcionario f : s.listarFuncionarios()) {
+                w.write(f.getCodigo() + ";" + f.getNome() + ";" + f.getCargo() + ";" + f.getSalario() + ";");
+                String sep = "";
+                for (Dependente d : s.listarDependentes(f.getCodigo())) {
+                    w.write(sep);
+                    w.write(d.getNome());
+                    sep = "|";
+                }
+                w.newLine();
+            }
+        });
+    }
+}
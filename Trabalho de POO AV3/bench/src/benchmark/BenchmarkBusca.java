@@ -0,0 +1,135 @@
+package benchmark;
+
+import model.Funcionario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.ConsultaFuncionarios;
+import service.FuncionarioService;
+import storage.ArmazenamentoFuncionarios;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FuncionarioService#buscarFuncionarios} por trecho de nome e faixa de
+ * salário, com e sem os índices de busca, e o tempo para montar os índices.
+ * Os nomes têm sobrenomes (ex: "Ana Silva Souza") e cada funcionário tem um
+ * dependente com o nome de outra pessoa.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class BenchmarkBusca {
+
+    @State(Scope.Benchmark)
+    public static class Cadastro {
+        @Param({"10000", "1000000", "10000000"})
+        public int tamanho;
+
+        @Param({"mapa"})
+        public String armazenamento;
+
+        /** nome: "silva" entre 3000 e 5000; nomeLimitado: o mesmo até 100; dependente: "queiroz" entre 4000 e 4050. */
+        @Param({"nome", "nomeLimitado", "dependente"})
+        public String consulta;
+
+        @Param({"true", "false"})
+        public boolean indice;
+
+        ArmazenamentoFuncionarios dados;
+        FuncionarioService servico;
+        ConsultaFuncionarios filtro;
+
+        @Setup(Level.Trial)
+        public void preparar() throws Exception {
+            dados = Cadastros.armazenamento(armazenamento);
+            servico = popularComSobrenomes(dados, tamanho);
+            servico.setIndiceBusca(indice);
+            switch (consulta) {
+                case "nome":
+                    filtro = ConsultaFuncionarios.todos().nomeContendo("silva").comSalarioEntre(3000, 5000);
+                    break;
+                case "nomeLimitado":
+                    filtro = ConsultaFuncionarios.todos().nomeContendo("silva").comSalarioEntre(3000, 5000).limitadaA(100);
+                    break;
+                case "dependente":
+                    filtro = ConsultaFuncionarios.todos().dependenteContendo("queiroz").comSalarioEntre(4000, 4050);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Consulta desconhecida: " + consulta);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void fechar() throws Exception {
+            Cadastros.fechar(dados);
+        }
+    }
+
+    /**
+     * O mesmo cadastro, sem consultas, para montar os índices.
+     */
+    @State(Scope.Benchmark)
+    public static class Indices {
+        @Param({"10000", "1000000", "10000000"})
+        public int tamanho;
+
+        @Param({"mapa"})
+        public String armazenamento;
+
+        ArmazenamentoFuncionarios dados;
+        FuncionarioService servico;
+
+        @Setup(Level.Trial)
+        public void preparar() throws Exception {
+            dados = Cadastros.armazenamento(armazenamento);
+            servico = popularComSobrenomes(dados, tamanho);
+        }
+
+        @TearDown(Level.Trial)
+        public void fechar() throws Exception {
+            Cadastros.fechar(dados);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int buscarFuncionarios(Cadastro c) {
+        return c.servico.buscarFuncionarios(c.filtro).size();
+    }
+
+    /**
+     * Desliga e liga os índices: o tempo de montá-los a partir do cadastro.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void ligarIndiceBusca(Indices i) {
+        i.servico.setIndiceBusca(false);
+        i.servico.setIndiceBusca(true);
+    }
+
+    private static FuncionarioService popularComSobrenomes(ArmazenamentoFuncionarios dados, int n) throws Exception {
+        FuncionarioService s = new FuncionarioService(dados);
+        Random r = new Random(42);
+        for (int codigo = 0; codigo < n; codigo++) {
+            s.cadastrarFuncionario(new Funcionario(codigo, Cadastros.nomeCompleto(r),
+                    Cadastros.CARGOS[codigo % Cadastros.CARGOS.length], 1500 + r.nextInt(9000)),
+                    List.of(Cadastros.nomeCompleto(r)));
+        }
+        return s;
+    }
+}
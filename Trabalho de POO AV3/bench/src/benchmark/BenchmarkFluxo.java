@@ -0,0 +1,98 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.AssinaturaAlteracoes;
+import service.FuncionarioService;
+import storage.ArmazenamentoFuncionarios;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Custo do fluxo de alterações em alterarSalario: sem assinatura, com um
+ * consumidor rápido e com um lento, que dorme 1 ms por lote e não deve
+ * mudar o tempo da escrita (os eventos que não cabem são contados como perdidos).
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BenchmarkFluxo {
+
+    @State(Scope.Benchmark)
+    public static class Cadastro {
+        @Param({"10000", "1000000"})
+        public int tamanho;
+
+        @Param({"mapa"})
+        public String armazenamento;
+
+        @Param({"nenhum", "rapido", "lento"})
+        public String consumidor;
+
+        ArmazenamentoFuncionarios dados;
+        FuncionarioService servico;
+        AssinaturaAlteracoes assinatura;
+        final LongAdder recebidos = new LongAdder();
+        int[] ordem;
+        private int proximo;
+
+        @Setup(Level.Trial)
+        public void preparar() throws Exception {
+            dados = Cadastros.armazenamento(armazenamento);
+            servico = Cadastros.popular(dados, tamanho, 2);
+            ordem = Cadastros.embaralhados(tamanho);
+            switch (consumidor) {
+                case "nenhum":
+                    break;
+                case "rapido":
+                    assinatura = servico.assinarAlteracoes(lote -> recebidos.add(lote.tamanho()));
+                    break;
+                case "lento":
+                    assinatura = servico.assinarAlteracoes(lote -> {
+                        recebidos.add(lote.tamanho());
+                        LockSupport.parkNanos(1_000_000);
+                    });
+                    break;
+                default:
+                    throw new IllegalArgumentException("Consumidor desconhecido: " + consumidor);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void fechar() throws Exception {
+            if (assinatura != null) {
+                assinatura.close();
+                System.out.printf("%nconsumidor %s: %d eventos recebidos, %d perdidos%n",
+                        consumidor, recebidos.sum(), assinatura.getPerdidos());
+            }
+            Cadastros.fechar(dados);
+        }
+
+        int proximoCodigo() {
+            int codigo = ordem[proximo];
+            proximo = proximo + 1 == ordem.length ? 0 : proximo + 1;
+            return codigo;
+        }
+    }
+
+    @Benchmark
+    public void alterarSalario(Cadastro c) throws Exception {
+        int codigo = c.proximoCodigo();
+        c.servico.alterarSalario(codigo, 1000 + (codigo & 1023));
+    }
+}
@@ -0,0 +1,181 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import service.FuncionarioService;
+import storage.ArmazenamentoFuncionarios;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operações principais do FuncionarioService.
+ *
+ * As operações pontuais (contarDependentes, listarDependentes,
+ * alterarSalario) medem o tempo médio de uma chamada sobre um cadastro já
+ * populado, percorrendo os códigos em ordem aleatória. Cadastrar e excluir
+ * o cadastro inteiro são passadas únicas (SingleShotTime) sobre um serviço
+ * novo a cada iteração. O relatório de bônus mede uma chamada (em cache).
+ *
+ * <pre>
+ * ./gradlew :bench:jmh -Pjmh="BenchmarkFuncionarioService -p tamanho=1000000 -p armazenamento=colunar"
+ * </pre>
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class BenchmarkFuncionarioService {
+
+    /**
+     * Parâmetros comuns dos estados desta suíte.
+     */
+    @State(Scope.Benchmark)
+    public abstract static class Parametros {
+        @Param({"10000", "1000000", "10000000"})
+        public int tamanho;
+
+        @Param({"2"})
+        public int dependentes;
+
+        @Param({"mapa"})
+        public String armazenamento;
+
+        ArmazenamentoFuncionarios dados;
+        FuncionarioService servico;
+        int[] ordem;
+
+        void criar(boolean popular) throws Exception {
+            dados = Cadastros.armazenamento(armazenamento);
+            servico = popular ? Cadastros.popular(dados, tamanho, dependentes) : new FuncionarioService(dados);
+        }
+    }
+
+    /**
+     * Cadastro populado uma vez; cada chamada usa o próximo código da ordem aleatória.
+     */
+    @State(Scope.Benchmark)
+    public static class Populado extends Parametros {
+        private int proximo;
+
+        @Setup(Level.Trial)
+        public void preparar() throws Exception {
+            criar(true);
+            ordem = Cadastros.embaralhados(tamanho);
+        }
+
+        @TearDown(Level.Trial)
+        public void fechar() throws Exception {
+            Cadastros.fechar(dados);
+        }
+
+        int proximoCodigo() {
+            int codigo = ordem[proximo];
+            proximo = proximo + 1 == ordem.length ? 0 : proximo + 1;
+            return codigo;
+        }
+    }
+
+    /**
+     * Serviço novo a cada iteração, fechado ao fim dela.
+     */
+    @State(Scope.Benchmark)
+    public abstract static class PorIteracao extends Parametros {
+        @Setup(Level.Trial)
+        public void prepararOrdem() {
+            ordem = Cadastros.embaralhados(tamanho);
+        }
+
+        @Setup(Level.Iteration)
+        public void preparar() throws Exception {
+            criar(populado());
+        }
+
+        @TearDown(Level.Iteration)
+        public void fechar() throws Exception {
+            Cadastros.fechar(dados);
+        }
+
+        abstract boolean populado();
+    }
+
+    /**
+     * Serviço vazio, para a passada de cadastro.
+     */
+    @State(Scope.Benchmark)
+    public static class Vazio extends PorIteracao {
+        @Override
+        boolean populado() {
+            return false;
+        }
+    }
+
+    /**
+     * Serviço populado, para a passada de exclusão.
+     */
+    @State(Scope.Benchmark)
+    public static class Descartavel extends PorIteracao {
+        @Override
+        boolean populado() {
+            return true;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int contarDependentes(Populado p) {
+        return p.servico.contarDependentes(p.proximoCodigo());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object listarDependentes(Populado p) {
+        return p.servico.listarDependentes(p.proximoCodigo());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void alterarSalario(Populado p) throws Exception {
+        int codigo = p.proximoCodigo();
+        p.servico.alterarSalario(codigo, 1000 + (codigo & 1023));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int listarBonusFormatado(Populado p) {
+        return p.servico.listarBonusFormatado(Locale.ROOT).size();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void cadastrarTodos(Vazio v, Blackhole bh) throws Exception {
+        for (int codigo : v.ordem) {
+            v.servico.cadastrarFuncionario(Cadastros.novo(codigo), Cadastros.nomesDependentes(codigo, v.dependentes));
+        }
+        bh.consume(v.servico.quantidadeFuncionarios());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void excluirTodos(Descartavel d, Blackhole bh) throws Exception {
+        for (int codigo : d.ordem) d.servico.excluirFuncionario(codigo);
+        bh.consume(d.servico.quantidadeFuncionarios());
+    }
+}
@@ -0,0 +1,98 @@
+package benchmark;
+
+import api.ServidorHttp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import service.FuncionarioService;
+import storage.ArmazenamentoFuncionarios;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga na API HTTP pela interface de loopback: cada thread do JMH é um
+ * cliente que espera a resposta antes da próxima requisição. Mede
+ * requisições por segundo e a distribuição das latências (percentis do
+ * SampleTime). Uma fração "escritas" das requisições altera salário (PUT);
+ * o resto consulta a quantidade de dependentes (GET). Respostas de erro
+ * fazem a medição falhar. O fork liga o TCP_NODELAY do servidor do JDK; sem
+ * ele cada resposta espera o ACK atrasado do cliente (~40 ms).
+ *
+ * <pre>
+ * ./gradlew :bench:jmh -Pjmh="BenchmarkHttp -t 64 -p escritas=0.5"
+ * </pre>
+ */
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@Threads(32)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 2, time = 10)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+public class BenchmarkHttp {
+
+    @State(Scope.Benchmark)
+    public static class Servidor {
+        @Param({"100000"})
+        public int tamanho;
+
+        @Param({"0.2"})
+        public double escritas;
+
+        @Param({"mapa"})
+        public String armazenamento;
+
+        ArmazenamentoFuncionarios dados;
+        ServidorHttp servidor;
+        HttpClient cliente;
+        String base;
+
+        @Setup(Level.Trial)
+        public void iniciar() throws Exception {
+            dados = Cadastros.armazenamento(armazenamento);
+            FuncionarioService service = Cadastros.popular(dados, tamanho, 2);
+            servidor = ServidorHttp.iniciar(service, new InetSocketAddress("127.0.0.1", 0));
+            cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            base = "http://127.0.0.1:" + servidor.getPorta() + "/funcionarios/";
+        }
+
+        @TearDown(Level.Trial)
+        public void parar() throws Exception {
+            servidor.close();
+            Cadastros.fechar(dados);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int requisicao(Servidor s) throws Exception {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        int codigo = r.nextInt(s.tamanho);
+        HttpRequest req;
+        if (r.nextDouble() < s.escritas) {
+            req = HttpRequest.newBuilder(URI.create(s.base + codigo + "/salario"))
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"salario\":" + (1000 + r.nextInt(9000)) + "}"))
+                    .build();
+        } else {
+            req = HttpRequest.newBuilder(URI.create(s.base + codigo + "/dependentes")).GET().build();
+        }
+        HttpResponse<byte[]> resp = s.cliente.send(req, HttpResponse.BodyHandlers.ofByteArray());
+        if (resp.statusCode() >= 300) throw new IllegalStateException("HTTP " + resp.statusCode() + " em " + req.uri());
+        return resp.body().length;
+    }
+}
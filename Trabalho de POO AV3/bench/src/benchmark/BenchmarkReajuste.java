@@ -0,0 +1,87 @@
+package benchmark;
+
+import model.Funcionario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.FiltroFuncionarios;
+import service.FuncionarioService;
+import service.Reajuste;
+import storage.ArmazenamentoFuncionarios;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reajuste de 1% em todos os funcionários ou só nos de um cargo: um
+ * alterarSalario por funcionário contra {@link FuncionarioService#reajustarSalarios}.
+ * Cada chamada é uma passada pelo cadastro inteiro.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BenchmarkReajuste {
+    private static final Reajuste UM_POR_CENTO = Reajuste.percentual(1);
+
+    @State(Scope.Benchmark)
+    public static class Cadastro {
+        @Param({"10000", "1000000", "10000000"})
+        public int tamanho;
+
+        @Param({"2"})
+        public int dependentes;
+
+        @Param({"mapa"})
+        public String armazenamento;
+
+        /** "todos" ou o nome de um cargo. */
+        @Param({"todos", "Analista"})
+        public String cargo;
+
+        ArmazenamentoFuncionarios dados;
+        FuncionarioService servico;
+        String cargoFiltrado;
+        FiltroFuncionarios filtro;
+
+        @Setup(Level.Trial)
+        public void preparar() throws Exception {
+            dados = Cadastros.armazenamento(armazenamento);
+            servico = Cadastros.popular(dados, tamanho, dependentes);
+            cargoFiltrado = "todos".equals(cargo) ? null : cargo;
+            filtro = cargoFiltrado == null ? FiltroFuncionarios.todos() : FiltroFuncionarios.todos().doCargo(cargo);
+        }
+
+        @TearDown(Level.Trial)
+        public void fechar() throws Exception {
+            Cadastros.fechar(dados);
+        }
+    }
+
+    @Benchmark
+    public long reajusteUmAUm(Cadastro c) throws Exception {
+        long alterados = 0;
+        for (Funcionario f : c.servico.listarFuncionarios()) {
+            if (c.cargoFiltrado == null || c.cargoFiltrado.equals(f.getCargo())) {
+                c.servico.alterarSalario(f.getCodigo(), UM_POR_CENTO.aplicar(f.getSalario()));
+                alterados++;
+            }
+        }
+        return alterados;
+    }
+
+    @Benchmark
+    public long reajustarSalarios(Cadastro c) {
+        return c.servico.reajustarSalarios(c.filtro, UM_POR_CENTO);
+    }
+}
@@ -0,0 +1,135 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.FuncionarioService;
+import storage.ArmazenamentoFuncionarios;
+
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relatório de bônus sequencial contra o paralelo em pools de tamanhos
+ * diferentes (antes de medir, confere que o paralelo gera o mesmo texto),
+ * escrito num destino que descarta. Também mede o relatório em cache
+ * repetido sem alterações e uma página (formatada a partir do índice por
+ * nome, sem o cache) pedida logo depois de cada alteração de salário.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkRelatorio {
+    private static final Locale LOCALE = Locale.forLanguageTag("pt-BR");
+
+    /**
+     * Cadastro populado; paralelismo "sequencial" ou o tamanho do pool.
+     */
+    @State(Scope.Benchmark)
+    public static class Relatorio {
+        @Param({"1000000"})
+        public int tamanho;
+
+        @Param({"mapa"})
+        public String armazenamento;
+
+        @Param({"sequencial", "1", "2", "4"})
+        public String paralelismo;
+
+        ArmazenamentoFuncionarios dados;
+        FuncionarioService servico;
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void preparar() throws Exception {
+            dados = Cadastros.armazenamento(armazenamento);
+            servico = Cadastros.popular(dados, tamanho, 2);
+            if ("sequencial".equals(paralelismo)) return;
+            pool = new ForkJoinPool(Integer.parseInt(paralelismo));
+            StringBuilder sequencial = new StringBuilder();
+            servico.escreverBonusFormatado(LOCALE, sequencial);
+            StringBuilder paralelo = new StringBuilder(sequencial.length());
+            servico.escreverBonusFormatado(LOCALE, paralelo, pool);
+            if (!sequencial.toString().equals(paralelo.toString())) {
+                throw new IllegalStateException("Relatório paralelo (" + paralelismo + ") diferente do sequencial");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void fechar() throws Exception {
+            if (pool != null) pool.shutdown();
+            Cadastros.fechar(dados);
+        }
+    }
+
+    /**
+     * Cadastro populado, com o relatório já em cache.
+     */
+    @State(Scope.Benchmark)
+    public static class Cache {
+        @Param({"1000000"})
+        public int tamanho;
+
+        @Param({"mapa"})
+        public String armazenamento;
+
+        ArmazenamentoFuncionarios dados;
+        FuncionarioService servico;
+        private int proximo;
+
+        @Setup(Level.Trial)
+        public void preparar() throws Exception {
+            dados = Cadastros.armazenamento(armazenamento);
+            servico = Cadastros.popular(dados, tamanho, 2);
+            servico.listarBonusFormatado(LOCALE);
+        }
+
+        @TearDown(Level.Trial)
+        public void fechar() throws Exception {
+            Cadastros.fechar(dados);
+        }
+
+        int proximoCodigo() {
+            int codigo = proximo;
+            proximo = proximo + 1 == tamanho ? 0 : proximo + 1;
+            return codigo;
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void escreverBonusFormatado(Relatorio r) throws Exception {
+        if (r.pool == null) {
+            r.servico.escreverBonusFormatado(LOCALE, Writer.nullWriter());
+        } else {
+            r.servico.escreverBonusFormatado(LOCALE, Writer.nullWriter(), r.pool);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int listarBonusFormatadoRepetido(Cache c) {
+        return c.servico.listarBonusFormatado(LOCALE).size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int paginaBonusAposAlteracao(Cache c) throws Exception {
+        int codigo = c.proximoCodigo();
+        c.servico.alterarSalario(codigo, 1000 + (codigo & 1023));
+        return c.servico.paginaBonusFormatado(LOCALE, null, 20).getItens().size();
+    }
+}
@@ -0,0 +1,125 @@
+package benchmark;
+
+import exceptions.FuncDuplicadoEx;
+import exceptions.FuncInexistenteEx;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.FuncionarioService;
+import service.ResultadoOperacao;
+import storage.ArmazenamentoFuncionarios;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * As três formas de tratar códigos duplicados/inexistentes em lote: exceção
+ * com pilha de chamadas, exceção sem pilha e a API "tentar...". Cada
+ * chamada é uma passada de exclusões ou de cadastros sobre um serviço novo,
+ * em que uma fração taxaFalhas das operações encontra duplicado/inexistente.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BenchmarkResultados {
+    private static final List<String> SEM_DEPENDENTES = Collections.emptyList();
+
+    @State(Scope.Benchmark)
+    public static class Lote {
+        @Param({"100000"})
+        public int tamanho;
+
+        @Param({"0.9"})
+        public double taxaFalhas;
+
+        @Param({"excecaoComPilha", "excecaoSemPilha", "resultado"})
+        public String modo;
+
+        @Param({"mapa"})
+        public String armazenamento;
+
+        // Os códigos < tamanho existem no serviço; a fração taxaFalhas de codigos é >= tamanho
+        int[] codigos;
+        // Para cadastrar: os que falhariam na exclusão passam a ser duplicados, os demais são novos
+        int[] cadastros;
+        boolean resultado;
+        ArmazenamentoFuncionarios dados;
+        FuncionarioService servico;
+
+        @Setup(Level.Trial)
+        public void prepararCodigos() {
+            codigos = Cadastros.embaralhados(tamanho);
+            Random r = new Random(7);
+            for (int i = 0; i < tamanho; i++) {
+                if (r.nextDouble() < taxaFalhas) codigos[i] += tamanho;
+            }
+            cadastros = new int[tamanho];
+            for (int i = 0; i < tamanho; i++) {
+                cadastros[i] = codigos[i] >= tamanho ? codigos[i] - tamanho : codigos[i] + tamanho;
+            }
+            resultado = "resultado".equals(modo);
+        }
+
+        @Setup(Level.Iteration)
+        public void preparar() throws Exception {
+            dados = Cadastros.armazenamento(armazenamento);
+            servico = Cadastros.popular(dados, tamanho, 0);
+            servico.setRastrearExcecoes(!"excecaoSemPilha".equals(modo));
+        }
+
+        @TearDown(Level.Iteration)
+        public void fechar() throws Exception {
+            Cadastros.fechar(dados);
+        }
+    }
+
+    @Benchmark
+    public long excluirFuncionario(Lote l) {
+        FuncionarioService s = l.servico;
+        long falhas = 0;
+        for (int codigo : l.codigos) {
+            if (l.resultado) {
+                if (s.tentarExcluir(codigo) != ResultadoOperacao.SUCESSO) falhas++;
+            } else {
+                try {
+                    s.excluirFuncionario(codigo);
+                } catch (FuncInexistenteEx e) {
+                    falhas++;
+                }
+            }
+        }
+        return falhas;
+    }
+
+    @Benchmark
+    public long cadastrarFuncionario(Lote l) {
+        FuncionarioService s = l.servico;
+        long falhas = 0;
+        for (int codigo : l.cadastros) {
+            if (l.resultado) {
+                if (s.tentarCadastrar(Cadastros.novo(codigo), SEM_DEPENDENTES) != ResultadoOperacao.SUCESSO) falhas++;
+            } else {
+                try {
+                    s.cadastrarFuncionario(Cadastros.novo(codigo), SEM_DEPENDENTES);
+                } catch (FuncDuplicadoEx e) {
+                    falhas++;
+                }
+            }
+        }
+        return falhas;
+    }
+}
@@ -0,0 +1,99 @@
+package benchmark;
+
+import model.Funcionario;
+import service.FuncionarioService;
+import storage.ArmazenamentoColunar;
+import storage.ArmazenamentoForaDoHeap;
+import storage.ArmazenamentoFuncionarios;
+import storage.ArmazenamentoMapa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cadastros sintéticos usados pelas suítes: funcionários com código,
+ * cargo e salário derivados do código, dependentes numerados e códigos em
+ * ordem aleatória com semente fixa (as medições se repetem).
+ */
+final class Cadastros {
+    static final String[] CARGOS = {"Analista", "Gerente", "Desenvolvedor", "Assistente", "Diretor"};
+    private static final String[] PRENOMES = {"Ana", "Bruno", "Carla", "Daniel", "Elisa", "Fábio", "Gabriela",
+            "Hugo", "Isabel", "João", "Karina", "Lucas", "Marina", "Nelson", "Olga", "Paulo", "Renata", "Sérgio"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira",
+            "Alves", "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes",
+            "Soares", "Fernandes", "Vieira", "Barbosa", "Rocha", "Dias", "Nascimento", "Andrade", "Moreira",
+            "Nunes", "Marques", "Machado", "Mendes", "Freitas", "Cardoso", "Ramos", "Gonçalves", "Santana",
+            "Teixeira", "Araújo", "Pinto", "Cavalcanti", "Monteiro", "Moura", "Correia", "Batista", "Campos",
+            "Rezende", "Brandão", "Fonseca", "Queiroz", "Tavares", "Siqueira", "Xavier"};
+
+    private Cadastros() {
+    }
+
+    /**
+     * @param nome "mapa", "colunar" ou "foraDoHeap"
+     */
+    static ArmazenamentoFuncionarios armazenamento(String nome) {
+        switch (nome) {
+            case "mapa":
+                return new ArmazenamentoMapa();
+            case "colunar":
+                return new ArmazenamentoColunar();
+            case "foraDoHeap":
+                return new ArmazenamentoForaDoHeap();
+            default:
+                throw new IllegalArgumentException("Armazenamento desconhecido: " + nome);
+        }
+    }
+
+    /**
+     * As Arenas do fora do heap não são liberadas pelo coletor: quem cria um
+     * armazenamento por iteração precisa fechá-lo no TearDown.
+     */
+    static void fechar(ArmazenamentoFuncionarios armazenamento) throws Exception {
+        if (armazenamento instanceof AutoCloseable) ((AutoCloseable) armazenamento).close();
+    }
+
+    static FuncionarioService popular(ArmazenamentoFuncionarios armazenamento, int n, int dependentes)
+            throws Exception {
+        FuncionarioService s = new FuncionarioService(armazenamento);
+        for (int codigo = 0; codigo < n; codigo++) {
+            s.cadastrarFuncionario(novo(codigo), nomesDependentes(codigo, dependentes));
+        }
+        return s;
+    }
+
+    static Funcionario novo(int codigo) {
+        return new Funcionario(codigo, "Funcionario " + codigo, CARGOS[codigo % CARGOS.length], 1500 + (codigo % 9000));
+    }
+
+    static List<String> nomesDependentes(int codigo, int quantidade) {
+        List<String> nomes = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) nomes.add("Dependente " + codigo + "-" + i);
+        return nomes;
+    }
+
+    /**
+     * Códigos 0..n-1 em ordem aleatória (semente fixa, para repetir as medições).
+     */
+    static int[] embaralhados(int n) {
+        int[] v = new int[n];
+        for (int i = 0; i < n; i++) v[i] = i;
+        Random r = new Random(42);
+        for (int i = n - 1; i > 0; i--) {
+            int j = r.nextInt(i + 1);
+            int t = v[i];
+            v[i] = v[j];
+            v[j] = t;
+        }
+        return v;
+    }
+
+    /**
+     * Nome com dois sobrenomes (ex: "Ana Silva Souza"), para as buscas por trecho.
+     */
+    static String nomeCompleto(Random r) {
+        return PRENOMES[r.nextInt(PRENOMES.length)] + " " + SOBRENOMES[r.nextInt(SOBRENOMES.length)]
+                + " " + SOBRENOMES[r.nextInt(SOBRENOMES.length)];
+    }
+}
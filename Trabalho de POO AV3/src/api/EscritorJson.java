@@ -0,0 +1,215 @@
+package api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Gera JSON direto em bytes UTF-8 num buffer reaproveitado, sem montar Strings
+ * intermediárias. Sem saída associada o buffer cresce (respostas pequenas, cujo
+ * tamanho é conhecido antes do envio); com saída ele é descarregado sempre que
+ * enche (respostas em streaming).
+ */
+final class EscritorJson {
+    private final OutputStream saida;
+    private byte[] buf;
+    private int pos;
+    private boolean precisaVirgula;
+
+    EscritorJson(int capacidade) {
+        this(null, capacidade);
+    }
+
+    EscritorJson(OutputStream saida, int capacidade) {
+        this.saida = saida;
+        this.buf = new byte[Math.max(64, capacidade)];
+    }
+
+    EscritorJson abrirObjeto() throws IOException {
+        separar();
+        escreverByte('{');
+        precisaVirgula = false;
+        return this;
+    }
+
+    EscritorJson fecharObjeto() throws IOException {
+        escreverByte('}');
+        precisaVirgula = true;
+        return this;
+    }
+
+    EscritorJson abrirLista() throws IOException {
+        separar();
+        escreverByte('[');
+        precisaVirgula = false;
+        return this;
+    }
+
+    EscritorJson fecharLista() throws IOException {
+        escreverByte(']');
+        precisaVirgula = true;
+        return this;
+    }
+
+    EscritorJson nome(String nome) throws IOException {
+        separar();
+        texto(nome);
+        escreverByte(':');
+        precisaVirgula = false;
+        return this;
+    }
+
+    EscritorJson valor(String s) throws IOException {
+        separar();
+        if (s == null) {
+            ascii("null");
+        } else {
+            texto(s);
+        }
+        precisaVirgula = true;
+        return this;
+    }
+
+    EscritorJson valor(long v) throws IOException {
+        separar();
+        garantir(20);
+        if (v == Long.MIN_VALUE) {
+            ascii("-9223372036854775808");
+        } else {
+            if (v < 0) {
+                buf[pos++] = '-';
+                v = -v;
+            }
+            // dígitos de trás para frente, direto no buffer
+            int fim = pos + digitos(v);
+            int i = fim;
+            do {
+                buf[--i] = (byte) ('0' + (int) (v % 10));
+                v /= 10;
+            } while (v != 0);
+            pos = fim;
+        }
+        precisaVirgula = true;
+        return this;
+    }
+
+    EscritorJson valor(double v) throws IOException {
+        separar();
+        if (Double.isNaN(v) || Double.isInfinite(v)) {
+            ascii("null");
+        } else if (v == Math.rint(v) && Math.abs(v) < 1e15) {
+            precisaVirgula = false;
+            valor((long) v);
+        } else {
+            ascii(Double.toString(v));
+        }
+        precisaVirgula = true;
+        return this;
+    }
+
+    int tamanho() {
+        return pos;
+    }
+
+    /**
+     * Envia o conteúdo acumulado para a saída informada (respostas de tamanho conhecido).
+     */
+    void copiarPara(OutputStream destino) throws IOException {
+        destino.write(buf, 0, pos);
+        pos = 0;
+    }
+
+    void descarregar() throws IOException {
+        if (saida != null && pos > 0) {
+            saida.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+
+    // ----- codificação -----
+
+    private void separar() throws IOException {
+        if (precisaVirgula) escreverByte(',');
+    }
+
+    private void texto(String s) throws IOException {
+        escreverByte('"');
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                escreverByte(c);
+            } else if (c == '"' || c == '\\') {
+                garantir(2);
+                buf[pos++] = '\\';
+                buf[pos++] = (byte) c;
+            } else if (c < 0x20) {
+                escaparControle(c);
+            } else if (c < 0x800) {
+                garantir(2);
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                garantir(4);
+                buf[pos++] = (byte) (0xF0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                escreverByte('?'); // surrogate sem par não é UTF-8 válido
+            } else {
+                garantir(3);
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        escreverByte('"');
+    }
+
+    private void escaparControle(char c) throws IOException {
+        garantir(6);
+        buf[pos++] = '\\';
+        switch (c) {
+            case '\n': buf[pos++] = 'n'; break;
+            case '\r': buf[pos++] = 'r'; break;
+            case '\t': buf[pos++] = 't'; break;
+            case '\b': buf[pos++] = 'b'; break;
+            case '\f': buf[pos++] = 'f'; break;
+            default:
+                buf[pos++] = 'u';
+                buf[pos++] = '0';
+                buf[pos++] = '0';
+                buf[pos++] = (byte) Character.forDigit(c >> 4, 16);
+                buf[pos++] = (byte) Character.forDigit(c & 0xF, 16);
+        }
+    }
+
+    private void ascii(String s) throws IOException {
+        garantir(s.length());
+        for (int i = 0; i < s.length(); i++) buf[pos++] = (byte) s.charAt(i);
+    }
+
+    private void escreverByte(int b) throws IOException {
+        garantir(1);
+        buf[pos++] = (byte) b;
+    }
+
+    private void garantir(int n) throws IOException {
+        if (pos + n <= buf.length) return;
+        if (saida != null) {
+            descarregar();
+            if (n <= buf.length) return;
+        }
+        buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+    }
+
+    private static int digitos(long v) {
+        int d = 1;
+        while (v >= 10) {
+            v /= 10;
+            d++;
+        }
+        return d;
+    }
+}
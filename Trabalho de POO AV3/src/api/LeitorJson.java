@@ -0,0 +1,171 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitor mínimo de JSON para os corpos das requisições: objetos, listas,
+ * textos, números (como Double), true/false e null.
+ * Erros de sintaxe viram IllegalArgumentException.
+ */
+final class LeitorJson {
+    private final String texto;
+    private int pos;
+
+    private LeitorJson(String texto) {
+        this.texto = texto;
+    }
+
+    /**
+     * Lê um documento cujo valor raiz é um objeto.
+     */
+    static Map<String, Object> lerObjeto(String texto) {
+        LeitorJson leitor = new LeitorJson(texto);
+        leitor.pularEspacos();
+        if (!leitor.ver('{')) throw leitor.erro("esperado objeto");
+        Map<String, Object> obj = leitor.objeto();
+        leitor.pularEspacos();
+        if (leitor.pos != texto.length()) throw leitor.erro("conteúdo após o fim do objeto");
+        return obj;
+    }
+
+    private Object valor() {
+        pularEspacos();
+        if (pos >= texto.length()) throw erro("fim inesperado");
+        char c = texto.charAt(pos);
+        switch (c) {
+            case '{': return objeto();
+            case '[': return lista();
+            case '"': return texto();
+            case 't': return palavra("true", Boolean.TRUE);
+            case 'f': return palavra("false", Boolean.FALSE);
+            case 'n': return palavra("null", null);
+            default: return numero();
+        }
+    }
+
+    private Map<String, Object> objeto() {
+        Map<String, Object> obj = new HashMap<>();
+        pos++; // {
+        pularEspacos();
+        if (ver('}')) {
+            pos++;
+            return obj;
+        }
+        while (true) {
+            pularEspacos();
+            if (!ver('"')) throw erro("esperado nome do campo");
+            String nome = texto();
+            pularEspacos();
+            esperar(':');
+            obj.put(nome, valor());
+            pularEspacos();
+            if (ver(',')) {
+                pos++;
+            } else {
+                esperar('}');
+                return obj;
+            }
+        }
+    }
+
+    private List<Object> lista() {
+        List<Object> lista = new ArrayList<>();
+        pos++; // [
+        pularEspacos();
+        if (ver(']')) {
+            pos++;
+            return lista;
+        }
+        while (true) {
+            lista.add(valor());
+            pularEspacos();
+            if (ver(',')) {
+                pos++;
+            } else {
+                esperar(']');
+                return lista;
+            }
+        }
+    }
+
+    private String texto() {
+        pos++; // "
+        int inicio = pos;
+        // caminho rápido: sem escapes
+        while (pos < texto.length()) {
+            char c = texto.charAt(pos);
+            if (c == '"') return texto.substring(inicio, pos++);
+            if (c == '\\') break;
+            pos++;
+        }
+        StringBuilder sb = new StringBuilder(texto.length() - inicio);
+        sb.append(texto, inicio, pos);
+        while (pos < texto.length()) {
+            char c = texto.charAt(pos++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos >= texto.length()) break;
+            char e = texto.charAt(pos++);
+            switch (e) {
+                case '"': case '\\': case '/': sb.append(e); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (pos + 4 > texto.length()) throw erro("escape \\u incompleto");
+                    try {
+                        sb.append((char) Integer.parseInt(texto.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw erro("escape \\u inválido");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw erro("escape inválido: \\" + e);
+            }
+        }
+        throw erro("texto sem fim");
+    }
+
+    private Double numero() {
+        int inicio = pos;
+        while (pos < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(pos)) >= 0) pos++;
+        if (inicio == pos) throw erro("valor inválido");
+        try {
+            return Double.valueOf(texto.substring(inicio, pos));
+        } catch (NumberFormatException ex) {
+            throw erro("número inválido");
+        }
+    }
+
+    private Object palavra(String palavra, Object valor) {
+        if (!texto.startsWith(palavra, pos)) throw erro("valor inválido");
+        pos += palavra.length();
+        return valor;
+    }
+
+    private void pularEspacos() {
+        while (pos < texto.length() && Character.isWhitespace(texto.charAt(pos))) pos++;
+    }
+
+    private boolean ver(char c) {
+        return pos < texto.length() && texto.charAt(pos) == c;
+    }
+
+    private void esperar(char c) {
+        if (!ver(c)) throw erro("esperado '" + c + "'");
+        pos++;
+    }
+
+    private IllegalArgumentException erro(String mensagem) {
+        return new IllegalArgumentException("JSON inválido na posição " + pos + ": " + mensagem);
+    }
+}
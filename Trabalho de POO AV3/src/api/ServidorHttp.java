@@ -0,0 +1,357 @@
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.Funcionario;
+import persistence.JournalFuncionarios;
+import service.ConsultaFuncionarios;
+import service.CursorNome;
+import service.FuncionarioService;
+import service.MonitorFuncionarios;
+import service.Pagina;
+import service.ResultadoOperacao;
+import service.SnapshotFuncionarios;
+
+import javax.management.JMException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API HTTP/JSON embutida sobre o FuncionarioService (servidor HTTP do JDK).
+ *
+ * <pre>
+ * POST   /funcionarios                          {"codigo":1,"nome":"Ana","cargo":"Dev","salario":2500.5,"dependentes":["Bia"]}
+ * DELETE /funcionarios/{codigo}
+ * PUT    /funcionarios/{codigo}/salario         {"salario":3000}
+ * GET    /funcionarios/{codigo}/dependentes     {"codigo":1,"dependentes":1}
+ * GET    /funcionarios/busca?nome=silva&amp;salarioMin=3000&amp;salarioMax=5000   (também dependente=, limite=)
+ * GET    /relatorio/bonus                       lista JSON em streaming (?formato=texto para o relatório em texto)
+ * </pre>
+ * Erros respondem {"erro":"mensagem"} com 400 (requisição inválida),
+ * 404 (funcionário inexistente) ou 409 (funcionário já cadastrado).
+ *
+ * Cada requisição roda em uma thread virtual.
+ */
+public class ServidorHttp implements AutoCloseable {
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final int ITENS_POR_PAGINA = 1024;
+    private static final int LIMITE_BUSCA = 1000; // padrão do parâmetro limite
+    private static final Locale LOCALE_RELATORIO = Locale.of("pt", "BR");
+
+    private final FuncionarioService service;
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+
+    private ServidorHttp(FuncionarioService service, HttpServer servidor, ExecutorService executor) {
+        this.service = service;
+        this.servidor = servidor;
+        this.executor = executor;
+    }
+
+    /**
+     * Sobe o servidor no endereço informado (porta 0 = qualquer porta livre).
+     *
+     * @throws IOException se não for possível abrir a porta
+     */
+    public static ServidorHttp iniciar(FuncionarioService service, InetSocketAddress endereco) throws IOException {
+        Objects.requireNonNull(service, "Service não pode ser null");
+        HttpServer servidor = HttpServer.create(endereco, 1024);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        ServidorHttp api = new ServidorHttp(service, servidor, executor);
+        servidor.createContext("/funcionarios", api::tratarFuncionarios);
+        servidor.createContext("/relatorio/bonus", api::tratarRelatorio);
+        servidor.setExecutor(executor);
+        servidor.start();
+        return api;
+    }
+
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Para de aceitar conexões e espera até 1 segundo as requisições em andamento.
+     */
+    @Override
+    public void close() {
+        servidor.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Uso: java api.ServidorHttp [--porta=8080] [--dados=dir] [--indice-busca=true]
+     *
+     * Com clientes que esperam cada resposta, rode com
+     * -Dsun.net.httpserver.nodelay=true para não esperar o ACK atrasado.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String a : args) {
+            if (a.startsWith("--") && a.contains("=")) {
+                opcoes.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+            }
+        }
+        FuncionarioService service = new FuncionarioService();
+        try {
+            MonitorFuncionarios.publicar(service, "http");
+        } catch (JMException ex) {
+            System.err.println("Métricas JMX indisponíveis: " + ex.getMessage());
+        }
+        JournalFuncionarios journal = opcoes.containsKey("dados")
+                ? JournalFuncionarios.abrir(Path.of(opcoes.get("dados")), service) : null;
+        service.setIndiceBusca(Boolean.parseBoolean(opcoes.get("indice-busca")));
+        ServidorHttp api = iniciar(service, new InetSocketAddress(Integer.parseInt(opcoes.getOrDefault("porta", "8080"))));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.close();
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException ex) {
+                    System.err.println("Erro ao gravar dados: " + ex.getMessage());
+                }
+            }
+        }));
+        System.out.println("Servidor HTTP na porta " + api.getPorta());
+    }
+
+    // ----- rotas -----
+
+    private void tratarFuncionarios(HttpExchange ex) throws IOException {
+        try {
+            String[] partes = caminho(ex.getRequestURI(), "/funcionarios");
+            String metodo = ex.getRequestMethod();
+            if (partes.length == 0) {
+                if (!exigirMetodo(ex, metodo, "POST")) return;
+                cadastrar(ex);
+                return;
+            }
+            if (partes.length == 1 && "busca".equals(partes[0])) {
+                if (!exigirMetodo(ex, metodo, "GET")) return;
+                buscar(ex);
+                return;
+            }
+            int codigo = Integer.parseInt(partes[0]);
+            if (partes.length == 1) {
+                if (!exigirMetodo(ex, metodo, "DELETE")) return;
+                responderResultado(ex, service.tentarExcluir(codigo), 204);
+            } else if (partes.length == 2 && "salario".equals(partes[1])) {
+                if (!exigirMetodo(ex, metodo, "PUT")) return;
+                double salario = numero(lerCorpo(ex), "salario");
+                responderResultado(ex, service.tentarAlterarSalario(codigo, salario), 204);
+            } else if (partes.length == 2 && "dependentes".equals(partes[1])) {
+                if (!exigirMetodo(ex, metodo, "GET")) return;
+                EscritorJson json = new EscritorJson(64);
+                json.abrirObjeto().nome("codigo").valor(codigo)
+                        .nome("dependentes").valor(service.contarDependentes(codigo)).fecharObjeto();
+                responder(ex, 200, json);
+            } else {
+                responderErro(ex, 404, "Recurso inexistente");
+            }
+        } catch (IllegalArgumentException e) { // inclui NumberFormatException
+            responderErro(ex, 400, e.getMessage());
+        } finally {
+            ex.close();
+        }
+    }
+
+    private void cadastrar(HttpExchange ex) throws IOException {
+        Map<String, Object> corpo = lerCorpo(ex);
+        double numeroCodigo = numero(corpo, "codigo");
+        int codigo = (int) numeroCodigo;
+        if (codigo != numeroCodigo) throw new IllegalArgumentException("Campo 'codigo' deve ser um inteiro");
+        String nome = texto(corpo, "nome");
+        String cargo = texto(corpo, "cargo");
+        double salario = numero(corpo, "salario");
+        List<String> dependentes = new ArrayList<>();
+        Object deps = corpo.get("dependentes");
+        if (deps instanceof List) {
+            for (Object d : (List<?>) deps) {
+                if (!(d instanceof String) || ((String) d).trim().isEmpty()) {
+                    throw new IllegalArgumentException("Nome de dependente inválido");
+                }
+                dependentes.add(((String) d).trim());
+            }
+        } else if (deps != null) {
+            throw new IllegalArgumentException("Campo 'dependentes' deve ser uma lista");
+        }
+
+        ResultadoOperacao r = service.tentarCadastrar(new Funcionario(codigo, nome, cargo, salario), dependentes);
+        if (!r.isSucesso()) {
+            responderResultado(ex, r, 201);
+            return;
+        }
+        ex.getResponseHeaders().set("Location", "/funcionarios/" + codigo);
+        EscritorJson json = new EscritorJson(32);
+        json.abrirObjeto().nome("codigo").valor(codigo).fecharObjeto();
+        responder(ex, 201, json);
+    }
+
+    private void buscar(HttpExchange ex) throws IOException {
+        Map<String, String> parametros = parametros(ex.getRequestURI());
+        ConsultaFuncionarios consulta = ConsultaFuncionarios.todos()
+                .limitadaA(Integer.parseInt(parametros.getOrDefault("limite", String.valueOf(LIMITE_BUSCA))));
+        if (parametros.containsKey("nome")) consulta = consulta.nomeContendo(parametros.get("nome"));
+        if (parametros.containsKey("dependente")) consulta = consulta.dependenteContendo(parametros.get("dependente"));
+        if (parametros.containsKey("salarioMin") || parametros.containsKey("salarioMax")) {
+            consulta = consulta.comSalarioEntre(
+                    Double.parseDouble(parametros.getOrDefault("salarioMin", "-Infinity")),
+                    Double.parseDouble(parametros.getOrDefault("salarioMax", "Infinity")));
+        }
+        EscritorJson json = new EscritorJson(1024);
+        json.abrirLista();
+        for (Funcionario f : service.buscarFuncionarios(consulta)) {
+            json.abrirObjeto()
+                    .nome("codigo").valor(f.getCodigo())
+                    .nome("nome").valor(f.getNome())
+                    .nome("cargo").valor(f.getCargo())
+                    .nome("salario").valor(f.getSalario())
+                    .fecharObjeto();
+        }
+        json.fecharLista();
+        responder(ex, 200, json);
+    }
+
+    /**
+     * Relatório de bônus em ordem de nome, escrito na resposta página a página
+     * (memória constante, qualquer que seja o tamanho do cadastro). Cada página
+     * é lida de um snapshot, como o relatório em texto.
+     */
+    private void tratarRelatorio(HttpExchange ex) throws IOException {
+        try {
+            if (!exigirMetodo(ex, ex.getRequestMethod(), "GET")) return;
+            String consulta = ex.getRequestURI().getRawQuery();
+            if (consulta != null && consulta.contains("formato=texto")) {
+                ex.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                ex.sendResponseHeaders(200, 0); // 0 = chunked
+                BufferedWriter w = new BufferedWriter(new OutputStreamWriter(ex.getResponseBody(), StandardCharsets.UTF_8), 1 << 16);
+                service.escreverBonusFormatado(LOCALE_RELATORIO, w);
+                w.flush();
+                return;
+            }
+
+            ex.getResponseHeaders().set("Content-Type", JSON);
+            ex.sendResponseHeaders(200, 0);
+            EscritorJson json = new EscritorJson(ex.getResponseBody(), 1 << 16);
+            json.abrirLista();
+            CursorNome cursor = CursorNome.inicio();
+            while (cursor != null) {
+                // Cada página sai inteira de um snapshot: nome, dependentes e bônus da mesma versão
+                Pagina<SnapshotFuncionarios.Visivel> pagina;
+                try (SnapshotFuncionarios snapshot = service.abrirSnapshot()) {
+                    pagina = snapshot.paginaPorNome(cursor, ITENS_POR_PAGINA);
+                }
+                for (SnapshotFuncionarios.Visivel v : pagina.getItens()) {
+                    Funcionario f = v.getFuncionario();
+                    int qtd = v.getQtdDependentes();
+                    json.abrirObjeto()
+                            .nome("codigo").valor(f.getCodigo())
+                            .nome("nome").valor(f.getNome())
+                            .nome("cargo").valor(f.getCargo())
+                            .nome("dependentes").valor(qtd)
+                            .nome("bonus").valor(service.calcBonus(f.getSalario(), qtd))
+                            .fecharObjeto();
+                }
+                cursor = pagina.getProximo();
+            }
+            json.fecharLista();
+            json.descarregar();
+        } finally {
+            ex.close();
+        }
+    }
+
+    // ----- helpers -----
+
+    /**
+     * @return os segmentos do caminho depois do prefixo (sem vazios)
+     */
+    private static String[] caminho(URI uri, String prefixo) {
+        String resto = uri.getPath().substring(prefixo.length());
+        List<String> partes = new ArrayList<>(3);
+        for (String p : resto.split("/")) {
+            if (!p.isEmpty()) partes.add(p);
+        }
+        return partes.toArray(new String[0]);
+    }
+
+    private static Map<String, String> parametros(URI uri) {
+        Map<String, String> parametros = new HashMap<>();
+        String consulta = uri.getRawQuery();
+        if (consulta == null) return parametros;
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual <= 0) continue;
+            parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                    URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+        }
+        return parametros;
+    }
+
+    private static boolean exigirMetodo(HttpExchange ex, String metodo, String esperado) throws IOException {
+        if (esperado.equals(metodo)) return true;
+        ex.getResponseHeaders().set("Allow", esperado);
+        responderErro(ex, 405, "Método não permitido: " + metodo);
+        return false;
+    }
+
+    private static Map<String, Object> lerCorpo(HttpExchange ex) throws IOException {
+        byte[] bytes = ex.getRequestBody().readAllBytes();
+        return LeitorJson.lerObjeto(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static double numero(Map<String, Object> corpo, String campo) {
+        Object v = corpo.get(campo);
+        if (!(v instanceof Double)) throw new IllegalArgumentException("Campo '" + campo + "' deve ser um número");
+        return (Double) v;
+    }
+
+    private static String texto(Map<String, Object> corpo, String campo) {
+        Object v = corpo.get(campo);
+        if (!(v instanceof String) || ((String) v).trim().isEmpty()) {
+            throw new IllegalArgumentException("Campo '" + campo + "' é obrigatório");
+        }
+        return ((String) v).trim();
+    }
+
+    private static void responderResultado(HttpExchange ex, ResultadoOperacao r, int statusSucesso) throws IOException {
+        switch (r) {
+            case SUCESSO:
+                ex.sendResponseHeaders(statusSucesso, -1); // sem corpo
+                break;
+            case DUPLICADO:
+                responderErro(ex, 409, r.getMensagem());
+                break;
+            default:
+                responderErro(ex, 404, r.getMensagem());
+        }
+    }
+
+    private static void responderErro(HttpExchange ex, int status, String mensagem) throws IOException {
+        EscritorJson json = new EscritorJson(128);
+        json.abrirObjeto().nome("erro").valor(mensagem).fecharObjeto();
+        responder(ex, status, json);
+    }
+
+    private static void responder(HttpExchange ex, int status, EscritorJson json) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", JSON);
+        ex.sendResponseHeaders(status, json.tamanho());
+        OutputStream corpo = ex.getResponseBody();
+        json.copiarPara(corpo);
+    }
+}
@@ -1,15 +1,25 @@
-package exceptions;
-
-/**
- * Exceção lançada quando é tentado cadastrar um funcionário
- * com um código que já existe no sistema.
- */
-public class FuncDuplicadoEx extends Exception {
-    public FuncDuplicadoEx() {
-        super("Funcionário já cadastrado");
-    }
-
-    public FuncDuplicadoEx(String message) {
-        super(message);
-    }
-}
+package exceptions;
+
+/**
+ * Exceção lançada quando é tentado cadastrar um funcionário
+ * com um código que já existe no sistema.
+ */
+public class FuncDuplicadoEx extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public FuncDuplicadoEx() {
+        super("Funcionário já cadastrado");
+    }
+
+    public FuncDuplicadoEx(String message) {
+        super(message);
+    }
+
+    /**
+     * @param rastrear false para não capturar a pilha de chamadas (bem mais barato
+     *                 quando a exceção é esperada e lançada muitas vezes, ex: em lotes)
+     */
+    public FuncDuplicadoEx(boolean rastrear) {
+        super("Funcionário já cadastrado", null, false, rastrear);
+    }
+}
@@ -1,15 +1,25 @@
-package exceptions;
-
-/**
- * Exceção lançada quando uma operação tenta acessar um funcionário que não existe.
- * A mensagem padrão segue o enunciado: "Funcionário Inexistente".
- */
-public class FuncInexistenteEx extends Exception {
-    public FuncInexistenteEx() {
-        super("Funcionário Inexistente");
-    }
-
-    public FuncInexistenteEx(String message) {
-        super(message);
-    }
-}
+package exceptions;
+
+/**
+ * Exceção lançada quando uma operação tenta acessar um funcionário que não existe.
+ * A mensagem padrão segue o enunciado: "Funcionário Inexistente".
+ */
+public class FuncInexistenteEx extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public FuncInexistenteEx() {
+        super("Funcionário Inexistente");
+    }
+
+    public FuncInexistenteEx(String message) {
+        super(message);
+    }
+
+    /**
+     * @param rastrear false para não capturar a pilha de chamadas (bem mais barato
+     *                 quando a exceção é esperada e lançada muitas vezes, ex: em lotes)
+     */
+    public FuncInexistenteEx(boolean rastrear) {
+        super("Funcionário Inexistente", null, false, rastrear);
+    }
+}
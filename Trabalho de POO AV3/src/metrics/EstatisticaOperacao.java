@@ -0,0 +1,81 @@
+package metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Retrato das métricas de uma operação, no formato publicado via JMX
+ * (latências em microssegundos).
+ */
+public class EstatisticaOperacao {
+    private final long quantidade;
+    private final long falhas;
+    private final double taxaPorSegundo;
+    private final double mediaMicros;
+    private final double p50Micros;
+    private final double p90Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maximoMicros;
+
+    @ConstructorProperties({"quantidade", "falhas", "taxaPorSegundo", "mediaMicros",
+            "p50Micros", "p90Micros", "p99Micros", "p999Micros", "maximoMicros"})
+    public EstatisticaOperacao(long quantidade, long falhas, double taxaPorSegundo, double mediaMicros,
+                               double p50Micros, double p90Micros, double p99Micros, double p999Micros,
+                               double maximoMicros) {
+        this.quantidade = quantidade;
+        this.falhas = falhas;
+        this.taxaPorSegundo = taxaPorSegundo;
+        this.mediaMicros = mediaMicros;
+        this.p50Micros = p50Micros;
+        this.p90Micros = p90Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maximoMicros = maximoMicros;
+    }
+
+    /**
+     * @param quantidade chamadas (pode ser maior que os registros do histograma, quando há amostragem)
+     */
+    public static EstatisticaOperacao de(HistogramaLatencia h, long quantidade, long falhas, double taxaPorSegundo) {
+        return new EstatisticaOperacao(quantidade, falhas, taxaPorSegundo, h.getMedia() / 1e3,
+                h.percentil(0.50) / 1e3, h.percentil(0.90) / 1e3, h.percentil(0.99) / 1e3,
+                h.percentil(0.999) / 1e3, h.getMaximo() / 1e3);
+    }
+
+    // Getters
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    public long getFalhas() {
+        return falhas;
+    }
+
+    public double getTaxaPorSegundo() {
+        return taxaPorSegundo;
+    }
+
+    public double getMediaMicros() {
+        return mediaMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP90Micros() {
+        return p90Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public double getMaximoMicros() {
+        return maximoMicros;
+    }
+}
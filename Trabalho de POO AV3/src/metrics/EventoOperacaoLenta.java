@@ -0,0 +1,32 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento JFR de uma operação do FuncionarioService que passou do limite de
+ * lentidão. Só é criado depois que a operação termina e se ela foi lenta,
+ * por isso não custa nada para as operações rápidas.
+ */
+@Name("funcionarios.OperacaoLenta")
+@Label("Operação lenta")
+@Category("Funcionários")
+@Description("Operação do FuncionarioService acima do limite configurado")
+@StackTrace(false)
+public class EventoOperacaoLenta extends Event {
+    @Label("Operação")
+    String operacao;
+
+    @Label("Código")
+    @Description("Código do funcionário (0 quando a operação não é de um funcionário só)")
+    int codigo;
+
+    @Label("Duração")
+    @Timespan(Timespan.NANOSECONDS)
+    long duracao;
+}
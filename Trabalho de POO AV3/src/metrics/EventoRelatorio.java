@@ -0,0 +1,26 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de geração de relatório (duração medida pelo próprio JFR entre
+ * begin() e commit()).
+ */
+@Name("funcionarios.Relatorio")
+@Label("Geração de relatório")
+@Category("Funcionários")
+@StackTrace(false)
+public class EventoRelatorio extends Event {
+    @Label("Relatório")
+    public String relatorio;
+
+    @Label("Linhas")
+    public long linhas;
+
+    @Label("Concluído")
+    public boolean concluido;
+}
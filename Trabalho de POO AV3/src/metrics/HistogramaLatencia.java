@@ -0,0 +1,104 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências (em nanossegundos) que várias threads podem
+ * alimentar ao mesmo tempo sem trava: cada registro é um incremento atômico
+ * na faixa correspondente.
+ *
+ * Cada potência de 2 é dividida em 16 faixas iguais, o que dá erro relativo de
+ * no máximo ~6% nos percentis, com tamanho fixo (8 KB) qualquer que seja o
+ * número de registros.
+ */
+public class HistogramaLatencia {
+    private static final int BITS_SUBFAIXA = 4;
+    private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(64 * SUBFAIXAS);
+    private final LongAdder quantidade = new LongAdder();
+    private final LongAdder soma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    public void registrar(long nanos) {
+        long v = Math.max(0, nanos);
+        contagens.getAndIncrement(faixa(v));
+        quantidade.increment();
+        soma.add(v);
+        long atual = maximo.get();
+        while (v > atual && !maximo.compareAndSet(atual, v)) {
+            atual = maximo.get();
+        }
+    }
+
+    /**
+     * Soma os registros de outro histograma a este.
+     */
+    public void somar(HistogramaLatencia outro) {
+        for (int i = 0; i < contagens.length(); i++) {
+            long c = outro.contagens.get(i);
+            if (c != 0) contagens.getAndAdd(i, c);
+        }
+        quantidade.add(outro.quantidade.sum());
+        soma.add(outro.soma.sum());
+        maximo.accumulateAndGet(outro.maximo.get(), Math::max);
+    }
+
+    /**
+     * Descarta todos os registros. Registros feitos durante a chamada podem
+     * ficar só em parte dos contadores.
+     */
+    public void zerar() {
+        for (int i = 0; i < contagens.length(); i++) contagens.set(i, 0);
+        quantidade.reset();
+        soma.reset();
+        maximo.set(0);
+    }
+
+    public long getQuantidade() {
+        return quantidade.sum();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    public double getMedia() {
+        long q = quantidade.sum();
+        return q == 0 ? 0 : soma.sum() / (double) q;
+    }
+
+    /**
+     * @param p fração entre 0 e 1 (ex: 0.99)
+     * @return valor aproximado (meio da faixa) abaixo do qual estão p dos registros
+     */
+    public double percentil(double p) {
+        long total = 0;
+        for (int i = 0; i < contagens.length(); i++) total += contagens.get(i);
+        if (total == 0) return 0;
+        long alvo = Math.max(1, (long) Math.ceil(p * total));
+        long acumulado = 0;
+        for (int i = 0; i < contagens.length(); i++) {
+            acumulado += contagens.get(i);
+            if (acumulado >= alvo) return Math.min(meioDaFaixa(i), maximo.get());
+        }
+        return maximo.get();
+    }
+
+    private static int faixa(long v) {
+        if (v < SUBFAIXAS) return (int) v;
+        int expoente = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (expoente - BITS_SUBFAIXA)) & (SUBFAIXAS - 1);
+        return (expoente - BITS_SUBFAIXA + 1) * SUBFAIXAS + sub;
+    }
+
+    private static double meioDaFaixa(int i) {
+        if (i < SUBFAIXAS) return i;
+        int expoente = i / SUBFAIXAS + BITS_SUBFAIXA - 1;
+        long largura = 1L << (expoente - BITS_SUBFAIXA);
+        long inicio = (long) (SUBFAIXAS + i % SUBFAIXAS) << (expoente - BITS_SUBFAIXA);
+        return inicio + largura / 2.0;
+    }
+}
@@ -0,0 +1,187 @@
+package metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latências, falhas e vazão de cada operação do FuncionarioService.
+ *
+ * Chamadas e falhas são sempre contadas. As operações sobre um funcionário
+ * só (que levam algumas centenas de ns) são amostradas: só 1 a cada
+ * {@link #getAmostragem()} chamadas é cronometrada, gravada no histograma e
+ * verificada contra o limite de lentidão; nas outras não se lê o relógio.
+ * As demais operações são sempre cronometradas, e qualquer uma acima do
+ * limite gera um {@link EventoOperacaoLenta}.
+ */
+public class MetricasServico {
+
+    public enum Operacao {
+        CADASTRAR, CADASTRAR_LOTE, EXCLUIR, ALTERAR_SALARIO, REAJUSTAR_LOTE, CONTAR_DEPENDENTES, LISTAR_DEPENDENTES,
+        BONUS_TOTAL, RELATORIO, PAGINA, BUSCAR, RESUMO, VERIFICAR_AGREGADOS
+    }
+
+    private static final long JANELA_TAXA_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long NAO_AMOSTRADA = Long.MIN_VALUE; // devolvido por inicioAmostrado()
+
+    // Duas leituras do contador: a vazão é calculada entre a anterior e o momento atual
+    private static final class Amostras {
+        final long tempoAnterior, quantidadeAnterior, tempo, quantidade;
+
+        Amostras(long tempoAnterior, long quantidadeAnterior, long tempo, long quantidade) {
+            this.tempoAnterior = tempoAnterior;
+            this.quantidadeAnterior = quantidadeAnterior;
+            this.tempo = tempo;
+            this.quantidade = quantidade;
+        }
+    }
+
+    private final HistogramaLatencia[] latencias = new HistogramaLatencia[Operacao.values().length];
+    private final LongAdder[] chamadas = new LongAdder[Operacao.values().length];
+    private final LongAdder[] falhas = new LongAdder[Operacao.values().length];
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final AtomicReference<Amostras>[] amostras = new AtomicReference[Operacao.values().length];
+    private volatile long limiteLentoNanos = TimeUnit.MILLISECONDS.toNanos(10);
+    private volatile int mascaraAmostra = 63; // amostragem - 1 (potência de 2)
+
+    public MetricasServico() {
+        long agora = System.nanoTime();
+        for (int i = 0; i < latencias.length; i++) {
+            latencias[i] = new HistogramaLatencia();
+            chamadas[i] = new LongAdder();
+            falhas[i] = new LongAdder();
+            amostras[i] = new AtomicReference<>(new Amostras(agora, 0, agora, 0));
+        }
+    }
+
+    /**
+     * Início de uma operação amostrada. O sorteio usa o gerador da própria
+     * thread (um contador por thread, sem escrita compartilhada) e só a
+     * chamada sorteada lê o relógio.
+     *
+     * @return System.nanoTime() em 1 a cada {@link #getAmostragem()} chamadas;
+     *         nas outras, um valor que {@link #registrarAmostrado} só conta
+     */
+    public long inicioAmostrado() {
+        int mascara = mascaraAmostra;
+        if (mascara != 0 && (ThreadLocalRandom.current().nextInt() & mascara) != 0) return NAO_AMOSTRADA;
+        return System.nanoTime();
+    }
+
+    /**
+     * Registra uma operação iniciada com {@link #inicioAmostrado()}: conta a
+     * chamada sempre; se ela foi sorteada, grava a latência no histograma e
+     * verifica a lentidão.
+     */
+    public void registrarAmostrado(Operacao op, long inicioNanos, boolean sucesso, int codigo) {
+        if (inicioNanos == NAO_AMOSTRADA) {
+            chamadas[op.ordinal()].increment();
+            if (!sucesso) falhas[op.ordinal()].increment();
+            return;
+        }
+        registrar(op, inicioNanos, sucesso, codigo);
+    }
+
+    /**
+     * Registra uma operação bem-sucedida que não é de um funcionário específico.
+     *
+     * @param inicioNanos System.nanoTime() do início da operação
+     */
+    public void registrar(Operacao op, long inicioNanos) {
+        registrar(op, inicioNanos, true, 0);
+    }
+
+    /**
+     * @param inicioNanos System.nanoTime() do início da operação
+     * @param sucesso     false para código duplicado/inexistente
+     * @param codigo      código do funcionário (vai no evento JFR de operação lenta)
+     */
+    public void registrar(Operacao op, long inicioNanos, boolean sucesso, int codigo) {
+        long duracao = System.nanoTime() - inicioNanos;
+        latencias[op.ordinal()].registrar(duracao);
+        contar(op, duracao, sucesso, codigo);
+    }
+
+    // Chamadas, falhas e evento de operação lenta
+    private void contar(Operacao op, long duracao, boolean sucesso, int codigo) {
+        chamadas[op.ordinal()].increment();
+        if (!sucesso) falhas[op.ordinal()].increment();
+        if (duracao >= limiteLentoNanos) {
+            EventoOperacaoLenta evento = new EventoOperacaoLenta();
+            if (evento.isEnabled()) {
+                evento.operacao = op.name();
+                evento.codigo = codigo;
+                evento.duracao = duracao;
+                evento.commit();
+            }
+        }
+    }
+
+    /**
+     * Latências gravadas no histograma (todas ou só as amostradas, conforme a operação).
+     */
+    public HistogramaLatencia getLatencia(Operacao op) {
+        return latencias[op.ordinal()];
+    }
+
+    public long getChamadas(Operacao op) {
+        return chamadas[op.ordinal()].sum();
+    }
+
+    public long getFalhas(Operacao op) {
+        return falhas[op.ordinal()].sum();
+    }
+
+    /**
+     * Operações por segundo desde a leitura anterior (com pelo menos 1 segundo
+     * de intervalo), para acompanhar a vazão ao vivo.
+     */
+    public double getTaxaPorSegundo(Operacao op) {
+        AtomicReference<Amostras> ref = amostras[op.ordinal()];
+        long agora = System.nanoTime();
+        long quantidade = chamadas[op.ordinal()].sum();
+        Amostras a = ref.get();
+        if (agora - a.tempo >= JANELA_TAXA_NANOS) {
+            // outra thread pode ter avançado antes; qualquer uma das duas serve
+            ref.compareAndSet(a, new Amostras(a.tempo, a.quantidade, agora, quantidade));
+            a = ref.get();
+        }
+        long intervalo = agora - a.tempoAnterior;
+        return intervalo <= 0 ? 0 : (quantidade - a.quantidadeAnterior) * 1e9 / intervalo;
+    }
+
+    public long getLimiteLentoNanos() {
+        return limiteLentoNanos;
+    }
+
+    /**
+     * Duração a partir da qual uma operação gera o evento JFR de operação lenta.
+     */
+    public void setLimiteLentoNanos(long limiteLentoNanos) {
+        this.limiteLentoNanos = Math.max(0, limiteLentoNanos);
+    }
+
+    public int getAmostragem() {
+        return mascaraAmostra + 1;
+    }
+
+    /**
+     * Cronometra 1 a cada {@code umEm} chamadas das operações amostradas
+     * (arredondado para potência de 2; 1 = todas).
+     */
+    public void setAmostragem(int umEm) {
+        int n = Math.max(1, Math.min(1 << 20, umEm));
+        mascaraAmostra = Integer.highestOneBit(n * 2 - 1) - 1;
+    }
+
+    public void zerar() {
+        long agora = System.nanoTime();
+        for (int i = 0; i < latencias.length; i++) {
+            latencias[i].zerar();
+            chamadas[i].reset();
+            falhas[i].reset();
+            amostras[i].set(new Amostras(agora, 0, agora, 0));
+        }
+    }
+}
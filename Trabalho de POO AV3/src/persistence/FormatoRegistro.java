@@ -0,0 +1,86 @@
+package persistence;
+
+import model.Dependente;
+import model.Funcionario;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Codificação binária dos registros do journal (e dos snapshots antigos,
+ * anteriores a {@link SnapshotCompacto}, que ainda podem ser carregados).
+ * Cada registro é gravado como [tamanho int][crc32 int][conteúdo], o que
+ * permite descartar um final de arquivo incompleto (gravação interrompida).
+ */
+final class FormatoRegistro {
+    static final byte FIM = 0; // fim de um snapshot antigo completo
+    static final byte CADASTRO = 1;
+    static final byte EXCLUSAO = 2;
+    static final byte SALARIO = 3;
+
+    static final int CABECALHO = 8; // tamanho + crc
+
+    private FormatoRegistro() {
+    }
+
+    static byte[] cadastro(Funcionario f, List<Dependente> dependentes) {
+        byte[] nome = bytes(f.getNome());
+        byte[] cargo = bytes(f.getCargo());
+        byte[][] deps = new byte[dependentes.size()][];
+        int tamanho = 1 + 4 + 4 + nome.length + 4 + cargo.length + 8 + 4;
+        for (int i = 0; i < deps.length; i++) {
+            deps[i] = bytes(dependentes.get(i).getNome());
+            tamanho += 4 + deps[i].length;
+        }
+        ByteBuffer b = novo(tamanho);
+        b.put(CADASTRO).putInt(f.getCodigo());
+        b.putInt(nome.length).put(nome);
+        b.putInt(cargo.length).put(cargo);
+        b.putDouble(f.getSalario());
+        b.putInt(deps.length);
+        for (byte[] dep : deps) {
+            b.putInt(dep.length).put(dep);
+        }
+        return fechar(b);
+    }
+
+    static byte[] exclusao(int codigo) {
+        return fechar(novo(1 + 4).put(EXCLUSAO).putInt(codigo));
+    }
+
+    static byte[] salario(int codigo, double salario) {
+        return fechar(novo(1 + 4 + 8).put(SALARIO).putInt(codigo).putDouble(salario));
+    }
+
+    static String lerTexto(ByteBuffer conteudo) {
+        byte[] b = new byte[conteudo.getInt()];
+        conteudo.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    static int crc(ByteBuffer conteudo) {
+        CRC32 crc = new CRC32();
+        crc.update(conteudo.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static byte[] bytes(String s) {
+        return (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer novo(int tamanhoConteudo) {
+        ByteBuffer b = ByteBuffer.allocate(CABECALHO + tamanhoConteudo);
+        b.position(CABECALHO);
+        return b;
+    }
+
+    private static byte[] fechar(ByteBuffer b) {
+        ByteBuffer conteudo = b.duplicate();
+        conteudo.position(CABECALHO).limit(b.position());
+        b.putInt(0, conteudo.remaining());
+        b.putInt(4, crc(conteudo));
+        return b.array();
+    }
+}
@@ -0,0 +1,462 @@
+package persistence;
+
+import model.Dependente;
+import model.Funcionario;
+import service.FuncionarioService;
+import service.OuvinteFuncionarios;
+import service.ResultadoOperacao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistência do FuncionarioService: cada cadastro, exclusão e alteração de
+ * salário é anexado a um journal binário (append-only).
+ *
+ * Os registros são acumulados em um buffer e gravados com fsync em lote a cada
+ * intervalo (ou quando o buffer enche), então vários registros dividem o mesmo fsync.
+ * A alteração já vale no serviço quando o registro entra no buffer: até o
+ * fsync seguinte (no máximo o intervalo de sync) ela ainda não está no disco.
+ * Quem precisa confirmar a gravação antes de responder chama
+ * {@link #aguardarGravacao()} depois da alteração. Uma falha de I/O não
+ * desfaz a alteração já feita no serviço (o journal é avisado depois
+ * dela): fica guardada e é lançada por aguardarGravacao, sincronizar e close.
+ * Depois de uma certa quantidade de registros é feito um snapshot do cadastro
+ * e os journals/snapshots antigos são apagados (compactação); uma falha do
+ * snapshot em segundo plano é guardada da mesma forma.
+ *
+ * Arquivos no diretório: journal-N.log e snapshot-N.bin (no formato de
+ * {@link SnapshotCompacto}). O snapshot N contém tudo dos journals anteriores a N; na abertura carrega-se o último snapshot
+ * e reaplica-se os journals a partir de N, lidos com mapeamento em memória.
+ */
+public class JournalFuncionarios implements OuvinteFuncionarios, Closeable {
+    private static final String PREFIXO_JOURNAL = "journal-";
+    private static final String SUFIXO_JOURNAL = ".log";
+    private static final String PREFIXO_SNAPSHOT = "snapshot-";
+    private static final String SUFIXO_SNAPSHOT = ".bin";
+    private static final String SUFIXO_TEMPORARIO = ".tmp";
+    private static final int TAMANHO_BUFFER = 1024 * 1024;
+
+    private final Path diretorio;
+    private final FuncionarioService service;
+    private final long registrosPorSnapshot;
+    private final ScheduledExecutorService agendador;
+
+    // Ordem das travas: travaEscrita -> travaBuffer
+    private final Object travaBuffer = new Object();
+    private final Object travaEscrita = new Object();
+    private ByteBuffer buffer;      // protegido por travaBuffer
+    private ByteBuffer reserva;     // protegido por travaEscrita
+    private FileChannel canal;      // protegido por travaEscrita
+    private long geracao;           // protegido por travaEscrita
+    private long registrados;       // protegido por travaBuffer: registros anexados até agora
+    private long gravados;          // protegido por travaGravados: registros já com fsync
+    private final Object travaGravados = new Object();
+    private volatile IOException falha; // primeira falha de gravação (os registros seguintes podem ter se perdido)
+
+    private final AtomicLong registrosDesdeSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotEmAndamento = new AtomicBoolean();
+    private volatile boolean fechado;
+
+    private JournalFuncionarios(Path diretorio, FuncionarioService service, long registrosPorSnapshot) {
+        this.diretorio = diretorio;
+        this.service = service;
+        this.registrosPorSnapshot = registrosPorSnapshot;
+        this.buffer = ByteBuffer.allocate(TAMANHO_BUFFER);
+        this.reserva = ByteBuffer.allocate(TAMANHO_BUFFER);
+        this.agendador = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "journal-funcionarios");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Abre o journal com snapshot a cada 1.000.000 de registros e fsync a cada 10 ms.
+     */
+    public static JournalFuncionarios abrir(Path diretorio, FuncionarioService service) throws IOException {
+        return abrir(diretorio, service, 1_000_000, 10);
+    }
+
+    /**
+     * Restaura o estado salvo no diretório para o serviço (que deve estar vazio)
+     * e passa a registrar as alterações feitas nele.
+     *
+     * @param registrosPorSnapshot quantidade de registros no journal que dispara um novo snapshot
+     * @param intervaloSyncMs      intervalo entre os fsync em lote
+     * @throws IOException em caso de erro de I/O
+     */
+    public static JournalFuncionarios abrir(Path diretorio, FuncionarioService service,
+                                            long registrosPorSnapshot, long intervaloSyncMs) throws IOException {
+        Files.createDirectories(diretorio);
+        JournalFuncionarios j = new JournalFuncionarios(diretorio, service, registrosPorSnapshot);
+        long ultimaGeracao = j.restaurar();
+
+        j.geracao = ultimaGeracao + 1;
+        j.canal = j.abrirSegmento(j.geracao);
+        service.adicionarOuvinte(j);
+        j.agendador.scheduleWithFixedDelay(j::sincronizarEmSegundoPlano,
+                intervaloSyncMs, intervaloSyncMs, TimeUnit.MILLISECONDS);
+        return j;
+    }
+
+    // ----- gravação -----
+
+    @Override
+    public void aoCadastrar(Funcionario f, List<Dependente> dependentes) {
+        anexar(FormatoRegistro.cadastro(f, dependentes));
+    }
+
+    @Override
+    public void aoExcluir(Funcionario f, List<Dependente> dependentes) {
+        anexar(FormatoRegistro.exclusao(f.getCodigo()));
+    }
+
+    @Override
+    public void aoAlterarSalario(Funcionario f, double salarioAnterior) {
+        anexar(FormatoRegistro.salario(f.getCodigo(), f.getSalario()));
+    }
+
+    // Chamado pelo serviço depois da alteração: não lança, a falha fica guardada em {@link #falha}
+    private void anexar(byte[] registro) {
+        if (fechado) {
+            registrarFalha(new IOException("Journal fechado: alteração não gravada"));
+            return;
+        }
+        while (true) {
+            synchronized (travaBuffer) {
+                if (buffer.remaining() >= registro.length) {
+                    buffer.put(registro);
+                    registrados++;
+                    break;
+                }
+                if (buffer.position() == 0) {
+                    // registro maior que o buffer inteiro
+                    buffer = ByteBuffer.allocate(registro.length);
+                    buffer.put(registro);
+                    registrados++;
+                    break;
+                }
+            }
+            // buffer cheio: grava o lote atual (sem fsync) e tenta de novo
+            try {
+                descarregar(false);
+            } catch (IOException e) {
+                registrarFalha(e);
+                return;
+            }
+        }
+        if (registrosDesdeSnapshot.incrementAndGet() >= registrosPorSnapshot
+                && snapshotEmAndamento.compareAndSet(false, true)) {
+            agendador.execute(this::snapshotEmSegundoPlano);
+        }
+    }
+
+    /**
+     * Espera o fsync em lote que cobre tudo o que já foi registrado (em
+     * particular as alterações que a thread chamadora acabou de fazer).
+     * Não força um fsync próprio: espera o próximo do agendador, então
+     * várias threads esperando dividem o mesmo.
+     *
+     * @throws IOException se alguma gravação do journal falhou
+     */
+    public void aguardarGravacao() throws IOException {
+        long alvo;
+        synchronized (travaBuffer) {
+            alvo = registrados;
+        }
+        synchronized (travaGravados) {
+            while (gravados < alvo && falha == null && !fechado) {
+                try {
+                    travaGravados.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Espera pela gravação do journal interrompida");
+                }
+            }
+        }
+        lancarFalha();
+    }
+
+    /**
+     * Grava no disco (com fsync) tudo o que já foi registrado.
+     *
+     * @throws IOException em caso de erro de I/O (também os de gravações anteriores)
+     */
+    public void sincronizar() throws IOException {
+        descarregar(true);
+        lancarFalha();
+    }
+
+    private void descarregar(boolean forcar) throws IOException {
+        synchronized (travaEscrita) {
+            ByteBuffer lote;
+            long ate;
+            synchronized (travaBuffer) {
+                lote = buffer;
+                buffer = reserva;
+                ate = registrados;
+            }
+            try {
+                lote.flip();
+                while (lote.hasRemaining()) {
+                    canal.write(lote);
+                }
+                if (forcar) {
+                    canal.force(false);
+                }
+            } catch (IOException e) {
+                registrarFalha(e);
+                throw e;
+            } finally {
+                lote.clear();
+                reserva = lote;
+            }
+            if (forcar) {
+                synchronized (travaGravados) {
+                    gravados = ate;
+                    travaGravados.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void registrarFalha(IOException e) {
+        synchronized (travaGravados) {
+            if (falha == null) falha = e;
+            travaGravados.notifyAll();
+        }
+    }
+
+    private void lancarFalha() throws IOException {
+        IOException f = falha;
+        if (f != null) throw new IOException("Falha ao gravar journal: " + f.getMessage(), f);
+    }
+
+    private void sincronizarEmSegundoPlano() {
+        try {
+            sincronizar();
+        } catch (IOException e) {
+            // já guardada em falha: aguardarGravacao, sincronizar e close a lançam
+        }
+    }
+
+    // ----- snapshot e compactação -----
+
+    /**
+     * Grava um snapshot do cadastro atual e apaga os journals e snapshots
+     * que ele torna desnecessários.
+     *
+     * @throws IOException em caso de erro de I/O
+     */
+    public void snapshot() throws IOException {
+        long novaGeracao;
+        synchronized (travaEscrita) {
+            // Tudo o que foi registrado até aqui vai para o segmento atual;
+            // o que vier depois vai para o novo segmento.
+            descarregar(true);
+            canal.close();
+            novaGeracao = ++geracao;
+            canal = abrirSegmento(novaGeracao);
+            registrosDesdeSnapshot.set(0);
+        }
+
+        // Alterações feitas durante a gravação também estão no novo segmento;
+        // reaplicá-las sobre o snapshot na restauração dá o mesmo resultado.
+        Path tmp = diretorio.resolve(PREFIXO_SNAPSHOT + novaGeracao + SUFIXO_TEMPORARIO);
+        try {
+            SnapshotCompacto.gravar(service, tmp);
+            Files.move(tmp, arquivoSnapshot(novaGeracao), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ex) {
+                e.addSuppressed(ex);
+            }
+            throw e;
+        }
+
+        // Compactação: o novo snapshot substitui tudo o que é anterior a ele
+        for (long g : listar(PREFIXO_JOURNAL, SUFIXO_JOURNAL).keySet()) {
+            if (g < novaGeracao) Files.deleteIfExists(arquivoJournal(g));
+        }
+        for (long g : listar(PREFIXO_SNAPSHOT, SUFIXO_SNAPSHOT).keySet()) {
+            if (g < novaGeracao) Files.deleteIfExists(arquivoSnapshot(g));
+        }
+    }
+
+    private void snapshotEmSegundoPlano() {
+        try {
+            if (!fechado) snapshot();
+        } catch (IOException e) {
+            registrarFalha(e);
+        } finally {
+            snapshotEmAndamento.set(false);
+        }
+    }
+
+    // ----- restauração -----
+
+    /**
+     * Carrega o último snapshot e reaplica os journals seguintes.
+     *
+     * @return a maior geração encontrada no diretório
+     */
+    private long restaurar() throws IOException {
+        TreeMap<Long, Path> snapshots = listar(PREFIXO_SNAPSHOT, SUFIXO_SNAPSHOT);
+        TreeMap<Long, Path> journals = listar(PREFIXO_JOURNAL, SUFIXO_JOURNAL);
+
+        long base = 0;
+        if (!snapshots.isEmpty()) {
+            base = snapshots.lastKey();
+            if (!carregarSnapshot(snapshots.lastEntry().getValue())) {
+                throw new IOException("Snapshot incompleto: " + snapshots.lastEntry().getValue());
+            }
+        }
+        for (Path journal : journals.tailMap(base, true).values()) {
+            reaplicar(journal);
+        }
+
+        long ultima = base;
+        if (!journals.isEmpty()) ultima = Math.max(ultima, journals.lastKey());
+        // Snapshot interrompido (queda no meio da gravação): o journal ainda tem tudo
+        for (Path tmp : listar(PREFIXO_SNAPSHOT, SUFIXO_TEMPORARIO).values()) {
+            Files.deleteIfExists(tmp);
+        }
+        return ultima;
+    }
+
+    private boolean carregarSnapshot(Path arquivo) throws IOException {
+        if (SnapshotCompacto.reconhecer(arquivo)) {
+            SnapshotCompacto.carregar(arquivo, service);
+            return true;
+        }
+        // snapshot gravado no formato antigo (registros do journal)
+        try (LeitorRegistros leitor = new LeitorRegistros(arquivo)) {
+            ByteBuffer r;
+            while ((r = leitor.proximo()) != null) {
+                if (r.get(0) == FormatoRegistro.FIM) return true;
+                aplicar(r);
+            }
+        }
+        return false;
+    }
+
+    private void reaplicar(Path journal) throws IOException {
+        try (LeitorRegistros leitor = new LeitorRegistros(journal)) {
+            ByteBuffer r;
+            // Para no primeiro registro incompleto (gravação interrompida)
+            while ((r = leitor.proximo()) != null) {
+                aplicar(r);
+            }
+        }
+    }
+
+    /**
+     * Aplica um registro no serviço. É idempotente: um registro que o snapshot
+     * já contém pode ser reaplicado sem alterar o resultado (código duplicado
+     * ou inexistente só é informado no retorno, sem exceção).
+     */
+    private void aplicar(ByteBuffer r) {
+        byte tipo = r.get();
+        int codigo = r.getInt();
+        switch (tipo) {
+            case FormatoRegistro.CADASTRO: {
+                String nome = FormatoRegistro.lerTexto(r);
+                String cargo = FormatoRegistro.lerTexto(r);
+                double salario = r.getDouble();
+                int qtd = r.getInt();
+                List<String> deps = new ArrayList<>(qtd);
+                for (int i = 0; i < qtd; i++) {
+                    deps.add(FormatoRegistro.lerTexto(r));
+                }
+                Funcionario f = new Funcionario(codigo, nome, cargo, salario);
+                if (service.tentarCadastrar(f, deps) == ResultadoOperacao.DUPLICADO) {
+                    service.tentarExcluir(codigo);
+                    service.tentarCadastrar(f, deps);
+                }
+                break;
+            }
+            case FormatoRegistro.EXCLUSAO:
+                service.tentarExcluir(codigo);
+                break;
+            case FormatoRegistro.SALARIO:
+                service.tentarAlterarSalario(codigo, r.getDouble());
+                break;
+            default:
+                // tipo desconhecido: ignora
+        }
+    }
+
+    // ----- arquivos -----
+
+    private FileChannel abrirSegmento(long g) throws IOException {
+        return FileChannel.open(arquivoJournal(g), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path arquivoJournal(long g) {
+        return diretorio.resolve(PREFIXO_JOURNAL + g + SUFIXO_JOURNAL);
+    }
+
+    private Path arquivoSnapshot(long g) {
+        return diretorio.resolve(PREFIXO_SNAPSHOT + g + SUFIXO_SNAPSHOT);
+    }
+
+    private TreeMap<Long, Path> listar(String prefixo, String sufixo) throws IOException {
+        TreeMap<Long, Path> arquivos = new TreeMap<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(diretorio, prefixo + "*" + sufixo)) {
+            for (Path p : ds) {
+                String nome = p.getFileName().toString();
+                try {
+                    arquivos.put(Long.parseLong(nome.substring(prefixo.length(), nome.length() - sufixo.length())), p);
+                } catch (NumberFormatException e) {
+                    // arquivo com nome fora do padrão: ignora
+                }
+            }
+        }
+        return arquivos;
+    }
+
+    /**
+     * Para o agendador, grava com fsync o que estiver pendente e deixa de
+     * registrar alterações do serviço.
+     *
+     * @throws IOException em caso de erro de I/O (também os de gravações anteriores)
+     */
+    @Override
+    public void close() throws IOException {
+        if (fechado) return;
+        service.removerOuvinte(this);
+        agendador.shutdown();
+        try {
+            agendador.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (travaEscrita) {
+            try {
+                descarregar(true);
+            } finally {
+                canal.close();
+                fechado = true;
+                synchronized (travaGravados) {
+                    travaGravados.notifyAll();
+                }
+            }
+        }
+        lancarFalha();
+    }
+}
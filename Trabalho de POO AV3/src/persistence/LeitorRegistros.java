@@ -0,0 +1,62 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lê os registros de um arquivo do journal/snapshot por mapeamento em memória.
+ * O arquivo é mapeado em janelas, então funciona para arquivos maiores que 2 GB.
+ */
+final class LeitorRegistros implements Closeable {
+    private static final long JANELA = 256L * 1024 * 1024;
+
+    private final FileChannel canal;
+    private final long tamanho;
+    private MappedByteBuffer janela;
+    private long inicioJanela;
+
+    LeitorRegistros(Path arquivo) throws IOException {
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        this.tamanho = canal.size();
+        mapear(0);
+    }
+
+    /**
+     * Retorna o conteúdo do próximo registro, ou null no fim do arquivo
+     * ou ao encontrar um registro incompleto/corrompido.
+     */
+    ByteBuffer proximo() throws IOException {
+        long pos = inicioJanela + janela.position();
+        if (tamanho - pos < FormatoRegistro.CABECALHO) return null;
+        if (janela.remaining() < FormatoRegistro.CABECALHO) mapear(pos);
+
+        int tam = janela.getInt(janela.position());
+        int crc = janela.getInt(janela.position() + 4);
+        if (tam <= 0 || tam > tamanho - pos - FormatoRegistro.CABECALHO) return null;
+        if (janela.remaining() < FormatoRegistro.CABECALHO + tam) {
+            if (FormatoRegistro.CABECALHO + tam > JANELA) return null;
+            mapear(pos);
+        }
+
+        janela.position(janela.position() + FormatoRegistro.CABECALHO);
+        ByteBuffer conteudo = janela.slice();
+        conteudo.limit(tam);
+        janela.position(janela.position() + tam);
+        return FormatoRegistro.crc(conteudo) == crc ? conteudo : null;
+    }
+
+    private void mapear(long pos) throws IOException {
+        inicioJanela = pos;
+        janela = canal.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(JANELA, tamanho - pos));
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
@@ -0,0 +1,345 @@
+package persistence;
+
+import model.Dependente;
+import model.Funcionario;
+import service.CadastroLote;
+import service.FuncionarioService;
+import service.SnapshotFuncionarios;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato binário compacto para salvar e recarregar o cadastro inteiro.
+ *
+ * Cabeçalho de 32 bytes (little-endian): "FSNP", versão, quantidade de
+ * funcionários, tamanho do corpo, CRC32C do corpo e quantidade de cargos.
+ * O corpo tem um registro por funcionário:
+ * <pre>
+ * codigo      varint (zigzag)
+ * nome        varint tamanho + UTF-8
+ * cargo       varint id no dicionário; se id == tamanho do dicionário,
+ *             segue a definição (varint tamanho + UTF-8) e o cargo entra no dicionário
+ * salario     double de 8 bytes
+ * dependentes varint quantidade, e para cada um varint tamanho + UTF-8
+ * </pre>
+ * O dicionário é montado durante a gravação, então o arquivo é escrito numa
+ * única passada; cada cargo aparece por extenso só uma vez.
+ *
+ * A gravação usa um FileChannel com buffer direto; a leitura mapeia o
+ * arquivo em memória (em janelas, então funciona acima de 2 GB) e cadastra
+ * os funcionários em lotes com {@link FuncionarioService#restaurarEmLote}.
+ */
+public final class SnapshotCompacto {
+    private static final int MAGICO = 0x504E5346; // "FSNP" em little-endian
+    private static final int VERSAO = 1;
+    private static final int CABECALHO = 32;
+    private static final int TAMANHO_BUFFER = 1024 * 1024;
+    private static final long JANELA = 256L * 1024 * 1024;
+    private static final int TAMANHO_LOTE = 1 << 16;
+
+    private SnapshotCompacto() {
+    }
+
+    /**
+     * Indica se o arquivo começa com o cabeçalho deste formato.
+     *
+     * @throws IOException em caso de erro de I/O
+     */
+    public static boolean reconhecer(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (b.hasRemaining() && canal.read(b) > 0) {
+                // lê o número mágico
+            }
+            return !b.hasRemaining() && b.getInt(0) == MAGICO;
+        }
+    }
+
+    // ----- gravação -----
+
+    /**
+     * Grava todos os funcionários do serviço (cria/overwrite) e faz fsync no final.
+     * O cadastro é lido de um snapshot, então o arquivo corresponde a uma única
+     * versão mesmo com alterações em andamento; os registros saem em ordem de nome.
+     *
+     * @return quantidade de funcionários gravados
+     * @throws IOException em caso de erro de I/O
+     */
+    public static long gravar(FuncionarioService service, Path arquivo) throws IOException {
+        if (arquivo.getParent() != null) {
+            Files.createDirectories(arquivo.getParent());
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Escritor e = new Escritor(canal);
+            try (SnapshotFuncionarios snapshot = service.abrirSnapshot()) {
+                for (Funcionario f : snapshot.ordenadosPorNome()) {
+                    e.registro(f, snapshot.listarDependentes(f.getCodigo()));
+                }
+            }
+            e.terminar();
+            canal.force(true);
+            return e.quantidade;
+        }
+    }
+
+    private static final class Escritor {
+        private final FileChannel canal;
+        private final CRC32C crc = new CRC32C();
+        private final Map<String, Integer> cargos = new HashMap<>();
+        private ByteBuffer buf = novoBuffer(TAMANHO_BUFFER);
+        private long quantidade;
+        private long tamanhoCorpo;
+
+        Escritor(FileChannel canal) throws IOException {
+            this.canal = canal;
+            canal.position(CABECALHO); // o cabeçalho é gravado no final
+        }
+
+        void registro(Funcionario f, List<Dependente> dependentes) throws IOException {
+            byte[] nome = bytes(f.getNome());
+            String cargo = f.getCargo() == null ? "" : f.getCargo();
+            Integer idCargo = cargos.get(cargo);
+            byte[] definicaoCargo = idCargo == null ? bytes(cargo) : null;
+            byte[][] deps = new byte[dependentes.size()][];
+            int maximo = 5 + 5 + nome.length + 5 + 8 + 5;
+            if (definicaoCargo != null) maximo += 5 + definicaoCargo.length;
+            for (int i = 0; i < deps.length; i++) {
+                deps[i] = bytes(dependentes.get(i).getNome());
+                maximo += 5 + deps[i].length;
+            }
+            garantir(maximo);
+
+            varint(zigzag(f.getCodigo()));
+            texto(nome);
+            if (idCargo == null) {
+                idCargo = cargos.size();
+                cargos.put(cargo, idCargo);
+                varint(idCargo);
+                texto(definicaoCargo);
+            } else {
+                varint(idCargo);
+            }
+            buf.putDouble(f.getSalario());
+            varint(deps.length);
+            for (byte[] dep : deps) {
+                texto(dep);
+            }
+            quantidade++;
+        }
+
+        void terminar() throws IOException {
+            descarregar();
+            ByteBuffer cab = ByteBuffer.allocate(CABECALHO).order(ByteOrder.LITTLE_ENDIAN);
+            cab.putInt(MAGICO).putInt(VERSAO).putLong(quantidade).putLong(tamanhoCorpo)
+                    .putInt((int) crc.getValue()).putInt(cargos.size());
+            cab.flip();
+            long pos = 0;
+            while (cab.hasRemaining()) {
+                pos += canal.write(cab, pos);
+            }
+        }
+
+        private void varint(int v) {
+            while ((v & ~0x7F) != 0) {
+                buf.put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            buf.put((byte) v);
+        }
+
+        private void texto(byte[] b) {
+            varint(b.length);
+            buf.put(b);
+        }
+
+        private void garantir(int n) throws IOException {
+            if (buf.remaining() >= n) return;
+            descarregar();
+            if (buf.capacity() < n) buf = novoBuffer(n); // registro maior que o buffer
+        }
+
+        private void descarregar() throws IOException {
+            buf.flip();
+            crc.update(buf.duplicate());
+            tamanhoCorpo += buf.remaining();
+            while (buf.hasRemaining()) {
+                canal.write(buf);
+            }
+            buf.clear();
+        }
+
+        private static ByteBuffer novoBuffer(int capacidade) {
+            return ByteBuffer.allocateDirect(capacidade).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private static byte[] bytes(String s) {
+            return (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    // ----- leitura -----
+
+    /**
+     * Cadastra no serviço todos os funcionários do arquivo. Códigos que já
+     * existem no serviço são ignorados.
+     *
+     * @return quantidade de funcionários cadastrados
+     * @throws IOException em caso de erro de I/O ou arquivo incompleto/corrompido
+     */
+    public static long carregar(Path arquivo, FuncionarioService service) throws IOException {
+        long[] cadastrados = new long[1];
+        ler(arquivo, lote -> cadastrados[0] += service.restaurarEmLote(lote));
+        return cadastrados[0];
+    }
+
+    /**
+     * Decodifica o arquivo e entrega os funcionários em lotes, sem cadastrá-los.
+     * O número de "linha" de cada item é a posição do registro no arquivo (a partir de 1).
+     *
+     * @return quantidade de registros lidos
+     * @throws IOException em caso de erro de I/O ou arquivo incompleto/corrompido
+     */
+    public static long ler(Path arquivo, Consumer<List<CadastroLote>> destino) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            if (canal.size() < CABECALHO) throw corrompido(arquivo, "cabeçalho incompleto");
+            ByteBuffer cab = canal.map(FileChannel.MapMode.READ_ONLY, 0, CABECALHO).order(ByteOrder.LITTLE_ENDIAN);
+            if (cab.getInt(0) != MAGICO) throw corrompido(arquivo, "formato desconhecido");
+            if (cab.getInt(4) != VERSAO) throw corrompido(arquivo, "versão " + cab.getInt(4) + " não suportada");
+            long quantidade = cab.getLong(8);
+            long tamanhoCorpo = cab.getLong(16);
+            int crcEsperado = cab.getInt(24);
+            int qtdCargos = cab.getInt(28);
+            if (tamanhoCorpo != canal.size() - CABECALHO) throw corrompido(arquivo, "tamanho não confere");
+            if (crcCorpo(canal, tamanhoCorpo) != crcEsperado) throw corrompido(arquivo, "CRC não confere");
+
+            Leitor l = new Leitor(arquivo, canal, tamanhoCorpo, qtdCargos);
+            List<CadastroLote> lote = new ArrayList<>(TAMANHO_LOTE);
+            for (long i = 1; i <= quantidade; i++) {
+                lote.add(l.registro(i));
+                if (lote.size() == TAMANHO_LOTE) {
+                    destino.accept(lote);
+                    lote = new ArrayList<>(TAMANHO_LOTE);
+                }
+            }
+            if (!lote.isEmpty()) destino.accept(lote);
+            if (!l.noFim()) throw corrompido(arquivo, "dados após o último registro");
+            return quantidade;
+        }
+    }
+
+    private static int crcCorpo(FileChannel canal, long tamanhoCorpo) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (long pos = 0; pos < tamanhoCorpo; pos += JANELA) {
+            crc.update(canal.map(FileChannel.MapMode.READ_ONLY, CABECALHO + pos, Math.min(JANELA, tamanhoCorpo - pos)));
+        }
+        return (int) crc.getValue();
+    }
+
+    private static final class Leitor {
+        private final Path arquivo;
+        private final FileChannel canal;
+        private final long fimCorpo;
+        private final List<String> cargos;
+        private MappedByteBuffer janela;
+        private long inicioJanela;
+        private byte[] bytes = new byte[256];
+
+        Leitor(Path arquivo, FileChannel canal, long tamanhoCorpo, int qtdCargos) throws IOException {
+            this.arquivo = arquivo;
+            this.canal = canal;
+            this.fimCorpo = CABECALHO + tamanhoCorpo;
+            this.cargos = new ArrayList<>(Math.max(0, Math.min(qtdCargos, 1 << 20)));
+            mapear(CABECALHO, 0);
+        }
+
+        CadastroLote registro(long linha) throws IOException {
+            int codigo = desfazerZigzag(varint());
+            String nome = texto();
+            int idCargo = varint();
+            String cargo;
+            if (idCargo == cargos.size()) {
+                cargo = texto();
+                cargos.add(cargo);
+            } else if (idCargo >= 0 && idCargo < cargos.size()) {
+                cargo = cargos.get(idCargo);
+            } else {
+                throw corrompido(arquivo, "cargo " + idCargo + " fora do dicionário");
+            }
+            garantir(8);
+            double salario = janela.getDouble();
+            int qtdDeps = varint();
+            List<String> deps = new ArrayList<>(Math.min(qtdDeps, 64));
+            for (int i = 0; i < qtdDeps; i++) {
+                deps.add(texto());
+            }
+            return new CadastroLote(linha, new Funcionario(codigo, nome, cargo, salario), deps);
+        }
+
+        boolean noFim() {
+            return inicioJanela + janela.position() == fimCorpo;
+        }
+
+        private int varint() throws IOException {
+            garantir((int) Math.min(5, fimCorpo - inicioJanela - janela.position()));
+            int v = 0;
+            for (int desloc = 0; desloc < 35 && janela.hasRemaining(); desloc += 7) {
+                byte b = janela.get();
+                v |= (b & 0x7F) << desloc;
+                if (b >= 0) return v;
+            }
+            throw corrompido(arquivo, "varint inválido");
+        }
+
+        private String texto() throws IOException {
+            int tam = varint();
+            if (tam < 0) throw corrompido(arquivo, "tamanho de texto inválido");
+            garantir(tam);
+            if (tam > bytes.length) bytes = new byte[Math.max(tam, bytes.length * 2)];
+            janela.get(bytes, 0, tam);
+            return new String(bytes, 0, tam, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Remapeia a partir da posição atual se faltarem menos de n bytes na janela.
+         */
+        private void garantir(int n) throws IOException {
+            if (janela.remaining() >= n) return;
+            long pos = inicioJanela + janela.position();
+            if (pos + n > fimCorpo) throw corrompido(arquivo, "registro truncado");
+            mapear(pos, n);
+        }
+
+        private void mapear(long pos, int minimo) throws IOException {
+            inicioJanela = pos;
+            janela = canal.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(Math.max(JANELA, minimo), fimCorpo - pos));
+            janela.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private static int zigzag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    private static int desfazerZigzag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static IOException corrompido(Path arquivo, String motivo) {
+        return new IOException("Snapshot inválido (" + motivo + "): " + arquivo);
+    }
+}
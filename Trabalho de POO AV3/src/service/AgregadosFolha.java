@@ -0,0 +1,146 @@
+package service;
+
+import util.DicionarioTextos;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totais da folha mantidos incrementalmente (geral e por cargo, indexados
+ * pelo id do cargo no dicionário do serviço).
+ * Cada cadastro, exclusão ou alteração de salário custa O(1); os contadores
+ * são LongAdder/DoubleAdder para não virarem ponto de disputa entre threads.
+ */
+class AgregadosFolha {
+
+    private static final class Acumulador {
+        final LongAdder funcionarios = new LongAdder();
+        final LongAdder dependentes = new LongAdder();
+        final DoubleAdder salarios = new DoubleAdder();
+        final DoubleAdder bonus = new DoubleAdder();
+
+        void somar(int sinal, int qtdDependentes, double salario, double valorBonus) {
+            funcionarios.add(sinal);
+            dependentes.add((long) sinal * qtdDependentes);
+            salarios.add(sinal * salario);
+            bonus.add(sinal * valorBonus);
+        }
+
+        void somar(long qtdFuncionarios, long qtdDependentes, double totalSalarios, double totalBonus) {
+            funcionarios.add(qtdFuncionarios);
+            dependentes.add(qtdDependentes);
+            salarios.add(totalSalarios);
+            bonus.add(totalBonus);
+        }
+
+        ResumoFolha resumo() {
+            return new ResumoFolha(funcionarios.sum(), dependentes.sum(), salarios.sum(), bonus.sum());
+        }
+    }
+
+    private final Acumulador geral = new Acumulador();
+    private final DicionarioTextos cargos;
+    // Acumulador de cada cargo, indexado pelo id do cargo no dicionário
+    private volatile Acumulador[] porCargo = new Acumulador[16];
+
+    AgregadosFolha(DicionarioTextos cargos) {
+        this.cargos = cargos;
+    }
+
+    void adicionar(int idCargo, double salario, int qtdDependentes, double bonus) {
+        geral.somar(1, qtdDependentes, salario, bonus);
+        doCargo(idCargo).somar(1, qtdDependentes, salario, bonus);
+    }
+
+    // Vários funcionários do mesmo cargo de uma vez (carga em lote)
+    void adicionar(int idCargo, long funcionarios, long dependentes, double salarios, double bonus) {
+        geral.somar(funcionarios, dependentes, salarios, bonus);
+        doCargo(idCargo).somar(funcionarios, dependentes, salarios, bonus);
+    }
+
+    void remover(int idCargo, double salario, int qtdDependentes, double bonus) {
+        geral.somar(-1, qtdDependentes, salario, bonus);
+        doCargo(idCargo).somar(-1, qtdDependentes, salario, bonus);
+    }
+
+    void alterarSalario(int idCargo, double diferencaSalario, double diferencaBonus) {
+        Acumulador c = doCargo(idCargo);
+        geral.salarios.add(diferencaSalario);
+        geral.bonus.add(diferencaBonus);
+        c.salarios.add(diferencaSalario);
+        c.bonus.add(diferencaBonus);
+    }
+
+    ResumoFolha resumo() {
+        return geral.resumo();
+    }
+
+    ResumoFolha resumo(String cargo) {
+        return resumo(cargos.buscar(cargo == null ? "" : cargo));
+    }
+
+    ResumoFolha resumo(int idCargo) {
+        Acumulador[] a = porCargo;
+        Acumulador c = idCargo >= 0 && idCargo < a.length ? a[idCargo] : null;
+        return c == null ? new ResumoFolha(0, 0, 0, 0) : c.resumo();
+    }
+
+    /**
+     * Resumo de cada cargo com pelo menos um funcionário, em ordem alfabética.
+     */
+    Map<String, ResumoFolha> resumoPorCargo() {
+        Map<String, ResumoFolha> resumos = new TreeMap<>();
+        Acumulador[] a = porCargo;
+        for (int id = 0; id < a.length; id++) {
+            if (a[id] == null) continue;
+            ResumoFolha r = a[id].resumo();
+            if (r.getQuantidadeFuncionarios() > 0) {
+                resumos.put(cargos.texto(id), r);
+            }
+        }
+        return resumos;
+    }
+
+    /**
+     * Quantidade de funcionários de cada cargo, indexada pelo id do cargo.
+     */
+    long[] quantidadePorIdCargo() {
+        Acumulador[] a = porCargo;
+        long[] v = new long[a.length];
+        for (int id = 0; id < a.length; id++) {
+            if (a[id] != null) v[id] = a[id].funcionarios.sum();
+        }
+        return v;
+    }
+
+    /**
+     * Total de bônus de cada cargo, indexado pelo id do cargo.
+     */
+    double[] bonusPorIdCargo() {
+        Acumulador[] a = porCargo;
+        double[] v = new double[a.length];
+        for (int id = 0; id < a.length; id++) {
+            if (a[id] != null) v[id] = a[id].bonus.sum();
+        }
+        return v;
+    }
+
+    private Acumulador doCargo(int idCargo) {
+        Acumulador[] a = porCargo;
+        if (idCargo < a.length && a[idCargo] != null) return a[idCargo];
+        return criar(idCargo);
+    }
+
+    private synchronized Acumulador criar(int idCargo) {
+        Acumulador[] a = porCargo;
+        if (idCargo >= a.length) a = Arrays.copyOf(a, Math.max(a.length * 2, idCargo + 1));
+        if (a[idCargo] == null) {
+            a[idCargo] = new Acumulador();
+            porCargo = a; // publica o novo acumulador
+        }
+        return a[idCargo];
+    }
+}
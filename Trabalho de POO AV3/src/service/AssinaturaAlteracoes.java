@@ -0,0 +1,104 @@
+package service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Assinatura do fluxo de alterações criada por
+ * {@link FuncionarioService#assinarAlteracoes}: uma thread própria lê o
+ * buffer e entrega os eventos ao consumidor em lotes de até
+ * {@code tamanhoLote}. O consumidor só atrasa a si mesmo; se ficar mais de
+ * {@value FluxoAlteracoes#CAPACIDADE} eventos atrás, perde os mais antigos
+ * (ver {@link ConsumidorAlteracoes#aoPerder}).
+ */
+public final class AssinaturaAlteracoes implements AutoCloseable {
+    private static final int ESPERAS_ATIVAS = 64;    // Thread.yield antes de dormir
+    private static final long PAUSA_NS = 200_000;    // sem eventos: dorme 0,2 ms por vez
+    private static final AtomicInteger CONTADOR = new AtomicInteger();
+
+    private final FluxoAlteracoes fluxo;
+    private final ConsumidorAlteracoes consumidor;
+    private final LoteAlteracoes lote;
+    private final Thread thread;
+    private volatile long proxima;   // próxima sequência a entregar
+    private volatile long perdidos;  // escrito só pela thread da assinatura
+    private volatile boolean ativa = true;
+
+    AssinaturaAlteracoes(FluxoAlteracoes fluxo, ConsumidorAlteracoes consumidor, int tamanhoLote) {
+        this.fluxo = fluxo;
+        this.consumidor = consumidor;
+        this.lote = new LoteAlteracoes(tamanhoLote);
+        this.thread = new Thread(this::consumir, "fluxo-alteracoes-" + CONTADOR.incrementAndGet());
+        thread.setDaemon(true);
+        this.proxima = fluxo.adicionar(this);
+        thread.start();
+    }
+
+    /**
+     * @return eventos publicados que ainda não foram entregues a esta assinatura
+     */
+    public long getAtraso() {
+        return Math.max(0, fluxo.proximaSequencia() - proxima);
+    }
+
+    /**
+     * @return total de eventos perdidos por atraso
+     */
+    public long getPerdidos() {
+        return perdidos;
+    }
+
+    /**
+     * Para de receber eventos e espera a entrega em andamento terminar
+     * (a não ser que seja chamado pelo próprio consumidor).
+     */
+    @Override
+    public void close() {
+        if (!ativa) return;
+        ativa = false;
+        fluxo.remover(this);
+        LockSupport.unpark(thread);
+        if (Thread.currentThread() == thread) return;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consumir() {
+        int ocioso = 0;
+        while (ativa) {
+            long s = proxima;
+            int n = fluxo.ler(s, lote);
+            if (n > 0) {
+                lote.tamanho = n;
+                entregar();
+                proxima = s + n;
+                ocioso = 0;
+            } else if (fluxo.sobrescrito(s)) {
+                long retomada = Math.max(s, fluxo.retomada());
+                perdidos += retomada - s;
+                proxima = retomada;
+                try {
+                    consumidor.aoPerder(retomada - s);
+                } catch (RuntimeException e) {
+                    System.err.println("Falha no consumidor de alterações: " + e);
+                }
+            } else if (ocioso++ < ESPERAS_ATIVAS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PAUSA_NS);
+            }
+        }
+    }
+
+    private void entregar() {
+        try {
+            consumidor.aoReceber(lote);
+        } catch (RuntimeException e) {
+            // O lote conta como entregue: repetir faria o consumidor falhar no mesmo evento para sempre
+            System.err.println("Falha no consumidor de alterações: " + e);
+        }
+    }
+}
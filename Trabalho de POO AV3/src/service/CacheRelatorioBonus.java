@@ -0,0 +1,294 @@
+package service;
+
+import java.text.NumberFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Linhas já formatadas do relatório de bônus, uma versão por Locale.
+ *
+ * As escritas do serviço avisam o cache ainda dentro da trava do código:
+ * cadastro, exclusão e alteração de salário marcam só a linha do
+ * funcionário, que é refeita (encaixada ou retirada) na próxima leitura. O
+ * reajuste em lote, ou marcas demais, invalidam a versão, que é gerada de
+ * novo quando pedida. Sem nenhuma versão em cache o aviso custa uma leitura
+ * volatile.
+ *
+ * O total ocupado é limitado: passando do limite, as versões usadas há mais
+ * tempo saem do cache (LRU).
+ */
+final class CacheRelatorioBonus {
+    private static final long BYTES_RELATORIO = 64; // objeto e cabeçalhos dos arrays
+
+    /**
+     * Formata a linha de um funcionário como no relatório.
+     */
+    @FunctionalInterface
+    interface Formatador {
+        String formatar(SnapshotFuncionarios.Visivel v, NumberFormat moeda, StringBuilder linha);
+    }
+
+    /**
+     * Relatório numa versão consistente: chaves do índice por nome e as
+     * linhas correspondentes, na mesma ordem. Os arrays nunca são alterados.
+     */
+    static final class Relatorio {
+        final CursorNome[] chaves;
+        final String[] linhas;
+        final long bytes; // estimativa da memória ocupada
+
+        Relatorio(CursorNome[] chaves, String[] linhas, long bytes) {
+            this.chaves = chaves;
+            this.linhas = linhas;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class Entrada {
+        final Locale locale;
+        final NumberFormat moeda;                   // usado só com a trava da entrada
+        final Set<CursorNome> pendentes = ConcurrentHashMap.newKeySet();
+        volatile int maxPendentes = Integer.MAX_VALUE; // acima disso é mais barato gerar de novo
+        volatile boolean transbordou;
+        Relatorio relatorio;                        // null = ainda não gerado; protegido pela entrada
+        long geracao;                               // lida depois de abrir o snapshot do relatório
+        long bytes;                                 // protegido pelo cache
+        volatile boolean despejada;                 // fora do cache: os escritores não a avisam mais
+
+        Entrada(Locale locale, NumberFormat moeda) {
+            this.locale = locale;
+            this.moeda = moeda;
+        }
+    }
+
+    private final Supplier<SnapshotFuncionarios> abrirSnapshot;
+    private final Function<Locale, NumberFormat> formatoMoeda;
+    private final Formatador formatador;
+    private final AtomicLong geracao = new AtomicLong();
+    // Ordem de acesso: a primeira entrada é a usada há mais tempo
+    private final LinkedHashMap<Locale, Entrada> entradas = new LinkedHashMap<>(8, 0.75f, true); // protegido por this
+    private volatile Entrada[] ativas = new Entrada[0]; // cópia para os escritores percorrerem sem trava
+    private long bytesUsados;                           // protegido por this
+    private volatile long limiteBytes;
+
+    CacheRelatorioBonus(Supplier<SnapshotFuncionarios> abrirSnapshot, Function<Locale, NumberFormat> formatoMoeda,
+                        Formatador formatador, long limiteBytes) {
+        this.abrirSnapshot = abrirSnapshot;
+        this.formatoMoeda = formatoMoeda;
+        this.formatador = formatador;
+        this.limiteBytes = limiteBytes;
+    }
+
+    // ----- avisos das escritas (com a trava do código) -----
+
+    boolean emUso() {
+        return ativas.length != 0;
+    }
+
+    /**
+     * O funcionário foi cadastrado, excluído ou teve o salário alterado: só a linha dele precisa ser refeita.
+     */
+    void alterado(CursorNome chave) {
+        for (Entrada e : ativas) {
+            if (e.pendentes.size() < e.maxPendentes) {
+                e.pendentes.add(chave);
+            } else {
+                e.transbordou = true;
+            }
+        }
+    }
+
+    /**
+     * Mudança que não compensa corrigir linha a linha (reajuste em lote).
+     */
+    void invalidar() {
+        if (emUso()) geracao.incrementAndGet();
+    }
+
+    // ----- leitura -----
+
+    /**
+     * @return o relatório do locale na versão atual do cadastro
+     */
+    Relatorio obter(Locale locale) {
+        Entrada e = entrada(locale);
+        Relatorio r;
+        long bytes; // -1 = não mudou
+        synchronized (e) {
+            long g = geracao.get();
+            r = e.relatorio;
+            if (r == null || e.despejada || e.geracao != g || e.transbordou || (r = corrigir(e, r, g)) == null) {
+                // Limpa antes do snapshot: o que for marcado depois já estará nele ou continua pendente
+                e.transbordou = false;
+                e.pendentes.clear();
+                r = gerar(e);
+                e.maxPendentes = Math.max(16, r.linhas.length / 8);
+            }
+            bytes = r == e.relatorio ? -1 : r.bytes;
+            e.relatorio = r;
+        }
+        if (bytes >= 0) registrarTamanho(e, bytes);
+        return r;
+    }
+
+    /**
+     * Limite do total ocupado pelas versões em cache (0 desliga o cache).
+     */
+    void setLimiteBytes(long limiteBytes) {
+        if (limiteBytes < 0) throw new IllegalArgumentException("Limite negativo: " + limiteBytes);
+        this.limiteBytes = limiteBytes;
+        synchronized (this) {
+            despejar(null);
+        }
+    }
+
+    synchronized long getBytesUsados() {
+        return bytesUsados;
+    }
+
+    /**
+     * Gera o relatório inteiro e grava em {@code e.geracao} a geração lida
+     * depois de abrir o snapshot: abrir espera as travas que o reajuste em
+     * lote segura ao invalidar, então um reajuste que entrou no snapshot já
+     * contou na geração, e um posterior faz a próxima leitura gerar de novo.
+     */
+    private Relatorio gerar(Entrada e) {
+        try (SnapshotFuncionarios snapshot = abrirSnapshot.get()) {
+            e.geracao = geracao.get();
+            CursorNome[] todas = snapshot.chaves();
+            CursorNome[] chaves = new CursorNome[todas.length];
+            String[] linhas = new String[todas.length];
+            StringBuilder linha = new StringBuilder(64);
+            int n = 0;
+            long bytes = BYTES_RELATORIO;
+            for (CursorNome chave : todas) {
+                SnapshotFuncionarios.Visivel v = snapshot.ler(chave);
+                if (v == null) continue;
+                linha.setLength(0);
+                chaves[n] = chave;
+                linhas[n] = formatador.formatar(v, e.moeda, linha);
+                bytes += bytesLinha(linhas[n++]);
+            }
+            return new Relatorio(Arrays.copyOf(chaves, n), Arrays.copyOf(linhas, n), bytes);
+        }
+    }
+
+    /**
+     * Refaz só as linhas pendentes numa cópia do relatório; linhas novas são
+     * encaixadas na ordem por nome e as excluídas retiradas.
+     *
+     * @param g geração do relatório em cache
+     * @return o relatório corrigido, ou null se for preciso gerar de novo
+     */
+    private Relatorio corrigir(Entrada e, Relatorio r, long g) {
+        if (e.pendentes.isEmpty()) return r;
+        String[] linhas = r.linhas.clone();
+        TreeMap<CursorNome, String> novas = new TreeMap<>();
+        int excluidas = 0;
+        long bytes = r.bytes;
+        try (SnapshotFuncionarios snapshot = abrirSnapshot.get()) {
+            if (e.despejada) return null; // pode ter perdido avisos antes do snapshot
+            // Reajuste em lote entre a leitura da geração e o snapshot: as linhas
+            // pendentes viriam depois dele e as outras de antes
+            if (geracao.get() != g) return null;
+            StringBuilder linha = new StringBuilder(64);
+            List<CursorNome> velhas = new ArrayList<>();
+            for (Iterator<CursorNome> it = e.pendentes.iterator(); it.hasNext(); ) {
+                CursorNome chave = it.next();
+                it.remove();
+                // Alterada depois do snapshot: a linha sai na versão dele e volta a ficar pendente
+                if (snapshot.alteradoDepois(chave.getCodigo())) velhas.add(chave);
+                int p = Arrays.binarySearch(r.chaves, chave);
+                SnapshotFuncionarios.Visivel v = snapshot.ler(chave);
+                String formatada = null;
+                if (v != null) {
+                    linha.setLength(0);
+                    formatada = formatador.formatar(v, e.moeda, linha);
+                    bytes += bytesLinha(formatada);
+                }
+                if (p < 0) {
+                    if (formatada != null) novas.put(chave, formatada);
+                    continue;
+                }
+                if (linhas[p] != null) {
+                    bytes -= bytesLinha(linhas[p]);
+                    if (formatada == null) excluidas++;
+                }
+                linhas[p] = formatada;
+            }
+            e.pendentes.addAll(velhas);
+        }
+        if (excluidas == 0 && novas.isEmpty()) return new Relatorio(r.chaves, linhas, bytes);
+
+        // Intercala as linhas novas (já ordenadas) com as que ficaram
+        int total = r.chaves.length - excluidas + novas.size();
+        CursorNome[] chaves = new CursorNome[total];
+        String[] resultado = new String[total];
+        Iterator<Map.Entry<CursorNome, String>> it = novas.entrySet().iterator();
+        Map.Entry<CursorNome, String> nova = it.hasNext() ? it.next() : null;
+        int n = 0;
+        for (int i = 0; i < linhas.length; i++) {
+            if (linhas[i] == null) continue;
+            for (; nova != null && nova.getKey().compareTo(r.chaves[i]) < 0; nova = it.hasNext() ? it.next() : null) {
+                chaves[n] = nova.getKey();
+                resultado[n++] = nova.getValue();
+            }
+            chaves[n] = r.chaves[i];
+            resultado[n++] = linhas[i];
+        }
+        for (; nova != null; nova = it.hasNext() ? it.next() : null) {
+            chaves[n] = nova.getKey();
+            resultado[n++] = nova.getValue();
+        }
+        return new Relatorio(chaves, resultado, bytes);
+    }
+
+    // ----- entradas e limite de memória -----
+
+    private synchronized Entrada entrada(Locale locale) {
+        Entrada e = entradas.get(locale);
+        if (e == null) {
+            e = new Entrada(locale, formatoMoeda.apply(locale));
+            entradas.put(locale, e);
+            publicar();
+        }
+        return e;
+    }
+
+    private synchronized void registrarTamanho(Entrada e, long bytes) {
+        if (entradas.get(e.locale) != e) return; // despejada enquanto era gerada
+        bytesUsados += bytes - e.bytes;
+        e.bytes = bytes;
+        despejar(e);
+    }
+
+    // Tira as entradas usadas há mais tempo até caber no limite (a atual sai por último)
+    private void despejar(Entrada atual) {
+        long limite = limiteBytes;
+        for (Iterator<Entrada> it = entradas.values().iterator(); it.hasNext() && bytesUsados > limite; ) {
+            Entrada e = it.next();
+            if (e == atual) continue;
+            bytesUsados -= e.bytes;
+            e.despejada = true;
+            it.remove();
+        }
+        if (atual != null && bytesUsados > limite) {
+            bytesUsados -= atual.bytes;
+            atual.despejada = true;
+            entradas.remove(atual.locale);
+        }
+        publicar();
+    }
+
+    private void publicar() {
+        ativas = entradas.values().toArray(new Entrada[0]);
+    }
+
+    // String com bytes Latin-1: cabeçalho + array (~40 bytes) + texto, mais a referência em cada um dos dois arrays
+    private static long bytesLinha(String linha) {
+        return 48 + linha.length();
+    }
+}
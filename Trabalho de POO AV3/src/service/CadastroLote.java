@@ -0,0 +1,34 @@
+package service;
+
+import model.Funcionario;
+
+import java.util.List;
+
+/**
+ * Um item do cadastro em lote: funcionário, nomes dos dependentes e a linha
+ * de origem (usada no relatório de erros).
+ */
+public class CadastroLote {
+    private final long linha;
+    private final Funcionario funcionario;
+    private final List<String> nomesDependentes;
+
+    public CadastroLote(long linha, Funcionario funcionario, List<String> nomesDependentes) {
+        this.linha = linha;
+        this.funcionario = funcionario;
+        this.nomesDependentes = nomesDependentes;
+    }
+
+    // Getters
+    public long getLinha() {
+        return linha;
+    }
+
+    public Funcionario getFuncionario() {
+        return funcionario;
+    }
+
+    public List<String> getNomesDependentes() {
+        return nomesDependentes;
+    }
+}
@@ -0,0 +1,127 @@
+package service;
+
+import model.Dependente;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Critérios de {@link FuncionarioService#buscarFuncionarios}: trecho do nome
+ * do funcionário, trecho do nome de algum dependente e faixa de salário.
+ * Os trechos não diferenciam maiúsculas nem acentos. Imutável: cada método
+ * devolve uma nova consulta com o critério a mais.
+ *
+ * <pre>
+ * ConsultaFuncionarios.todos().nomeContendo("silva").comSalarioEntre(3000, 5000)
+ * </pre>
+ */
+public final class ConsultaFuncionarios {
+    private static final ConsultaFuncionarios TODOS =
+            new ConsultaFuncionarios(null, null, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+
+    private final String nome;        // já normalizado; null = qualquer
+    private final String dependente;  // já normalizado; null = qualquer
+    private final double salarioMinimo;
+    private final double salarioMaximo;
+    private final int limite;
+
+    private ConsultaFuncionarios(String nome, String dependente, double salarioMinimo, double salarioMaximo, int limite) {
+        this.nome = nome;
+        this.dependente = dependente;
+        this.salarioMinimo = salarioMinimo;
+        this.salarioMaximo = salarioMaximo;
+        this.limite = limite;
+    }
+
+    /**
+     * Consulta sem critérios (todos os funcionários).
+     */
+    public static ConsultaFuncionarios todos() {
+        return TODOS;
+    }
+
+    public ConsultaFuncionarios nomeContendo(String trecho) {
+        return new ConsultaFuncionarios(trecho(trecho), dependente, salarioMinimo, salarioMaximo, limite);
+    }
+
+    /**
+     * Funcionários com pelo menos um dependente cujo nome contém o trecho.
+     */
+    public ConsultaFuncionarios dependenteContendo(String trecho) {
+        return new ConsultaFuncionarios(nome, trecho(trecho), salarioMinimo, salarioMaximo, limite);
+    }
+
+    /**
+     * Salário entre mínimo e máximo, inclusive.
+     */
+    public ConsultaFuncionarios comSalarioEntre(double minimo, double maximo) {
+        if (!(minimo <= maximo)) {
+            throw new IllegalArgumentException("Faixa de salário inválida: " + minimo + " a " + maximo);
+        }
+        return new ConsultaFuncionarios(nome, dependente, minimo, maximo, limite);
+    }
+
+    /**
+     * Quantidade máxima de funcionários no resultado (padrão: sem limite).
+     */
+    public ConsultaFuncionarios limitadaA(int limite) {
+        if (limite < 0) throw new IllegalArgumentException("Limite negativo: " + limite);
+        return new ConsultaFuncionarios(nome, dependente, salarioMinimo, salarioMaximo, limite);
+    }
+
+    String getNome() {
+        return nome;
+    }
+
+    String getDependente() {
+        return dependente;
+    }
+
+    double getSalarioMinimo() {
+        return salarioMinimo;
+    }
+
+    double getSalarioMaximo() {
+        return salarioMaximo;
+    }
+
+    boolean temFaixaSalario() {
+        return salarioMinimo != Double.NEGATIVE_INFINITY || salarioMaximo != Double.POSITIVE_INFINITY;
+    }
+
+    int getLimite() {
+        return limite;
+    }
+
+    boolean aceitaNome(String nomeFuncionario) {
+        return nome == null || IndiceBusca.contem(nomeFuncionario, nome);
+    }
+
+    boolean aceitaDependentes(List<Dependente> deps) {
+        if (dependente == null) return true;
+        for (Dependente d : deps) {
+            if (IndiceBusca.contem(d.getNome(), dependente)) return true;
+        }
+        return false;
+    }
+
+    boolean aceitaSalario(double salario) {
+        return salario >= salarioMinimo && salario <= salarioMaximo;
+    }
+
+    private static String trecho(String trecho) {
+        String t = IndiceBusca.normalizar(Objects.requireNonNull(trecho, "Trecho não pode ser null").trim());
+        if (t.isEmpty()) throw new IllegalArgumentException("Trecho de nome vazio");
+        return t;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsultaFuncionarios{" +
+                "nome=" + (nome == null ? "qualquer" : "'" + nome + "'") +
+                ", dependente=" + (dependente == null ? "qualquer" : "'" + dependente + "'") +
+                ", salario=" + salarioMinimo + ".." + salarioMaximo +
+                ", limite=" + limite +
+                '}';
+    }
+}
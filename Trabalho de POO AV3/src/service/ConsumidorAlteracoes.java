@@ -0,0 +1,23 @@
+package service;
+
+/**
+ * Recebe os eventos do fluxo de alterações, em lotes, numa thread da
+ * própria assinatura (ver {@link FuncionarioService#assinarAlteracoes}).
+ */
+@FunctionalInterface
+public interface ConsumidorAlteracoes {
+
+    /**
+     * Próximo lote, em ordem de sequência. O lote é reaproveitado: só vale
+     * durante a chamada.
+     */
+    void aoReceber(LoteAlteracoes lote);
+
+    /**
+     * O consumidor ficou mais atrasado que a capacidade do buffer e os
+     * eventos mais antigos foram sobrescritos. Quem precisa de todos deve
+     * ressincronizar (ex: por um {@link SnapshotFuncionarios}).
+     */
+    default void aoPerder(long quantidade) {
+    }
+}
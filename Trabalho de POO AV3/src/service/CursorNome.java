@@ -0,0 +1,78 @@
+package service;
+
+import java.util.Objects;
+
+/**
+ * Posição na listagem por nome (ordem alfabética sem diferenciar maiúsculas,
+ * desempate pelo nome exato e depois pelo código). Usado para buscar a
+ * próxima página de funcionários.
+ */
+public final class CursorNome implements Comparable<CursorNome> {
+    private static final CursorNome INICIO = new CursorNome(null, Integer.MIN_VALUE);
+
+    private final String nome; // null = antes de todos
+    private final int codigo;
+
+    CursorNome(String nome, int codigo) {
+        this.nome = nome;
+        this.codigo = codigo;
+    }
+
+    /**
+     * Cursor para começar do primeiro funcionário.
+     */
+    public static CursorNome inicio() {
+        return INICIO;
+    }
+
+    /**
+     * Cursor posicionado depois de todos os funcionários com o nome informado.
+     */
+    public static CursorNome apos(String nome) {
+        return new CursorNome(Objects.requireNonNull(nome, "Nome não pode ser null"), Integer.MAX_VALUE);
+    }
+
+    boolean isInicio() {
+        return nome == null;
+    }
+
+    String getNome() {
+        return nome;
+    }
+
+    int getCodigo() {
+        return codigo;
+    }
+
+    @Override
+    public int compareTo(CursorNome o) {
+        if (nome == null || o.nome == null) {
+            if (nome == o.nome) return Integer.compare(codigo, o.codigo);
+            return nome == null ? -1 : 1;
+        }
+        int c = String.CASE_INSENSITIVE_ORDER.compare(nome, o.nome);
+        if (c == 0) c = nome.compareTo(o.nome); // coerente com equals: "ana" e "Ana" são chaves diferentes
+        return c != 0 ? c : Integer.compare(codigo, o.codigo);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CursorNome that = (CursorNome) o;
+        return codigo == that.codigo && Objects.equals(nome, that.nome);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nome, codigo);
+    }
+
+    @Override
+    public String toString() {
+        return "CursorNome{" +
+                "nome='" + nome + '\'' +
+                ", codigo=" + codigo +
+                '}';
+    }
+}
@@ -0,0 +1,34 @@
+package service;
+
+/**
+ * Erro de um item de uma operação em lote (ex: código duplicado, linha inválida).
+ */
+public class ErroLote {
+    private final long linha;
+    private final int codigo;
+    private final String mensagem;
+
+    public ErroLote(long linha, int codigo, String mensagem) {
+        this.linha = linha;
+        this.codigo = codigo;
+        this.mensagem = mensagem;
+    }
+
+    // Getters
+    public long getLinha() {
+        return linha;
+    }
+
+    public int getCodigo() {
+        return codigo;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    @Override
+    public String toString() {
+        return "Linha " + linha + " (código " + codigo + "): " + mensagem;
+    }
+}
@@ -0,0 +1,83 @@
+package service;
+
+import java.util.Objects;
+
+/**
+ * Seleciona funcionários por cargo, faixa de salário e quantidade de
+ * dependentes (usado no reajuste em lote). Imutável: cada método devolve
+ * um novo filtro com a condição a mais.
+ *
+ * <pre>
+ * FiltroFuncionarios.todos().doCargo("Analista").comSalarioEntre(1000, 3000)
+ * </pre>
+ */
+public final class FiltroFuncionarios {
+    private static final FiltroFuncionarios TODOS =
+            new FiltroFuncionarios(null, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 0, Integer.MAX_VALUE);
+
+    private final String cargo; // null = qualquer cargo
+    private final double salarioMinimo;
+    private final double salarioMaximo;
+    private final int dependentesMinimo;
+    private final int dependentesMaximo;
+
+    private FiltroFuncionarios(String cargo, double salarioMinimo, double salarioMaximo,
+                               int dependentesMinimo, int dependentesMaximo) {
+        this.cargo = cargo;
+        this.salarioMinimo = salarioMinimo;
+        this.salarioMaximo = salarioMaximo;
+        this.dependentesMinimo = dependentesMinimo;
+        this.dependentesMaximo = dependentesMaximo;
+    }
+
+    /**
+     * Filtro que aceita todos os funcionários.
+     */
+    public static FiltroFuncionarios todos() {
+        return TODOS;
+    }
+
+    public FiltroFuncionarios doCargo(String cargo) {
+        return new FiltroFuncionarios(Objects.requireNonNull(cargo, "Cargo não pode ser null"),
+                salarioMinimo, salarioMaximo, dependentesMinimo, dependentesMaximo);
+    }
+
+    /**
+     * Salário entre mínimo e máximo, inclusive.
+     */
+    public FiltroFuncionarios comSalarioEntre(double minimo, double maximo) {
+        if (!(minimo <= maximo)) {
+            throw new IllegalArgumentException("Faixa de salário inválida: " + minimo + " a " + maximo);
+        }
+        return new FiltroFuncionarios(cargo, minimo, maximo, dependentesMinimo, dependentesMaximo);
+    }
+
+    /**
+     * Quantidade de dependentes entre mínimo e máximo, inclusive.
+     */
+    public FiltroFuncionarios comDependentesEntre(int minimo, int maximo) {
+        if (minimo < 0 || minimo > maximo) {
+            throw new IllegalArgumentException("Faixa de dependentes inválida: " + minimo + " a " + maximo);
+        }
+        return new FiltroFuncionarios(cargo, salarioMinimo, salarioMaximo, minimo, maximo);
+    }
+
+    String getCargo() {
+        return cargo;
+    }
+
+    boolean aceita(String cargoFuncionario, double salario, int qtdDependentes) {
+        return salario >= salarioMinimo && salario <= salarioMaximo
+                && qtdDependentes >= dependentesMinimo && qtdDependentes <= dependentesMaximo
+                && (cargo == null || cargo.equals(cargoFuncionario == null ? "" : cargoFuncionario));
+    }
+
+    @Override
+    public String toString() {
+        return "FiltroFuncionarios{" +
+                "cargo=" + (cargo == null ? "qualquer" : "'" + cargo + "'") +
+                ", salario=" + salarioMinimo + ".." + salarioMaximo +
+                ", dependentes=" + dependentesMinimo + ".." + dependentesMaximo +
+                '}';
+    }
+}
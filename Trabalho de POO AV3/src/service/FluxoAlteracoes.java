@@ -0,0 +1,133 @@
+package service;
+
+import model.Funcionario;
+
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Buffer circular dos eventos de alteração, pré-alocado (um array por campo)
+ * e compartilhado por todas as assinaturas.
+ *
+ * As escritas do serviço publicam dentro da trava do código: reservam uma
+ * sequência, gravam os campos na posição dela e marcam a posição como
+ * publicada. Nada é alocado e ninguém espera os consumidores: quando o
+ * buffer dá a volta, os eventos mais antigos são sobrescritos e quem ainda
+ * não os leu é avisado da perda. Cada consumidor copia os campos e confere
+ * depois se a posição não foi reescrita durante a cópia (como um seqlock).
+ */
+final class FluxoAlteracoes {
+    static final int CAPACIDADE = 1 << 16; // potência de 2
+
+    private static final long ESCREVENDO = Long.MIN_VALUE;
+
+    private final int mascara = CAPACIDADE - 1;
+    // Sequência do evento gravado em cada posição (ESCREVENDO durante a gravação)
+    private final AtomicLongArray publicado = new AtomicLongArray(CAPACIDADE);
+    private final byte[] tipos = new byte[CAPACIDADE];
+    private final int[] codigos = new int[CAPACIDADE];
+    private final String[] nomes = new String[CAPACIDADE];
+    private final String[] cargos = new String[CAPACIDADE];
+    private final double[] salarios = new double[CAPACIDADE];
+    private final double[] anteriores = new double[CAPACIDADE];
+    private final int[] qtdDependentes = new int[CAPACIDADE];
+    private final AtomicLong proxima = new AtomicLong(); // próxima sequência a reservar
+    private final List<AssinaturaAlteracoes> assinaturas = new CopyOnWriteArrayList<>();
+
+    FluxoAlteracoes() {
+        for (int i = 0; i < CAPACIDADE; i++) {
+            publicado.set(i, i - CAPACIDADE); // como se a volta anterior já estivesse publicada
+        }
+    }
+
+    // ----- escrita (com a trava do código) -----
+
+    /**
+     * Publica o evento se houver alguma assinatura.
+     */
+    void publicar(TipoAlteracao tipo, Funcionario f, double salarioAnterior, int qtd) {
+        if (assinaturas.isEmpty()) return;
+        long s = proxima.getAndIncrement();
+        int i = (int) s & mascara;
+        // Só espera outro produtor: o da volta anterior nesta posição, se o buffer inteiro passou durante a escrita dele
+        while (publicado.get(i) != s - CAPACIDADE) {
+            Thread.onSpinWait();
+        }
+        publicado.set(i, ESCREVENDO);
+        VarHandle.storeStoreFence();
+        tipos[i] = (byte) tipo.ordinal();
+        codigos[i] = f.getCodigo();
+        nomes[i] = f.getNome();
+        cargos[i] = f.getCargo();
+        salarios[i] = f.getSalario();
+        anteriores[i] = salarioAnterior;
+        qtdDependentes[i] = qtd;
+        publicado.setRelease(i, s);
+    }
+
+    // ----- leitura (threads das assinaturas) -----
+
+    /**
+     * Copia para o lote os eventos já publicados a partir da sequência, em
+     * ordem, até encher o lote ou achar um ainda não publicado (ou já sobrescrito).
+     *
+     * @return quantidade copiada
+     */
+    int ler(long sequencia, LoteAlteracoes lote) {
+        int n = 0;
+        while (n < lote.sequencias.length) {
+            long s = sequencia + n;
+            int i = (int) s & mascara;
+            if (publicado.getAcquire(i) != s) break;
+            lote.sequencias[n] = s;
+            lote.tipos[n] = tipos[i];
+            lote.codigos[n] = codigos[i];
+            lote.nomes[n] = nomes[i];
+            lote.cargos[n] = cargos[i];
+            lote.salarios[n] = salarios[i];
+            lote.anteriores[n] = anteriores[i];
+            lote.qtdDependentes[n] = qtdDependentes[i];
+            VarHandle.loadLoadFence();
+            if (publicado.get(i) != s) break; // reescrito durante a cópia
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * @return true se o evento da sequência já foi (ou está sendo) sobrescrito
+     */
+    boolean sobrescrito(long sequencia) {
+        return proxima.get() - sequencia > CAPACIDADE;
+    }
+
+    /**
+     * Sequência de onde um consumidor que perdeu eventos recomeça: metade do
+     * buffer atrás do produtor, para ter folga até a próxima volta.
+     */
+    long retomada() {
+        return proxima.get() - CAPACIDADE / 2;
+    }
+
+    long proximaSequencia() {
+        return proxima.get();
+    }
+
+    // ----- assinaturas -----
+
+    /**
+     * @return a sequência do primeiro evento que a assinatura vai receber
+     */
+    long adicionar(AssinaturaAlteracoes assinatura) {
+        assinaturas.add(assinatura);
+        // Lido depois de entrar na lista: os eventos reservados daqui em diante são publicados
+        return proxima.get();
+    }
+
+    void remover(AssinaturaAlteracoes assinatura) {
+        assinaturas.remove(assinatura);
+    }
+}
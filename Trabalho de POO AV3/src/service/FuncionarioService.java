@@ -1,123 +1,1266 @@
-package service;
-
-import model.Funcionario;
-import model.Dependente;
-import exceptions.FuncDuplicadoEx;
-import exceptions.FuncInexistenteEx;
-
-import java.util.*;
-import java.util.stream.Collectors;
-
-/**
- * Responsável por armazenar e manipular funcionários e dependentes.
- */
-public class FuncionarioService {
-    private final Map<Integer, Funcionario> funcionarios;
-    private final List<Dependente> dependentes;
-
-    public FuncionarioService() {
-        this.funcionarios = new HashMap<>();
-        this.dependentes = new ArrayList<>();
-    }
-
-    /**
-     * Cadastra um funcionário e seus dependentes.
-     *
-     * @param f                objeto Funcionario
-     * @param nomesDependentes lista de nomes dos dependentes (pode ser vazia)
-     * @throws FuncDuplicadoEx se já existir funcionário com mesmo código
-     */
-    public void cadastrarFuncionario(Funcionario f, List<String> nomesDependentes) throws FuncDuplicadoEx {
-        Objects.requireNonNull(f, "Funcionario não pode ser null");
-        int codigo = f.getCodigo();
-        if (funcionarios.containsKey(codigo)) {
-            throw new FuncDuplicadoEx();
-        }
-        funcionarios.put(codigo, f);
-
-        if (nomesDependentes != null) {
-            for (String nomeDep : nomesDependentes) {
-                if (nomeDep != null && !nomeDep.trim().isEmpty()) {
-                    Dependente d = new Dependente(f, nomeDep.trim());
-                    dependentes.add(d);
-                }
-            }
-        }
-    }
-
-    /**
-     * Retorna o número de dependentes de um funcionário.
-     */
-    public int contarDependentes(int codigoFuncionario) {
-        return (int) dependentes.stream()
-                .filter(d -> d.getFuncionario() != null && d.getFuncionario().getCodigo() == codigoFuncionario)
-                .count();
-    }
-
-    /**
-     * Calcula o bônus para um salário e quantidade de dependentes:
-     * bônus = salario * 0.02 * qtdDependentes
-     */
-    public double calcBonus(double salario, int qtdDependentes) {
-        if (qtdDependentes <= 0) return 0.0;
-        return salario * 0.02 * qtdDependentes;
-    }
-
-    /**
-     * Gera uma lista de linhas formatadas com nome; qtd dependentes; bônus.
-     * Essas linhas são apropriadas para exibir ou gravar em arquivo.
-     */
-    public List<String> listarBonusFormatado(Locale locale) {
-        List<String> linhas = new ArrayList<>();
-        // Cabeçalho
-        linhas.add("Relatório de Bônus Mensal");
-        linhas.add("-------------------------");
-        for (Funcionario f : funcionarios.values().stream()
-                .sorted(Comparator.comparing(Funcionario::getNome, String.CASE_INSENSITIVE_ORDER))
-                .collect(Collectors.toList())) {
-
-            int qtd = contarDependentes(f.getCodigo());
-            double bonus = calcBonus(f.getSalario(), qtd);
-            // Formatação simples (formato ponto decimal) — UI pode formatar moeda ao exibir
-            String linha = String.format("Nome: %s; Dependentes: %d; Bonus: %.2f",
-                    f.getNome(), qtd, bonus);
-            linhas.add(linha);
-        }
-        return linhas;
-    }
-
-    /**
-     * Exclui funcionário e todos os seus dependentes.
-     *
-     * @throws FuncInexistenteEx se o funcionário não estiver cadastrado
-     */
-    public void excluirFuncionario(int codigo) throws FuncInexistenteEx {
-        if (!funcionarios.containsKey(codigo)) {
-            throw new FuncInexistenteEx();
-        }
-        // Remove funcionário
-        funcionarios.remove(codigo);
-        // Remove dependentes associados
-        dependentes.removeIf(d -> d.getFuncionario() != null && d.getFuncionario().getCodigo() == codigo);
-    }
-
-    /**
-     * Altera o salário do funcionário identificado por código.
-     *
-     * @throws FuncInexistenteEx se o funcionário não estiver cadastrado
-     */
-    public void alterarSalario(int codigo, double novoSalario) throws FuncInexistenteEx {
-        Funcionario f = funcionarios.get(codigo);
-        if (f == null) {
-            throw new FuncInexistenteEx();
-        }
-        f.setSalario(novoSalario);
-    }
-
-    /**
-     * Retorna uma cópia não modificável da coleção de funcionários (útil para testes/exibição).
-     */
-    public Collection<Funcionario> listarFuncionarios() {
-        return Collections.unmodifiableCollection(funcionarios.values());
-    }
-}
+package service;
+
+import model.Funcionario;
+import model.Dependente;
+import exceptions.FuncDuplicadoEx;
+import exceptions.FuncInexistenteEx;
+import metrics.EventoRelatorio;
+import metrics.MetricasServico;
+import metrics.MetricasServico.Operacao;
+import storage.ArmazenamentoFuncionarios;
+import storage.ArmazenamentoMapa;
+import util.DicionarioTextos;
+import util.EnderecamentoAberto;
+
+import java.io.IOException;
+import java.text.NumberFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Responsável por armazenar e manipular funcionários e dependentes.
+ * Os dados ficam em um {@link ArmazenamentoFuncionarios} (por padrão um
+ * ConcurrentHashMap, ver {@link ArmazenamentoMapa}).
+ * Pode ser compartilhado entre threads: as alterações sobre o mesmo código são
+ * serializadas por uma trava de faixa (lock striping), nunca por uma trava global.
+ * Cada operação registra sua latência em {@link #getMetricas()}.
+ * Os cargos passam por um dicionário compartilhado: todos os funcionários de
+ * um cargo apontam para a mesma String, e os totais por cargo são indexados
+ * pelo id do cargo.
+ * Os relatórios leem um {@link SnapshotFuncionarios}: veem uma única versão do
+ * cadastro sem impedir as alterações feitas enquanto são gerados.
+ * {@link #buscarFuncionarios} usa índices de nome e de salário quando ligados
+ * por {@link #setIndiceBusca}. Cada alteração também pode ser acompanhada em
+ * lotes por {@link #assinarAlteracoes}.
+ */
+public class FuncionarioService {
+    private static final String TITULO_BONUS = "Relatório de Bônus Mensal";
+    private static final String SEPARADOR_BONUS = "-------------------------";
+    private static final int INTERVALO_PROGRESSO = 4096;
+    // Relatório paralelo: linhas formatadas por tarefa e linhas mantidas em memória de cada vez
+    private static final int LINHAS_POR_TRECHO = 4096;
+    private static final int LINHAS_POR_ONDA = 64 * LINHAS_POR_TRECHO;
+
+    private static final int NUM_TRAVAS = 64; // potência de 2
+
+    private final ArmazenamentoFuncionarios armazenamento;
+    private final Object[] travas;
+    private final List<OuvinteFuncionarios> ouvintes;
+    private final AgregadosFolha agregados;
+    private final DicionarioTextos cargos = new DicionarioTextos();
+    private final VersoesFuncionarios versoes = new VersoesFuncionarios();
+    private final CacheRelatorioBonus relatorios;
+    private volatile DicionarioTextos nomes; // null = sem deduplicação de nomes
+    private volatile IndiceBusca busca;      // null = busca sem índice (varre o cadastro)
+    private volatile FluxoAlteracoes fluxo;  // criado na primeira assinatura
+    // Índice por nome mantido a cada cadastro/exclusão (evita ordenar no relatório)
+    private final ConcurrentSkipListSet<CursorNome> porNome;
+    private volatile boolean rastrearExcecoes = true;
+    private final MetricasServico metricas = new MetricasServico();
+
+    public FuncionarioService() {
+        this(new ArmazenamentoMapa());
+    }
+
+    /**
+     * Cria o serviço sobre o armazenamento informado (ex: ArmazenamentoColunar
+     * para cadastros muito grandes, ArmazenamentoForaDoHeap para tirá-los do
+     * alcance do coletor de lixo).
+     */
+    @SuppressWarnings("this-escape") // o cache só abre snapshots depois da construção
+    public FuncionarioService(ArmazenamentoFuncionarios armazenamento) {
+        this.armazenamento = Objects.requireNonNull(armazenamento, "Armazenamento não pode ser null");
+        this.travas = new Object[NUM_TRAVAS];
+        for (int i = 0; i < NUM_TRAVAS; i++) {
+            travas[i] = new Object();
+        }
+        this.ouvintes = new CopyOnWriteArrayList<>();
+        this.agregados = new AgregadosFolha(cargos);
+        this.porNome = new ConcurrentSkipListSet<>();
+        // Por padrão o cache de relatórios pode ocupar até 1/8 do heap
+        this.relatorios = new CacheRelatorioBonus(this::abrirSnapshot, FuncionarioService::formatoMoeda,
+                (v, moeda, linha) -> formatarLinhaBonus(v.funcionario, v.qtdDependentes, moeda, linha).toString(),
+                Runtime.getRuntime().maxMemory() / 8);
+    }
+
+    /**
+     * Registra um ouvinte que será avisado de cada cadastro, exclusão e alteração de salário.
+     */
+    public void adicionarOuvinte(OuvinteFuncionarios ouvinte) {
+        ouvintes.add(Objects.requireNonNull(ouvinte, "Ouvinte não pode ser null"));
+    }
+
+    public void removerOuvinte(OuvinteFuncionarios ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    /**
+     * Como {@link #assinarAlteracoes(ConsumidorAlteracoes, int)}, com lotes de até 256 eventos.
+     */
+    public AssinaturaAlteracoes assinarAlteracoes(ConsumidorAlteracoes consumidor) {
+        return assinarAlteracoes(consumidor, 256);
+    }
+
+    /**
+     * Assina o fluxo de alterações (change data capture): cada cadastro,
+     * exclusão e alteração de salário a partir de agora vira um evento,
+     * entregue ao consumidor em lotes numa thread da assinatura. Ao contrário
+     * de um {@link OuvinteFuncionarios}, o consumidor nunca atrasa o serviço:
+     * as escritas só gravam o evento num buffer circular pré-alocado, sem
+     * alocar nem esperar, e um consumidor atrasado demais perde os eventos
+     * mais antigos. Os eventos de um mesmo código chegam na ordem das alterações.
+     *
+     * @param tamanhoLote quantidade máxima de eventos por chamada ao consumidor
+     * @return a assinatura, que deve ser fechada quando não for mais usada
+     */
+    public AssinaturaAlteracoes assinarAlteracoes(ConsumidorAlteracoes consumidor, int tamanhoLote) {
+        Objects.requireNonNull(consumidor, "Consumidor não pode ser null");
+        if (tamanhoLote <= 0) throw new IllegalArgumentException("Tamanho de lote inválido: " + tamanhoLote);
+        FluxoAlteracoes f = fluxo;
+        if (f == null) {
+            synchronized (travas) {
+                if (fluxo == null) fluxo = new FluxoAlteracoes();
+                f = fluxo;
+            }
+        }
+        return new AssinaturaAlteracoes(f, consumidor, tamanhoLote);
+    }
+
+    /**
+     * Define se FuncDuplicadoEx/FuncInexistenteEx capturam a pilha de chamadas
+     * (padrão true). Desligar deixa o lançamento bem mais barato.
+     */
+    public void setRastrearExcecoes(boolean rastrearExcecoes) {
+        this.rastrearExcecoes = rastrearExcecoes;
+    }
+
+    /**
+     * Liga ou desliga a deduplicação dos nomes de funcionários e dependentes
+     * cadastrados a partir de agora (padrão desligada). Vale a pena quando os
+     * nomes se repetem muito; como o dicionário não esquece nomes, nomes quase
+     * todos distintos só aumentariam o uso de memória.
+     */
+    public void setDeduplicarNomes(boolean deduplicar) {
+        DicionarioTextos atual = nomes;
+        nomes = !deduplicar ? null : atual != null ? atual : new DicionarioTextos();
+    }
+
+    /**
+     * Limite de memória (estimada) das linhas do relatório de bônus guardadas
+     * por locale; passando dele, os locales usados há mais tempo saem do
+     * cache. 0 desliga o cache.
+     */
+    public void setLimiteCacheRelatorio(long bytes) {
+        relatorios.setLimiteBytes(bytes);
+    }
+
+    /**
+     * Liga ou desliga os índices de {@link #buscarFuncionarios} (padrão
+     * desligados): trigramas dos nomes de funcionários e dependentes e faixas
+     * de salário. Ao ligar, o cadastro atual é indexado; cada funcionário é
+     * indexado com a sua trava, então as alterações continuam durante a
+     * construção. Ligados, os índices ocupam memória da ordem de
+     * (letras dos nomes + 1) códigos por funcionário.
+     */
+    public void setIndiceBusca(boolean ativo) {
+        if (!ativo) {
+            busca = null;
+            return;
+        }
+        IndiceBusca b;
+        synchronized (travas) {
+            if (busca != null) return;
+            b = new IndiceBusca();
+            busca = b; // publicado antes: as escritas a partir daqui já atualizam o índice
+        }
+        // O índice por nome, ao contrário do armazenamento, é percorrido sem pular quem estava lá desde o início
+        for (CursorNome chave : porNome) {
+            int codigo = chave.getCodigo();
+            synchronized (travaDe(codigo)) {
+                Funcionario atual = armazenamento.buscar(codigo);
+                if (atual != null && busca == b) b.adicionar(atual, armazenamento.listarDependentes(codigo));
+            }
+        }
+    }
+
+    /**
+     * Latências, falhas e vazão de cada operação deste serviço.
+     */
+    public MetricasServico getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Cadastra um funcionário e seus dependentes.
+     *
+     * @param f                objeto Funcionario (o serviço guarda uma cópia; este não é alterado)
+     * @param nomesDependentes lista de nomes dos dependentes (pode ser vazia)
+     * @throws FuncDuplicadoEx se já existir funcionário com mesmo código
+     */
+    public void cadastrarFuncionario(Funcionario f, List<String> nomesDependentes) throws FuncDuplicadoEx {
+        if (tentarCadastrar(f, nomesDependentes) == ResultadoOperacao.DUPLICADO) {
+            throw new FuncDuplicadoEx(rastrearExcecoes);
+        }
+    }
+
+    /**
+     * Como {@link #cadastrarFuncionario}, mas informa código duplicado no retorno.
+     *
+     * @return SUCESSO ou DUPLICADO
+     */
+    public ResultadoOperacao tentarCadastrar(Funcionario f, List<String> nomesDependentes) {
+        Objects.requireNonNull(f, "Funcionario não pode ser null");
+        long inicio = metricas.inicioAmostrado();
+        boolean inserido = inserir(f, nomesDependentes);
+        metricas.registrarAmostrado(Operacao.CADASTRAR, inicio, inserido, f.getCodigo());
+        return inserido ? ResultadoOperacao.SUCESSO : ResultadoOperacao.DUPLICADO;
+    }
+
+    /**
+     * Cadastra vários funcionários de uma vez, em paralelo.
+     * Diferente de {@link #cadastrarFuncionario}, um código duplicado não
+     * interrompe o lote: o item é ignorado e aparece no relatório de erros.
+     *
+     * @param itens funcionários (com dependentes) a cadastrar
+     * @return erros encontrados, ordenados pela linha de origem (vazio se tudo foi cadastrado)
+     */
+    public List<ErroLote> cadastrarEmLote(List<CadastroLote> itens) {
+        long inicio = System.nanoTime();
+        Queue<ErroLote> erros = new ConcurrentLinkedQueue<>();
+        itens.parallelStream().forEach(item -> {
+            Funcionario f = item.getFuncionario();
+            if (!inserir(f, item.getNomesDependentes())) {
+                erros.add(new ErroLote(item.getLinha(), f.getCodigo(), ResultadoOperacao.DUPLICADO.getMensagem()));
+            }
+        });
+        List<ErroLote> ordenados = new ArrayList<>(erros);
+        ordenados.sort(Comparator.comparingLong(ErroLote::getLinha));
+        metricas.registrar(Operacao.CADASTRAR_LOTE, inicio, ordenados.isEmpty(), 0);
+        return ordenados;
+    }
+
+    /**
+     * Carga de vários funcionários de uma vez, para restaurar um cadastro
+     * salvo (ex: {@code SnapshotCompacto.carregar}). Códigos que já existem são
+     * ignorados. Sem ouvintes, fluxo de alterações, índice de busca e snapshots
+     * abertos, ninguém precisa ver os cadastros um a um: com todas as travas
+     * seguras, os funcionários vão direto para o armazenamento e para o índice
+     * por nome, e os totais da folha são somados uma vez por cargo. Se algum
+     * deles estiver ativo, o lote passa por {@link #cadastrarEmLote}.
+     *
+     * @return quantidade de funcionários cadastrados
+     */
+    public long restaurarEmLote(List<CadastroLote> itens) {
+        long inicio = System.nanoTime();
+        long restaurados = comTodasAsTravas(0, () -> restaurar(itens));
+        if (restaurados < 0) return itens.size() - cadastrarEmLote(itens).size();
+        metricas.registrar(Operacao.CADASTRAR_LOTE, inicio, restaurados == itens.size(), 0);
+        return restaurados;
+    }
+
+    // Chamado com todas as travas; -1 se alguém precisa ser avisado de cada cadastro
+    private long restaurar(List<CadastroLote> itens) {
+        if (!ouvintes.isEmpty() || fluxo != null || busca != null || versoes.versaoDaEscrita() != 0) return -1;
+        DicionarioTextos dicNomes = nomes;
+        // Por id de cargo: funcionários, dependentes, salários e bônus
+        long[] funcionarios = new long[Math.max(16, cargos.tamanho())];
+        long[] qtdDependentes = new long[funcionarios.length];
+        double[] salarios = new double[funcionarios.length];
+        double[] bonus = new double[funcionarios.length];
+        long restaurados = 0;
+        for (CadastroLote item : itens) {
+            int idCargo = idCargo(item.getFuncionario().getCargo());
+            Funcionario f = paraCadastro(item.getFuncionario(), idCargo, dicNomes);
+            List<Dependente> deps = dependentes(f, item.getNomesDependentes(), dicNomes);
+            if (!armazenamento.inserir(f, deps)) continue;
+            porNome.add(chaveNome(f));
+            if (idCargo >= funcionarios.length) {
+                int tamanho = Math.max(funcionarios.length * 2, idCargo + 1);
+                funcionarios = Arrays.copyOf(funcionarios, tamanho);
+                qtdDependentes = Arrays.copyOf(qtdDependentes, tamanho);
+                salarios = Arrays.copyOf(salarios, tamanho);
+                bonus = Arrays.copyOf(bonus, tamanho);
+            }
+            funcionarios[idCargo]++;
+            qtdDependentes[idCargo] += deps.size();
+            salarios[idCargo] += f.getSalario();
+            bonus[idCargo] += calcBonus(f.getSalario(), deps.size());
+            restaurados++;
+        }
+        for (int id = 0; id < funcionarios.length; id++) {
+            if (funcionarios[id] > 0) agregados.adicionar(id, funcionarios[id], qtdDependentes[id], salarios[id], bonus[id]);
+        }
+        if (restaurados > 0) relatorios.invalidar();
+        return restaurados;
+    }
+
+    /**
+     * Insere funcionário e dependentes; retorna false se o código já existir.
+     */
+    private boolean inserir(Funcionario original, List<String> nomesDependentes) {
+        int idCargo = idCargo(original.getCargo());
+        DicionarioTextos dicNomes = nomes;
+        Funcionario f = paraCadastro(original, idCargo, dicNomes);
+
+        // Funcionário e dependentes entram juntos em uma única operação atômica
+        List<Dependente> imutaveis = dependentes(f, nomesDependentes, dicNomes);
+        int codigo = f.getCodigo();
+        synchronized (travaDe(codigo)) {
+            long versao = versoes.versaoDaEscrita();
+            if (versao != 0) {
+                if (armazenamento.buscar(codigo) != null) return false;
+                versoes.guardar(versao, codigo, null, null);
+            }
+            if (!armazenamento.inserir(f, imutaveis)) {
+                return false;
+            }
+            agregados.adicionar(idCargo, f.getSalario(), imutaveis.size(),
+                    calcBonus(f.getSalario(), imutaveis.size()));
+            porNome.add(chaveNome(f));
+            if (relatorios.emUso()) relatorios.alterado(chaveNome(f));
+            IndiceBusca b = busca;
+            if (b != null) b.adicionar(f, imutaveis);
+            FluxoAlteracoes fl = fluxo;
+            if (fl != null) fl.publicar(TipoAlteracao.CADASTRO, f, Double.NaN, imutaveis.size());
+            for (OuvinteFuncionarios o : ouvintes) {
+                o.aoCadastrar(f, imutaveis);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cópia que vai para o armazenamento, com cargo e nome apontando para as
+     * instâncias dos dicionários: o objeto de quem chamou não é alterado nem
+     * guardado (mesmo que o cadastro seja recusado).
+     */
+    private Funcionario paraCadastro(Funcionario f, int idCargo, DicionarioTextos dicNomes) {
+        String cargo = f.getCargo() == null ? null : cargos.texto(idCargo);
+        String nome = dicNomes == null ? f.getNome() : dicNomes.internar(f.getNome());
+        return new Funcionario(f.getCodigo(), nome, cargo, f.getSalario());
+    }
+
+    // Dependentes com nome não vazio (sem espaços nas pontas), em lista imutável
+    private static List<Dependente> dependentes(Funcionario f, List<String> nomesDependentes, DicionarioTextos dicNomes) {
+        List<Dependente> deps = new ArrayList<>();
+        if (nomesDependentes != null) {
+            for (String nomeDep : nomesDependentes) {
+                if (nomeDep != null && !nomeDep.trim().isEmpty()) {
+                    String nome = nomeDep.trim();
+                    Dependente d = new Dependente(f, dicNomes == null ? nome : dicNomes.internar(nome));
+                    deps.add(d);
+                }
+            }
+        }
+        return List.copyOf(deps);
+    }
+
+    /**
+     * Retorna o número de dependentes de um funcionário.
+     */
+    public int contarDependentes(int codigoFuncionario) {
+        long inicio = metricas.inicioAmostrado();
+        int qtd = armazenamento.contarDependentes(codigoFuncionario);
+        metricas.registrarAmostrado(Operacao.CONTAR_DEPENDENTES, inicio, true, codigoFuncionario);
+        return qtd;
+    }
+
+    /**
+     * Retorna os dependentes de um funcionário (lista vazia se não houver).
+     */
+    public List<Dependente> listarDependentes(int codigoFuncionario) {
+        long inicio = metricas.inicioAmostrado();
+        List<Dependente> deps = armazenamento.listarDependentes(codigoFuncionario);
+        metricas.registrarAmostrado(Operacao.LISTAR_DEPENDENTES, inicio, true, codigoFuncionario);
+        return deps;
+    }
+
+    /**
+     * Calcula o bônus para um salário e quantidade de dependentes:
+     * bônus = salario * 0.02 * qtdDependentes
+     */
+    public double calcBonus(double salario, int qtdDependentes) {
+        if (qtdDependentes <= 0) return 0.0;
+        return salario * 0.02 * qtdDependentes;
+    }
+
+    /**
+     * Soma o bônus mensal de todos os funcionários, direto sobre os dados
+     * do armazenamento (sem montar objetos Funcionario).
+     */
+    public double calcularBonusTotal() {
+        long inicio = System.nanoTime();
+        double[] total = new double[1];
+        armazenamento.paraCada((codigo, salario, qtd) -> total[0] += calcBonus(salario, qtd));
+        metricas.registrar(Operacao.BONUS_TOTAL, inicio);
+        return total[0];
+    }
+
+    /**
+     * Gera uma lista de linhas formatadas com nome; qtd dependentes; bônus.
+     * O bônus já sai formatado como moeda do locale informado.
+     * As linhas ficam em cache por locale: repetir o relatório sem alterações
+     * no cadastro só copia a lista, e depois de cadastros, exclusões ou
+     * alterações de salário só as linhas afetadas são refeitas.
+     * Para relatórios grandes prefira {@link #escreverBonusFormatado(Locale, Appendable)}.
+     */
+    public List<String> listarBonusFormatado(Locale locale) {
+        long inicio = System.nanoTime();
+        EventoRelatorio evento = new EventoRelatorio();
+        evento.begin();
+        CacheRelatorioBonus.Relatorio relatorio = relatorios.obter(localeOuPadrao(locale));
+        List<String> linhas = new ArrayList<>(relatorio.linhas.length + 2);
+        // Cabeçalho
+        linhas.add(TITULO_BONUS);
+        linhas.add(SEPARADOR_BONUS);
+        Collections.addAll(linhas, relatorio.linhas);
+        terminarRelatorio(evento, "bonus", linhas.size() - 2, true, inicio);
+        return linhas;
+    }
+
+    /**
+     * Escreve o relatório de bônus diretamente no destino, uma linha por vez,
+     * sem montar o relatório inteiro em memória.
+     *
+     * @param locale  locale usado na formatação da moeda (null = locale padrão)
+     * @param destino onde as linhas serão escritas (ex: Writer de arquivo, StringBuilder)
+     * @throws IOException em caso de erro ao escrever no destino
+     */
+    public void escreverBonusFormatado(Locale locale, Appendable destino) throws IOException {
+        escreverBonusFormatado(locale, destino, linhas -> true);
+    }
+
+    /**
+     * Como {@link #escreverBonusFormatado(Locale, Appendable)}, avisando o progresso
+     * a cada {@value #INTERVALO_PROGRESSO} linhas e ao final.
+     *
+     * @return true se o relatório foi escrito inteiro, false se o progresso pediu a interrupção
+     * @throws IOException em caso de erro ao escrever no destino
+     */
+    public boolean escreverBonusFormatado(Locale locale, Appendable destino, ProgressoRelatorio progresso)
+            throws IOException {
+        long inicio = System.nanoTime();
+        EventoRelatorio evento = new EventoRelatorio();
+        evento.begin();
+        String quebra = System.lineSeparator();
+        destino.append(TITULO_BONUS).append(quebra);
+        destino.append(SEPARADOR_BONUS).append(quebra);
+        NumberFormat moeda = formatoMoeda(locale);
+        StringBuilder linha = new StringBuilder(64);
+        long escritas = 0;
+        try (SnapshotFuncionarios snapshot = abrirSnapshot()) {
+            for (Iterator<SnapshotFuncionarios.Visivel> it = snapshot.visiveisPorNome(); it.hasNext(); ) {
+                SnapshotFuncionarios.Visivel v = it.next();
+                linha.setLength(0);
+                destino.append(formatarLinhaBonus(v.funcionario, v.qtdDependentes, moeda, linha)).append(quebra);
+                if (++escritas % INTERVALO_PROGRESSO == 0 && !progresso.continuar(escritas)) {
+                    terminarRelatorio(evento, "bonus", escritas, false, inicio);
+                    return false;
+                }
+            }
+        }
+        progresso.continuar(escritas); // já terminou: o retorno não importa mais
+        terminarRelatorio(evento, "bonus", escritas, true, inicio);
+        return true;
+    }
+
+    /**
+     * Como {@link #listarBonusFormatado(Locale)}, mas formatando as linhas em
+     * paralelo no pool informado (o paralelismo é o do pool). O resultado é
+     * idêntico ao da versão sequencial.
+     */
+    public List<String> listarBonusFormatado(Locale locale, ForkJoinPool pool) {
+        long inicio = System.nanoTime();
+        EventoRelatorio evento = new EventoRelatorio();
+        evento.begin();
+        String[] formatadas;
+        try (SnapshotFuncionarios snapshot = abrirSnapshot()) {
+            CursorNome[] chaves = snapshot.chaves();
+            formatadas = new String[chaves.length];
+            pool.invoke(new TrechosBonus(snapshot, chaves, 0, chaves.length, formatoMoeda(locale), null, formatadas));
+        }
+
+        List<String> linhas = new ArrayList<>(formatadas.length + 2);
+        linhas.add(TITULO_BONUS);
+        linhas.add(SEPARADOR_BONUS);
+        for (String l : formatadas) {
+            if (l != null) linhas.add(l); // null: chave que não existe na versão do snapshot
+        }
+        terminarRelatorio(evento, "bonusParalelo", linhas.size() - 2, true, inicio);
+        return linhas;
+    }
+
+    /**
+     * Versão paralela de {@link #escreverBonusFormatado(Locale, Appendable)}.
+     *
+     * @throws IOException em caso de erro ao escrever no destino
+     */
+    public void escreverBonusFormatado(Locale locale, Appendable destino, ForkJoinPool pool) throws IOException {
+        escreverBonusFormatado(locale, destino, linhas -> true, pool);
+    }
+
+    /**
+     * Como {@link #escreverBonusFormatado(Locale, Appendable, ProgressoRelatorio)},
+     * mas formatando as linhas em paralelo no pool informado.
+     *
+     * As chaves do índice por nome (lidas num snapshot) são divididas em trechos contíguos de
+     * {@value #LINHAS_POR_TRECHO} linhas; cada trecho é formatado no seu próprio
+     * buffer e os buffers são escritos no destino na ordem dos trechos, então a
+     * saída é byte a byte igual à sequencial. Os trechos são processados em
+     * ondas de {@value #LINHAS_POR_ONDA} linhas, e o progresso é avisado a cada onda.
+     *
+     * @return true se o relatório foi escrito inteiro, false se o progresso pediu a interrupção
+     * @throws IOException em caso de erro ao escrever no destino
+     */
+    public boolean escreverBonusFormatado(Locale locale, Appendable destino, ProgressoRelatorio progresso,
+                                          ForkJoinPool pool) throws IOException {
+        long inicio = System.nanoTime();
+        EventoRelatorio evento = new EventoRelatorio();
+        evento.begin();
+        String quebra = System.lineSeparator();
+        destino.append(TITULO_BONUS).append(quebra);
+        destino.append(SEPARADOR_BONUS).append(quebra);
+        NumberFormat moeda = formatoMoeda(locale);
+        long escritas = 0;
+        try (SnapshotFuncionarios snapshot = abrirSnapshot()) {
+            CursorNome[] chaves = snapshot.chaves();
+            for (int de = 0; de < chaves.length; de += LINHAS_POR_ONDA) {
+                int ate = Math.min(chaves.length, de + LINHAS_POR_ONDA);
+                TrechosBonus onda = new TrechosBonus(snapshot, chaves, de, ate, moeda, quebra, null);
+                pool.invoke(onda);
+                for (int i = 0; i < onda.buffers.length; i++) {
+                    destino.append(onda.buffers[i]);
+                    escritas += onda.linhas[i];
+                }
+                if (ate < chaves.length && !progresso.continuar(escritas)) {
+                    terminarRelatorio(evento, "bonusParalelo", escritas, false, inicio);
+                    return false;
+                }
+            }
+        }
+        progresso.continuar(escritas);
+        terminarRelatorio(evento, "bonusParalelo", escritas, true, inicio);
+        return true;
+    }
+
+    /**
+     * Formata as linhas das chaves [de, ate) dividindo o intervalo ao meio até
+     * trechos de {@value #LINHAS_POR_TRECHO} linhas. Cada trecho usa sua cópia
+     * do NumberFormat (que não é thread-safe) e grava num buffer próprio
+     * ({@code buffers}/{@code linhas}, por número do trecho) ou, quando
+     * {@code formatadas} não é null, direto na posição de cada chave.
+     * Nunca é serializada (ForkJoinTask só é Serializable por herança).
+     */
+    @SuppressWarnings("serial")
+    private final class TrechosBonus extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SnapshotFuncionarios snapshot;
+        private final CursorNome[] chaves;
+        private final int de;
+        private final int ate;
+        private final NumberFormat moeda;
+        private final String quebra;
+        private final String[] formatadas;
+        private final StringBuilder[] buffers;
+        private final long[] linhas;
+        private final int primeiro;
+        private final int ultimo; // exclusivo (em trechos)
+
+        TrechosBonus(SnapshotFuncionarios snapshot, CursorNome[] chaves, int de, int ate,
+                     NumberFormat moeda, String quebra, String[] formatadas) {
+            this.snapshot = snapshot;
+            this.chaves = chaves;
+            this.de = de;
+            this.ate = ate;
+            this.moeda = moeda;
+            this.quebra = quebra;
+            this.formatadas = formatadas;
+            int trechos = (ate - de + LINHAS_POR_TRECHO - 1) / LINHAS_POR_TRECHO;
+            this.buffers = formatadas == null ? new StringBuilder[trechos] : null;
+            this.linhas = formatadas == null ? new long[trechos] : null;
+            this.primeiro = 0;
+            this.ultimo = trechos;
+        }
+
+        private TrechosBonus(TrechosBonus pai, int primeiro, int ultimo) {
+            this.snapshot = pai.snapshot;
+            this.chaves = pai.chaves;
+            this.de = pai.de;
+            this.ate = pai.ate;
+            this.moeda = pai.moeda;
+            this.quebra = pai.quebra;
+            this.formatadas = pai.formatadas;
+            this.buffers = pai.buffers;
+            this.linhas = pai.linhas;
+            this.primeiro = primeiro;
+            this.ultimo = ultimo;
+        }
+
+        @Override
+        protected void compute() {
+            if (ultimo - primeiro > 1) {
+                int meio = (primeiro + ultimo) >>> 1;
+                invokeAll(new TrechosBonus(this, primeiro, meio), new TrechosBonus(this, meio, ultimo));
+                return;
+            }
+            if (ultimo == primeiro) return;
+            int ini = de + primeiro * LINHAS_POR_TRECHO;
+            int fim = Math.min(ate, ini + LINHAS_POR_TRECHO);
+            NumberFormat formato = (NumberFormat) moeda.clone();
+            StringBuilder buf = new StringBuilder(formatadas == null ? (fim - ini) * 64 : 64);
+            long qtd = 0;
+            for (int k = ini; k < fim; k++) {
+                SnapshotFuncionarios.Visivel v = snapshot.ler(chaves[k]);
+                if (v == null) continue; // não existe na versão do snapshot
+                if (formatadas != null) {
+                    buf.setLength(0);
+                    formatadas[k] = formatarLinhaBonus(v.funcionario, v.qtdDependentes, formato, buf).toString();
+                } else {
+                    formatarLinhaBonus(v.funcionario, v.qtdDependentes, formato, buf).append(quebra);
+                }
+                qtd++;
+            }
+            if (formatadas == null) {
+                buffers[primeiro] = buf;
+                linhas[primeiro] = qtd;
+            }
+        }
+    }
+
+    /**
+     * Retorna até {@code tamanho} funcionários em ordem de nome, a partir do cursor.
+     * Custa O(log n + tamanho), sem ordenar o cadastro.
+     *
+     * @param apos    posição de início ({@link CursorNome#inicio()} para a primeira página)
+     * @param tamanho quantidade máxima de funcionários na página
+     */
+    public Pagina<Funcionario> paginaPorNome(CursorNome apos, int tamanho) {
+        long inicio = System.nanoTime();
+        List<Funcionario> itens = new ArrayList<>(Math.min(tamanho, 1024));
+        CursorNome ultimo = null;
+        Iterator<Funcionario> it = ordenadosPorNome(apos);
+        while (itens.size() < tamanho && it.hasNext()) {
+            Funcionario f = it.next();
+            itens.add(f);
+            ultimo = chaveNome(f);
+        }
+        Pagina<Funcionario> pagina = new Pagina<>(itens, it.hasNext() ? ultimo : null);
+        metricas.registrar(Operacao.PAGINA, inicio);
+        return pagina;
+    }
+
+    /**
+     * Como {@link #paginaPorNome}, mas já com as linhas do relatório de bônus
+     * (sem o cabeçalho). Cada página é lida de um snapshot, a partir do
+     * cursor no índice por nome, e só as suas linhas são formatadas: custa
+     * O(log n + tamanho), sem gerar o relatório inteiro (o cache de
+     * {@link #listarBonusFormatado(Locale)} fica só para a lista completa).
+     */
+    public Pagina<String> paginaBonusFormatado(Locale locale, CursorNome apos, int tamanho) {
+        long inicio = System.nanoTime();
+        NumberFormat moeda = formatoMoeda(localeOuPadrao(locale));
+        Pagina<SnapshotFuncionarios.Visivel> visiveis;
+        try (SnapshotFuncionarios snapshot = abrirSnapshot()) {
+            visiveis = snapshot.paginaPorNome(apos, tamanho);
+        }
+        List<String> linhas = new ArrayList<>(visiveis.getItens().size());
+        StringBuilder linha = new StringBuilder(64);
+        for (SnapshotFuncionarios.Visivel v : visiveis.getItens()) {
+            linha.setLength(0);
+            linhas.add(formatarLinhaBonus(v.funcionario, v.qtdDependentes, moeda, linha).toString());
+        }
+        Pagina<String> pagina = new Pagina<>(linhas, visiveis.getProximo());
+        metricas.registrar(Operacao.PAGINA, inicio);
+        return pagina;
+    }
+
+    // ----- helpers do relatório -----
+
+    private void terminarRelatorio(EventoRelatorio evento, String relatorio, long linhas, boolean concluido, long inicio) {
+        metricas.registrar(Operacao.RELATORIO, inicio, concluido, 0);
+        evento.relatorio = relatorio;
+        evento.linhas = linhas;
+        evento.concluido = concluido;
+        evento.commit();
+    }
+
+    /**
+     * Percorre o índice por nome a partir do cursor, buscando cada funcionário
+     * no armazenamento (quem foi excluído no meio do caminho é pulado).
+     */
+    private Iterator<Funcionario> ordenadosPorNome(CursorNome apos) {
+        Iterator<CursorNome> chaves = (apos == null || apos.isInicio()
+                ? porNome : porNome.tailSet(apos, false)).iterator();
+        return new Iterator<Funcionario>() {
+            private Funcionario proximo = avancar();
+
+            private Funcionario avancar() {
+                while (chaves.hasNext()) {
+                    CursorNome chave = chaves.next();
+                    Funcionario f = armazenamento.buscar(chave.getCodigo());
+                    // a chave pode ser de uma versão anterior, mantida para snapshots abertos
+                    if (f != null && mesmaChave(chave, f)) return f;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return proximo != null;
+            }
+
+            @Override
+            public Funcionario next() {
+                if (proximo == null) throw new NoSuchElementException();
+                Funcionario f = proximo;
+                proximo = avancar();
+                return f;
+            }
+        };
+    }
+
+    // ----- snapshots -----
+
+    /**
+     * Abre uma visão consistente do cadastro na versão atual. Cadastros,
+     * exclusões e alterações de salário continuam normalmente enquanto ela
+     * estiver aberta; apenas guardam o estado anterior para que o snapshot
+     * possa desfazê-los. Deve ser fechado quando não for mais usado.
+     */
+    public SnapshotFuncionarios abrirSnapshot() {
+        long versao = versoes.abrir();
+        // Espera as escritas em andamento, que podem ter começado sem ver o snapshot
+        for (Object trava : travas) {
+            synchronized (trava) {
+                // só garante que quem tinha a trava terminou
+            }
+        }
+        return new SnapshotFuncionarios(armazenamento, porNome, versoes, versao,
+                () -> versoes.fechar(versao, this::removerDoIndice));
+    }
+
+    // Para o monitor JMX
+    int snapshotsAbertos() {
+        return versoes.getSnapshotsAbertos();
+    }
+
+    // Tira do índice a chave de um funcionário excluído, se ela não voltou a ser usada
+    private void removerDoIndice(CursorNome chave) {
+        synchronized (travaDe(chave.getCodigo())) {
+            Funcionario f = armazenamento.buscar(chave.getCodigo());
+            if (f == null || !mesmaChave(chave, f)) {
+                porNome.remove(chave);
+            }
+        }
+    }
+
+    // A chave é a do funcionário: mesmo código e mesmo nome exato (não basta diferir só em maiúsculas)
+    static boolean mesmaChave(CursorNome chave, Funcionario f) {
+        return chave.equals(chaveNome(f));
+    }
+
+    private int idCargo(String cargo) {
+        return cargos.id(cargo == null ? "" : cargo);
+    }
+
+    static CursorNome chaveNome(Funcionario f) {
+        return new CursorNome(f.getNome() == null ? "" : f.getNome(), f.getCodigo());
+    }
+
+    private static NumberFormat formatoMoeda(Locale locale) {
+        return NumberFormat.getCurrencyInstance(localeOuPadrao(locale));
+    }
+
+    private static Locale localeOuPadrao(Locale locale) {
+        return locale != null ? locale : Locale.getDefault();
+    }
+
+    private StringBuilder formatarLinhaBonus(Funcionario f, int qtd, NumberFormat moeda, StringBuilder linha) {
+        double bonus = calcBonus(f.getSalario(), qtd);
+        return linha.append("Nome: ").append(f.getNome())
+                .append("; Dependentes: ").append(qtd)
+                .append("; Bonus: ").append(moeda.format(bonus));
+    }
+
+    /**
+     * Exclui funcionário e todos os seus dependentes.
+     *
+     * @throws FuncInexistenteEx se o funcionário não estiver cadastrado
+     */
+    public void excluirFuncionario(int codigo) throws FuncInexistenteEx {
+        if (tentarExcluir(codigo) == ResultadoOperacao.INEXISTENTE) {
+            throw new FuncInexistenteEx(rastrearExcecoes);
+        }
+    }
+
+    /**
+     * Como {@link #excluirFuncionario}, mas informa funcionário inexistente no retorno.
+     *
+     * @return SUCESSO ou INEXISTENTE
+     */
+    public ResultadoOperacao tentarExcluir(int codigo) {
+        long inicio = metricas.inicioAmostrado();
+        ResultadoOperacao r = excluir(codigo);
+        metricas.registrarAmostrado(Operacao.EXCLUIR, inicio, r.isSucesso(), codigo);
+        return r;
+    }
+
+    private ResultadoOperacao excluir(int codigo) {
+        synchronized (travaDe(codigo)) {
+            long versao = versoes.versaoDaEscrita();
+            IndiceBusca b = busca;
+            // Dependentes só são montados se alguém for avisado, houver snapshot aberto ou índice de busca
+            List<Dependente> deps = ouvintes.isEmpty() && versao == 0 && b == null
+                    ? Collections.emptyList() : armazenamento.listarDependentes(codigo);
+            if (versao != 0) {
+                Funcionario antes = armazenamento.buscar(codigo);
+                if (antes == null) return ResultadoOperacao.INEXISTENTE;
+                versoes.guardar(versao, codigo, antes, deps);
+            }
+            int qtd = armazenamento.contarDependentes(codigo);
+            // Remove funcionário e dependentes associados de uma vez
+            Funcionario removido = armazenamento.remover(codigo);
+            if (removido == null) {
+                return ResultadoOperacao.INEXISTENTE;
+            }
+            agregados.remover(idCargo(removido.getCargo()), removido.getSalario(), qtd,
+                    calcBonus(removido.getSalario(), qtd));
+            if (versao == 0) {
+                porNome.remove(chaveNome(removido));
+            } else {
+                versoes.removerDoIndiceDepois(chaveNome(removido), versao); // snapshots abertos ainda o veem
+            }
+            if (relatorios.emUso()) relatorios.alterado(chaveNome(removido));
+            if (b != null) b.remover(removido, deps);
+            FluxoAlteracoes fl = fluxo;
+            if (fl != null) fl.publicar(TipoAlteracao.EXCLUSAO, removido, Double.NaN, qtd);
+            for (OuvinteFuncionarios o : ouvintes) {
+                o.aoExcluir(removido, deps);
+            }
+        }
+        return ResultadoOperacao.SUCESSO;
+    }
+
+    /**
+     * Altera o salário do funcionário identificado por código.
+     *
+     * @throws FuncInexistenteEx se o funcionário não estiver cadastrado
+     */
+    public void alterarSalario(int codigo, double novoSalario) throws FuncInexistenteEx {
+        if (tentarAlterarSalario(codigo, novoSalario) == ResultadoOperacao.INEXISTENTE) {
+            throw new FuncInexistenteEx(rastrearExcecoes);
+        }
+    }
+
+    /**
+     * Como {@link #alterarSalario}, mas informa funcionário inexistente no retorno.
+     *
+     * @return SUCESSO ou INEXISTENTE
+     */
+    public ResultadoOperacao tentarAlterarSalario(int codigo, double novoSalario) {
+        long inicio = metricas.inicioAmostrado();
+        ResultadoOperacao r = alterar(codigo, novoSalario);
+        metricas.registrarAmostrado(Operacao.ALTERAR_SALARIO, inicio, r.isSucesso(), codigo);
+        return r;
+    }
+
+    private ResultadoOperacao alterar(int codigo, double novoSalario) {
+        synchronized (travaDe(codigo)) {
+            long versao = versoes.versaoDaEscrita();
+            if (versao != 0) {
+                Funcionario antes = armazenamento.buscar(codigo);
+                if (antes == null) return ResultadoOperacao.INEXISTENTE;
+                versoes.guardar(versao, codigo, antes, armazenamento.listarDependentes(codigo));
+            }
+            double anterior = armazenamento.alterarSalario(codigo, novoSalario);
+            if (Double.isNaN(anterior)) {
+                return ResultadoOperacao.INEXISTENTE;
+            }
+            Funcionario f = armazenamento.buscar(codigo);
+            int qtd = armazenamento.contarDependentes(codigo);
+            agregados.alterarSalario(idCargo(f.getCargo()), novoSalario - anterior,
+                    calcBonus(novoSalario, qtd) - calcBonus(anterior, qtd));
+            if (relatorios.emUso()) relatorios.alterado(chaveNome(f));
+            IndiceBusca b = busca;
+            if (b != null) b.alterarSalario(codigo, anterior, novoSalario);
+            FluxoAlteracoes fl = fluxo;
+            if (fl != null) fl.publicar(TipoAlteracao.ALTERACAO_SALARIO, f, anterior, qtd);
+            for (OuvinteFuncionarios o : ouvintes) {
+                o.aoAlterarSalario(f, anterior);
+            }
+        }
+        return ResultadoOperacao.SUCESSO;
+    }
+
+    /**
+     * Aplica o reajuste a todos os funcionários aceitos pelo filtro, numa
+     * única varredura do armazenamento (em paralelo) em vez de uma busca por
+     * funcionário. O lote é atômico: segura todas as travas do serviço, então
+     * nenhuma outra alteração se intercala com ele e um snapshot vê o cadastro
+     * inteiro antes ou inteiro depois do reajuste. Os totais da folha são
+     * atualizados uma vez por cargo ao final; os ouvintes recebem um
+     * aoAlterarSalario, e o fluxo de alterações um evento, por funcionário alterado.
+     *
+     * @return quantidade de funcionários com salário alterado
+     */
+    public long reajustarSalarios(FiltroFuncionarios filtro, Reajuste reajuste) {
+        return reajustarSalarios(filtro, reajuste, PoolReajuste.POOL);
+    }
+
+    /**
+     * Como {@link #reajustarSalarios(FiltroFuncionarios, Reajuste)}, com a
+     * varredura no pool informado. Não use um pool cujas threads possam estar
+     * esperando as travas do serviço (como as tarefas de
+     * {@link #cadastrarEmLote} no pool comum): o lote segura essas travas e as
+     * suas tarefas nunca rodariam.
+     */
+    public long reajustarSalarios(FiltroFuncionarios filtro, Reajuste reajuste, ForkJoinPool pool) {
+        Objects.requireNonNull(filtro, "Filtro não pode ser null");
+        Objects.requireNonNull(reajuste, "Reajuste não pode ser null");
+        Objects.requireNonNull(pool, "Pool não pode ser null");
+        long inicio = System.nanoTime();
+        long alterados = comTodasAsTravas(0, () -> reajustar(filtro, reajuste, pool));
+        metricas.registrar(Operacao.REAJUSTAR_LOTE, inicio);
+        return alterados;
+    }
+
+    // Chamado com todas as travas: nada muda no cadastro durante o reajuste
+    private long reajustar(FiltroFuncionarios filtro, Reajuste reajuste, ForkJoinPool pool) {
+        long versao = versoes.versaoDaEscrita();
+        if (versao != 0) {
+            // Snapshots abertos: o estado anterior é guardado antes de alterar (todo o lote na mesma versão)
+            for (Funcionario f : armazenamento) {
+                int codigo = f.getCodigo();
+                if (filtro.aceita(f.getCargo(), f.getSalario(), armazenamento.contarDependentes(codigo))
+                        && reajuste.aplicar(f.getSalario()) != f.getSalario()) {
+                    versoes.guardar(versao, codigo, f, armazenamento.listarDependentes(codigo));
+                }
+            }
+        }
+
+        // Cada tarefa da varredura soma as diferenças do seu trecho; os totais são atualizados no final
+        boolean avisar = !ouvintes.isEmpty();
+        IndiceBusca b = busca;
+        FluxoAlteracoes fl = fluxo;
+        boolean guardarAlterados = avisar || b != null || fl != null;
+        int qtdCargos = cargos.tamanho();
+        Queue<SomaReajuste> somas = new ConcurrentLinkedQueue<>();
+        long alterados = pool.submit(() -> armazenamento.ajustarSalarios(() -> {
+            SomaReajuste soma = new SomaReajuste(qtdCargos);
+            somas.add(soma);
+            return (codigo, cargo, salario, qtd) -> {
+                if (!filtro.aceita(cargo, salario, qtd)) return Double.NaN;
+                double novo = reajuste.aplicar(salario);
+                if (novo == salario) return Double.NaN;
+                soma.somar(idCargo(cargo), novo - salario, calcBonus(novo, qtd) - calcBonus(salario, qtd),
+                        guardarAlterados, codigo, salario);
+                return novo;
+            };
+        })).join();
+
+        relatorios.invalidar();
+        for (SomaReajuste soma : somas) {
+            for (int id = 0; id < soma.salarios.length; id++) {
+                if (soma.salarios[id] != 0 || soma.bonus[id] != 0) {
+                    agregados.alterarSalario(id, soma.salarios[id], soma.bonus[id]);
+                }
+            }
+            for (int i = 0; i < soma.qtdAvisos; i++) {
+                int codigo = soma.codigos[i];
+                double anterior = soma.anteriores[i];
+                if (b != null) b.alterarSalario(codigo, anterior, reajuste.aplicar(anterior));
+                if (!avisar && fl == null) continue;
+                Funcionario f = armazenamento.buscar(codigo);
+                if (fl != null) {
+                    fl.publicar(TipoAlteracao.ALTERACAO_SALARIO, f, anterior, armazenamento.contarDependentes(codigo));
+                }
+                for (OuvinteFuncionarios o : ouvintes) {
+                    o.aoAlterarSalario(f, anterior);
+                }
+            }
+        }
+        return alterados;
+    }
+
+    /**
+     * Pool da varredura do reajuste em lote, criado no primeiro reajuste. É
+     * separado do pool comum, onde tarefas de cadastrarEmLote podem estar
+     * esperando as travas que o lote segura; as threads dele são daemon e
+     * terminam quando ficam ociosas.
+     */
+    private static final class PoolReajuste {
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Diferenças de salário e bônus por id de cargo acumuladas por uma tarefa
+     * do reajuste, e os funcionários alterados (só se houver ouvintes, índice de busca ou fluxo de alterações).
+     */
+    private static final class SomaReajuste {
+        double[] salarios;
+        double[] bonus;
+        int[] codigos = new int[0];
+        double[] anteriores = new double[0];
+        int qtdAvisos;
+
+        SomaReajuste(int qtdCargos) {
+            salarios = new double[Math.max(16, qtdCargos)];
+            bonus = new double[salarios.length];
+        }
+
+        void somar(int idCargo, double diferencaSalario, double diferencaBonus,
+                   boolean avisar, int codigo, double anterior) {
+            if (idCargo >= salarios.length) {
+                salarios = Arrays.copyOf(salarios, Math.max(salarios.length * 2, idCargo + 1));
+                bonus = Arrays.copyOf(bonus, salarios.length);
+            }
+            salarios[idCargo] += diferencaSalario;
+            bonus[idCargo] += diferencaBonus;
+            if (avisar) {
+                if (qtdAvisos == codigos.length) {
+                    codigos = Arrays.copyOf(codigos, Math.max(16, qtdAvisos * 2));
+                    anteriores = Arrays.copyOf(anteriores, codigos.length);
+                }
+                codigos[qtdAvisos] = codigo;
+                anteriores[qtdAvisos++] = anterior;
+            }
+        }
+    }
+
+    // Adquire as travas em ordem crescente (quem usa uma só trava não entra em deadlock com isso)
+    private <T> T comTodasAsTravas(int i, Supplier<T> acao) {
+        if (i == travas.length) return acao.get();
+        synchronized (travas[i]) {
+            return comTodasAsTravas(i + 1, acao);
+        }
+    }
+
+    // ----- busca -----
+
+    /**
+     * Funcionários aceitos pela consulta, em ordem de código, até o limite dela.
+     * Com os índices ligados ({@link #setIndiceBusca}) só os candidatos do
+     * critério mais seletivo são lidos: o trigrama mais raro do trecho de nome
+     * ou de dependente, ou as faixas de salário. Sem índice, ou com trechos de
+     * menos de 3 letras e sem faixa de salário, o cadastro é varrido. Cada
+     * funcionário é conferido no estado atual; alterações feitas durante a
+     * busca podem ou não aparecer no resultado.
+     */
+    public List<Funcionario> buscarFuncionarios(ConsultaFuncionarios consulta) {
+        Objects.requireNonNull(consulta, "Consulta não pode ser null");
+        long inicio = System.nanoTime();
+        IndiceBusca b = busca;
+        int[] candidatos = b == null ? null : b.candidatos(consulta);
+        List<Funcionario> resultado = candidatos != null
+                ? conferir(consulta, candidatos) : varrer(consulta);
+        metricas.registrar(Operacao.BUSCAR, inicio);
+        return resultado;
+    }
+
+    private List<Funcionario> conferir(ConsultaFuncionarios consulta, int[] candidatos) {
+        int limite = consulta.getLimite();
+        List<Funcionario> resultado = new ArrayList<>(Math.min(candidatos.length, Math.min(limite, 1024)));
+        if (candidatos.length == 0 || limite == 0) return resultado;
+        int menor = Integer.MAX_VALUE;
+        int maior = Integer.MIN_VALUE;
+        for (int c : candidatos) {
+            menor = Math.min(menor, c);
+            maior = Math.max(maior, c);
+        }
+        if ((long) maior - menor < 64L * candidatos.length) {
+            // Códigos próximos (o comum): um bit por código ordena e tira repetidos em O(n)
+            BitSet marcados = new BitSet(maior - menor + 1);
+            for (int c : candidatos) marcados.set(c - menor);
+            for (int i = marcados.nextSetBit(0); i >= 0 && resultado.size() < limite; i = marcados.nextSetBit(i + 1)) {
+                conferir(consulta, menor + i, resultado);
+            }
+        } else {
+            Arrays.sort(candidatos);
+            for (int i = 0; i < candidatos.length && resultado.size() < limite; i++) {
+                if (i == 0 || candidatos[i] != candidatos[i - 1]) conferir(consulta, candidatos[i], resultado);
+            }
+        }
+        return resultado;
+    }
+
+    private void conferir(ConsultaFuncionarios consulta, int codigo, List<Funcionario> resultado) {
+        Funcionario f = armazenamento.buscar(codigo);
+        if (f != null && aceita(consulta, f)) resultado.add(f);
+    }
+
+    private List<Funcionario> varrer(ConsultaFuncionarios consulta) {
+        List<Funcionario> resultado = new ArrayList<>();
+        for (Funcionario f : armazenamento) {
+            if (aceita(consulta, f)) resultado.add(f);
+        }
+        resultado.sort(Comparator.comparingInt(Funcionario::getCodigo));
+        return resultado.size() <= consulta.getLimite() ? resultado
+                : new ArrayList<>(resultado.subList(0, consulta.getLimite()));
+    }
+
+    private boolean aceita(ConsultaFuncionarios consulta, Funcionario f) {
+        return consulta.aceitaSalario(f.getSalario()) && consulta.aceitaNome(f.getNome())
+                && (consulta.getDependente() == null
+                    || consulta.aceitaDependentes(armazenamento.listarDependentes(f.getCodigo())));
+    }
+
+    // ----- totais da folha -----
+
+    /**
+     * Totais de todos os funcionários (mantidos a cada alteração, sem recalcular).
+     */
+    public ResumoFolha resumoFolha() {
+        long inicio = metricas.inicioAmostrado();
+        ResumoFolha resumo = agregados.resumo();
+        metricas.registrarAmostrado(Operacao.RESUMO, inicio, true, 0);
+        return resumo;
+    }
+
+    /**
+     * Totais dos funcionários de um cargo.
+     */
+    public ResumoFolha resumoFolha(String cargo) {
+        long inicio = metricas.inicioAmostrado();
+        ResumoFolha resumo = agregados.resumo(cargo);
+        metricas.registrarAmostrado(Operacao.RESUMO, inicio, true, 0);
+        return resumo;
+    }
+
+    /**
+     * Totais por cargo (apenas cargos com funcionários), em ordem alfabética.
+     */
+    public Map<String, ResumoFolha> resumoFolhaPorCargo() {
+        long inicio = System.nanoTime();
+        Map<String, ResumoFolha> resumos = agregados.resumoPorCargo();
+        metricas.registrar(Operacao.RESUMO, inicio);
+        return resumos;
+    }
+
+    /**
+     * Quantidade de funcionários por cargo (apenas cargos com funcionários), em
+     * ordem alfabética. A contagem é feita pelos ids dos cargos; os textos só
+     * aparecem na montagem do resultado.
+     */
+    public Map<String, Long> quantidadePorCargo() {
+        long inicio = System.nanoTime();
+        long[] porId = agregados.quantidadePorIdCargo();
+        Map<String, Long> r = new TreeMap<>();
+        for (int id = 0; id < porId.length; id++) {
+            if (porId[id] > 0) r.put(cargos.texto(id), porId[id]);
+        }
+        metricas.registrar(Operacao.RESUMO, inicio);
+        return r;
+    }
+
+    /**
+     * Total de bônus por cargo (apenas cargos com funcionários), em ordem alfabética.
+     */
+    public Map<String, Double> bonusTotalPorCargo() {
+        long inicio = System.nanoTime();
+        long[] quantidades = agregados.quantidadePorIdCargo();
+        double[] porId = agregados.bonusPorIdCargo();
+        Map<String, Double> r = new TreeMap<>();
+        for (int id = 0; id < Math.min(quantidades.length, porId.length); id++) {
+            if (quantidades[id] > 0) r.put(cargos.texto(id), porId[id]);
+        }
+        metricas.registrar(Operacao.RESUMO, inicio);
+        return r;
+    }
+
+    // Para o monitor JMX: as leituras dele não entram nas métricas de RESUMO
+    ResumoFolha resumoSemMetricas() {
+        return agregados.resumo();
+    }
+
+    /**
+     * Recalcula todos os totais a partir dos dados e compara com os mantidos
+     * incrementalmente. Deve ser chamado sem alterações em andamento.
+     * Usado pelos testes (mesmo pacote).
+     *
+     * @return divergências encontradas (vazia se tudo confere)
+     */
+    List<String> verificarAgregados() {
+        long inicio = System.nanoTime();
+        double[][] esperado = new double[Math.max(16, cargos.tamanho())][]; // por id: [funcionarios, dependentes, salarios, bonus]
+        double[] geral = new double[4];
+        for (Funcionario f : armazenamento) {
+            int qtd = armazenamento.contarDependentes(f.getCodigo());
+            double bonus = calcBonus(f.getSalario(), qtd);
+            int id = idCargo(f.getCargo());
+            if (id >= esperado.length) esperado = Arrays.copyOf(esperado, Math.max(esperado.length * 2, id + 1));
+            if (esperado[id] == null) esperado[id] = new double[4];
+            for (double[] t : new double[][]{geral, esperado[id]}) {
+                t[0]++;
+                t[1] += qtd;
+                t[2] += f.getSalario();
+                t[3] += bonus;
+            }
+        }
+
+        List<String> divergencias = new ArrayList<>();
+        comparar("geral", geral, agregados.resumo(), divergencias);
+        for (int id = 0; id < esperado.length; id++) {
+            if (esperado[id] != null) {
+                comparar("cargo " + cargos.texto(id), esperado[id], agregados.resumo(id), divergencias);
+            }
+        }
+        long[] mantidos = agregados.quantidadePorIdCargo();
+        for (int id = 0; id < mantidos.length; id++) {
+            if (mantidos[id] > 0 && (id >= esperado.length || esperado[id] == null)) {
+                divergencias.add("cargo " + cargos.texto(id) + ": sem funcionários, mas com totais mantidos");
+            }
+        }
+        metricas.registrar(Operacao.VERIFICAR_AGREGADOS, inicio, divergencias.isEmpty(), 0);
+        return divergencias;
+    }
+
+    private static void comparar(String nome, double[] esperado, ResumoFolha atual, List<String> divergencias) {
+        if (esperado[0] != atual.getQuantidadeFuncionarios() || esperado[1] != atual.getQuantidadeDependentes()
+                || !quaseIgual(esperado[2], atual.getTotalSalarios()) || !quaseIgual(esperado[3], atual.getTotalBonus())) {
+            divergencias.add(nome + ": esperado funcionarios=" + (long) esperado[0] + ", dependentes=" + (long) esperado[1]
+                    + ", salarios=" + esperado[2] + ", bonus=" + esperado[3] + "; mantido " + atual);
+        }
+    }
+
+    // Somas em double acumulam erro de arredondamento diferente conforme a ordem
+    private static boolean quaseIgual(double a, double b) {
+        return Math.abs(a - b) <= 1e-6 * Math.max(1.0, Math.max(Math.abs(a), Math.abs(b)));
+    }
+
+    /**
+     * Quantidade de funcionários cadastrados, sem percorrer o cadastro (com
+     * escritas em andamento é aproximada).
+     */
+    public int quantidadeFuncionarios() {
+        return armazenamento.tamanho();
+    }
+
+    /**
+     * Visão não modificável dos funcionários, percorrida sob demanda: cada
+     * funcionário é uma cópia e o iterador é fracamente consistente.
+     */
+    public Collection<Funcionario> listarFuncionarios() {
+        return new AbstractCollection<Funcionario>() {
+            @Override
+            public Iterator<Funcionario> iterator() {
+                return armazenamento.iterator();
+            }
+
+            @Override
+            public int size() {
+                return armazenamento.tamanho();
+            }
+        };
+    }
+
+    private Object travaDe(int codigo) {
+        // espalha códigos sequenciais entre as travas
+        return travas[EnderecamentoAberto.espalhar(codigo) & (NUM_TRAVAS - 1)];
+    }
+}
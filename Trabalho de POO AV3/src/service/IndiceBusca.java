@@ -0,0 +1,213 @@
+package service;
+
+import model.Dependente;
+import model.Funcionario;
+import util.ConjuntoInteiros;
+import util.MapaInteiros;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índices de {@link FuncionarioService#buscarFuncionarios}:
+ * <ul>
+ *   <li>trigramas (trechos de 3 letras) do nome de cada funcionário e de cada
+ *       dependente, apontando para os códigos dos funcionários;</li>
+ *   <li>faixas de salário de largura {@value #LARGURA_FAIXA}, em ordem, com os
+ *       códigos de cada faixa, e a faixa de cada código.</li>
+ * </ul>
+ * A consulta parte do critério com menos códigos e descarta pelo outro
+ * (faixa do código ou conjunto do trigrama) antes de ler o cadastro.
+ * O serviço atualiza os índices dentro da trava do código. Eles podem ter
+ * códigos a mais (ex: durante a construção), nunca a menos: cada candidato
+ * é conferido no cadastro antes de entrar no resultado.
+ */
+final class IndiceBusca {
+    static final double LARGURA_FAIXA = 100.0;
+
+    // Acentos mais comuns do Latin-1 (a partir de U+00C0) e a letra sem acento
+    private static final String COM_ACENTO = "àáâãäåçèéêëìíîïñòóôõöùúûüýÿ";
+    private static final String SEM_ACENTO = "aaaaaaceeeeiiiinooooouuuuyy";
+
+    // Pontas do mapa faixaDe: faixa desconhecida (ver chaveFaixaInt)
+    private static final int FAIXA_INCERTA = Integer.MIN_VALUE;
+    private static final int FAIXA_INCERTA_ALTA = Integer.MAX_VALUE;
+
+    private static final ConjuntoInteiros NENHUM = new ConjuntoInteiros(); // trecho que nenhum nome tem
+
+    private final ConcurrentHashMap<Long, ConjuntoInteiros> nomes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, ConjuntoInteiros> dependentes = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, ConjuntoInteiros> salarios = new ConcurrentSkipListMap<>();
+    private final MapaInteiros faixaDe = new MapaInteiros();
+
+    void adicionar(Funcionario f, List<Dependente> deps) {
+        int codigo = f.getCodigo();
+        indexar(nomes, f.getNome(), codigo, true);
+        for (Dependente d : deps) {
+            indexar(dependentes, d.getNome(), codigo, true);
+        }
+        faixa(f.getSalario()).adicionar(codigo);
+        faixaDe.colocar(codigo, chaveFaixaInt(f.getSalario()));
+    }
+
+    void remover(Funcionario f, List<Dependente> deps) {
+        int codigo = f.getCodigo();
+        indexar(nomes, f.getNome(), codigo, false);
+        for (Dependente d : deps) {
+            indexar(dependentes, d.getNome(), codigo, false);
+        }
+        faixa(f.getSalario()).remover(codigo);
+        faixaDe.remover(codigo);
+    }
+
+    void alterarSalario(int codigo, double anterior, double novo) {
+        long de = chaveFaixa(anterior);
+        long para = chaveFaixa(novo);
+        if (de != para) {
+            // Entra na nova antes de sair da antiga: uma busca em andamento o encontra em alguma das duas
+            faixa(novo).adicionar(codigo);
+            faixa(anterior).remover(codigo);
+            faixaDe.colocar(codigo, chaveFaixaInt(novo));
+        }
+    }
+
+    /**
+     * Escolhe o critério da consulta com menos candidatos: o trigrama mais raro
+     * de um dos trechos ou a soma das faixas de salário.
+     *
+     * @return códigos candidatos (podem repetir), ou null se nenhum critério
+     * usa índice (trechos com menos de 3 letras e sem faixa de salário)
+     */
+    int[] candidatos(ConsultaFuncionarios consulta) {
+        ConjuntoInteiros menor = menor(maisRaro(nomes, consulta.getNome()), maisRaro(dependentes, consulta.getDependente()));
+        if (menor == NENHUM) return new int[0];
+        if (!consulta.temFaixaSalario()) return menor == null ? null : menor.copiar();
+
+        long primeira = chaveFaixa(consulta.getSalarioMinimo());
+        long ultima = chaveFaixa(consulta.getSalarioMaximo());
+        Map<Long, ConjuntoInteiros> faixas = salarios.subMap(primeira, true, ultima, true);
+        long total = 0;
+        for (ConjuntoInteiros c : faixas.values()) {
+            total += c.tamanho();
+            if (menor != null && total >= menor.tamanho()) {
+                // Menos códigos com o trigrama: descarta os de fora das faixas
+                int[] codigos = menor.copiar();
+                int n = 0;
+                for (int codigo : codigos) {
+                    int f = faixaDe.obter(codigo, FAIXA_INCERTA);
+                    if (f == FAIXA_INCERTA || f == FAIXA_INCERTA_ALTA || (f >= primeira && f <= ultima)) {
+                        codigos[n++] = codigo;
+                    }
+                }
+                return Arrays.copyOf(codigos, n);
+            }
+        }
+        int[] codigos = new int[(int) total];
+        int n = 0;
+        for (ConjuntoInteiros c : faixas.values()) {
+            int[] parte = c.copiar();
+            if (n + parte.length > codigos.length) codigos = Arrays.copyOf(codigos, n + parte.length); // cresceu depois da contagem
+            for (int codigo : parte) {
+                if (menor == null || menor.contem(codigo)) codigos[n++] = codigo;
+            }
+        }
+        return n == codigos.length ? codigos : Arrays.copyOf(codigos, n);
+    }
+
+    /**
+     * @return o conjunto do trigrama mais raro do trecho, {@link #NENHUM} se
+     * algum trigrama não aparece em nenhum nome, ou null se o trecho não tem 3 letras
+     */
+    private static ConjuntoInteiros maisRaro(Map<Long, ConjuntoInteiros> indice, String trecho) {
+        if (trecho == null) return null;
+        ConjuntoInteiros menor = null;
+        for (int i = 0; i + 3 <= trecho.length(); i++) {
+            ConjuntoInteiros c = indice.get(trigrama(trecho, i));
+            if (c == null) return NENHUM;
+            menor = menor(menor, c);
+        }
+        return menor;
+    }
+
+    private static ConjuntoInteiros menor(ConjuntoInteiros a, ConjuntoInteiros b) {
+        if (a == null || a == NENHUM) return a == null ? b : a;
+        if (b == null || b == NENHUM) return b == null ? a : b;
+        return b.tamanho() < a.tamanho() ? b : a;
+    }
+
+    /**
+     * Minúsculas e sem os acentos mais comuns, para comparar trechos de nomes.
+     */
+    static String normalizar(String texto) {
+        if (texto == null) return "";
+        char[] c = null;
+        for (int i = 0; i < texto.length(); i++) {
+            char original = texto.charAt(i);
+            char n = normalizar(original);
+            if (n != original) {
+                if (c == null) c = texto.toCharArray();
+                c[i] = n;
+            }
+        }
+        return c == null ? texto : new String(c);
+    }
+
+    /**
+     * @return true se o texto, normalizado, contém o trecho (já normalizado); sem criar Strings
+     */
+    static boolean contem(String texto, String trecho) {
+        if (texto == null) return trecho.isEmpty();
+        int fim = texto.length() - trecho.length();
+        for (int i = 0; i <= fim; i++) {
+            int j = 0;
+            while (j < trecho.length() && normalizar(texto.charAt(i + j)) == trecho.charAt(j)) j++;
+            if (j == trecho.length()) return true;
+        }
+        return false;
+    }
+
+    private static char normalizar(char c) {
+        if (c < 128) return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+        char minuscula = Character.toLowerCase(c);
+        int i = COM_ACENTO.indexOf(minuscula);
+        return i >= 0 ? SEM_ACENTO.charAt(i) : minuscula;
+    }
+
+    private static void indexar(Map<Long, ConjuntoInteiros> indice, String texto, int codigo, boolean adicionar) {
+        String n = normalizar(texto);
+        for (int i = 0; i + 3 <= n.length(); i++) {
+            Long t = trigrama(n, i);
+            if (adicionar) {
+                indice.computeIfAbsent(t, k -> new ConjuntoInteiros()).adicionar(codigo);
+            } else {
+                ConjuntoInteiros c = indice.get(t);
+                if (c != null) c.remover(codigo);
+            }
+        }
+    }
+
+    private static long trigrama(String normalizado, int i) {
+        return (long) normalizado.charAt(i) << 32 | (long) normalizado.charAt(i + 1) << 16 | normalizado.charAt(i + 2);
+    }
+
+    private ConjuntoInteiros faixa(double salario) {
+        return salarios.computeIfAbsent(chaveFaixa(salario), k -> new ConjuntoInteiros());
+    }
+
+    private static long chaveFaixa(double salario) {
+        return (long) Math.floor(salario / LARGURA_FAIXA);
+    }
+
+    /**
+     * Faixa como int para o mapa por código. As pontas do int (também usadas
+     * para salários fora do alcance dele e para códigos ainda sem faixa) não
+     * dizem a faixa exata: esses códigos continuam candidatos e o salário
+     * real decide na conferência do serviço.
+     */
+    private static int chaveFaixaInt(double salario) {
+        return (int) Math.max(FAIXA_INCERTA, Math.min(FAIXA_INCERTA_ALTA, chaveFaixa(salario)));
+    }
+}
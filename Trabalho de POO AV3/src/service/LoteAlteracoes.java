@@ -0,0 +1,77 @@
+package service;
+
+/**
+ * Lote de eventos entregue a um {@link ConsumidorAlteracoes}: o evento i
+ * é lido pelos métodos com o índice (0 a {@link #tamanho()} - 1).
+ * Os arrays são alocados uma vez por assinatura e reaproveitados.
+ */
+public final class LoteAlteracoes {
+    private static final TipoAlteracao[] TIPOS = TipoAlteracao.values();
+
+    final long[] sequencias;
+    final byte[] tipos;
+    final int[] codigos;
+    final String[] nomes;
+    final String[] cargos;
+    final double[] salarios;
+    final double[] anteriores;
+    final int[] qtdDependentes;
+    int tamanho;
+
+    LoteAlteracoes(int capacidade) {
+        sequencias = new long[capacidade];
+        tipos = new byte[capacidade];
+        codigos = new int[capacidade];
+        nomes = new String[capacidade];
+        cargos = new String[capacidade];
+        salarios = new double[capacidade];
+        anteriores = new double[capacidade];
+        qtdDependentes = new int[capacidade];
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Posição do evento no fluxo: cresce de 1 em 1; um salto indica eventos
+     * perdidos (ver {@link ConsumidorAlteracoes#aoPerder}).
+     */
+    public long sequencia(int i) {
+        return sequencias[i];
+    }
+
+    public TipoAlteracao tipo(int i) {
+        return TIPOS[tipos[i]];
+    }
+
+    public int codigo(int i) {
+        return codigos[i];
+    }
+
+    public String nome(int i) {
+        return nomes[i];
+    }
+
+    public String cargo(int i) {
+        return cargos[i];
+    }
+
+    /**
+     * Salário depois da alteração (na exclusão, o último salário).
+     */
+    public double salario(int i) {
+        return salarios[i];
+    }
+
+    /**
+     * Salário antes da alteração; NaN em cadastros e exclusões.
+     */
+    public double salarioAnterior(int i) {
+        return anteriores[i];
+    }
+
+    public int qtdDependentes(int i) {
+        return qtdDependentes[i];
+    }
+}
@@ -0,0 +1,106 @@
+package service;
+
+import metrics.EstatisticaOperacao;
+import metrics.MetricasServico;
+import util.FileUtil;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementação do MXBean: cada leitura de atributo consulta as métricas e
+ * os totais do serviço no momento (nada é copiado em segundo plano).
+ */
+public class MonitorFuncionarios implements MonitorFuncionariosMXBean {
+    private final FuncionarioService service;
+
+    public MonitorFuncionarios(FuncionarioService service) {
+        this.service = service;
+    }
+
+    /**
+     * Registra o monitor do serviço no servidor JMX da plataforma.
+     *
+     * @param nome identifica o serviço quando houver mais de um no processo
+     * @return nome JMX registrado (para remover com unregisterMBean)
+     * @throws JMException se o nome já estiver registrado ou for inválido
+     */
+    public static ObjectName publicar(FuncionarioService service, String nome) throws JMException {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("funcionarios:type=FuncionarioService,name=" + ObjectName.quote(nome));
+        servidor.registerMBean(new MonitorFuncionarios(service), objectName);
+        return objectName;
+    }
+
+    @Override
+    public long getFuncionarios() {
+        return service.resumoSemMetricas().getQuantidadeFuncionarios();
+    }
+
+    @Override
+    public long getDependentes() {
+        return service.resumoSemMetricas().getQuantidadeDependentes();
+    }
+
+    @Override
+    public double getTotalSalarios() {
+        return service.resumoSemMetricas().getTotalSalarios();
+    }
+
+    @Override
+    public double getTotalBonus() {
+        return service.resumoSemMetricas().getTotalBonus();
+    }
+
+    @Override
+    public int getSnapshotsAbertos() {
+        return service.snapshotsAbertos();
+    }
+
+    @Override
+    public Map<String, EstatisticaOperacao> getOperacoes() {
+        MetricasServico m = service.getMetricas();
+        Map<String, EstatisticaOperacao> operacoes = new LinkedHashMap<>();
+        for (MetricasServico.Operacao op : MetricasServico.Operacao.values()) {
+            operacoes.put(op.name(), EstatisticaOperacao.de(m.getLatencia(op), m.getChamadas(op), m.getFalhas(op),
+                    m.getTaxaPorSegundo(op)));
+        }
+        return operacoes;
+    }
+
+    @Override
+    public EstatisticaOperacao getEscritaArquivo() {
+        return EstatisticaOperacao.de(FileUtil.getLatenciaEscrita(), FileUtil.getLatenciaEscrita().getQuantidade(),
+                FileUtil.getFalhasEscrita(), 0);
+    }
+
+    @Override
+    public long getLimiteOperacaoLentaMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(service.getMetricas().getLimiteLentoNanos());
+    }
+
+    @Override
+    public void setLimiteOperacaoLentaMicros(long micros) {
+        service.getMetricas().setLimiteLentoNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+
+    @Override
+    public int getAmostragem() {
+        return service.getMetricas().getAmostragem();
+    }
+
+    @Override
+    public void setAmostragem(int umEm) {
+        service.getMetricas().setAmostragem(umEm);
+    }
+
+    @Override
+    public void zerarMetricas() {
+        service.getMetricas().zerar();
+    }
+}
@@ -0,0 +1,49 @@
+package service;
+
+import metrics.EstatisticaOperacao;
+
+import java.util.Map;
+
+/**
+ * Métricas do FuncionarioService publicadas via JMX (ex: no JConsole ou
+ * VisualVM, em "funcionarios:type=FuncionarioService").
+ */
+public interface MonitorFuncionariosMXBean {
+
+    long getFuncionarios();
+
+    long getDependentes();
+
+    double getTotalSalarios();
+
+    double getTotalBonus();
+
+    /**
+     * Snapshots abertos no momento (enquanto houver algum, as escritas guardam histórico).
+     */
+    int getSnapshotsAbertos();
+
+    /**
+     * Estatísticas de cada operação, pelo nome da operação.
+     */
+    Map<String, EstatisticaOperacao> getOperacoes();
+
+    /**
+     * Estatísticas das gravações de arquivo (FileUtil).
+     */
+    EstatisticaOperacao getEscritaArquivo();
+
+    long getLimiteOperacaoLentaMicros();
+
+    void setLimiteOperacaoLentaMicros(long micros);
+
+    /**
+     * Operações sobre um funcionário só são cronometradas em 1 a cada N chamadas
+     * (histograma e detecção de operação lenta); as chamadas são todas contadas.
+     */
+    int getAmostragem();
+
+    void setAmostragem(int umEm);
+
+    void zerarMetricas();
+}
@@ -0,0 +1,23 @@
+package service;
+
+import model.Dependente;
+import model.Funcionario;
+
+import java.util.List;
+
+/**
+ * Recebe avisos das alterações feitas no FuncionarioService.
+ * Os métodos são chamados já com a alteração aplicada, ainda dentro da trava
+ * do código afetado; por isso devem ser rápidos e seguros para várias threads.
+ */
+public interface OuvinteFuncionarios {
+
+    default void aoCadastrar(Funcionario f, List<Dependente> dependentes) {
+    }
+
+    default void aoExcluir(Funcionario f, List<Dependente> dependentes) {
+    }
+
+    default void aoAlterarSalario(Funcionario f, double salarioAnterior) {
+    }
+}
@@ -0,0 +1,31 @@
+package service;
+
+import java.util.List;
+
+/**
+ * Uma página de resultados e o cursor para buscar a seguinte.
+ */
+public class Pagina<T> {
+    private final List<T> itens;
+    private final CursorNome proximo;
+
+    public Pagina(List<T> itens, CursorNome proximo) {
+        this.itens = itens;
+        this.proximo = proximo;
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    /**
+     * @return cursor da próxima página, ou null se esta for a última
+     */
+    public CursorNome getProximo() {
+        return proximo;
+    }
+
+    public boolean temProxima() {
+        return proximo != null;
+    }
+}
@@ -0,0 +1,17 @@
+package service;
+
+/**
+ * Acompanha a escrita de um relatório longo, permitindo mostrar o andamento
+ * e interromper a geração no meio.
+ */
+@FunctionalInterface
+public interface ProgressoRelatorio {
+
+    /**
+     * Chamado periodicamente durante a escrita e uma última vez ao terminar.
+     *
+     * @param linhasEscritas funcionários já escritos (sem contar o cabeçalho)
+     * @return false para interromper a escrita
+     */
+    boolean continuar(long linhasEscritas);
+}
@@ -0,0 +1,47 @@
+package service;
+
+/**
+ * Mudança de salário aplicada por {@link FuncionarioService#reajustarSalarios}:
+ * um percentual sobre o salário atual ou um valor fixo somado a ele.
+ */
+public final class Reajuste {
+    private final boolean percentual;
+    private final double valor;
+
+    private Reajuste(boolean percentual, double valor) {
+        this.percentual = percentual;
+        this.valor = valor;
+    }
+
+    /**
+     * @param percentual ex: 5 para +5%, -10 para -10% (maior que -100)
+     */
+    public static Reajuste percentual(double percentual) {
+        if (!Double.isFinite(percentual) || percentual <= -100) {
+            throw new IllegalArgumentException("Percentual de reajuste inválido: " + percentual);
+        }
+        return new Reajuste(true, percentual);
+    }
+
+    /**
+     * @param valor somado ao salário atual (negativo para reduzir)
+     */
+    public static Reajuste valorFixo(double valor) {
+        if (!Double.isFinite(valor)) {
+            throw new IllegalArgumentException("Valor de reajuste inválido: " + valor);
+        }
+        return new Reajuste(false, valor);
+    }
+
+    /**
+     * @return o salário depois do reajuste
+     */
+    public double aplicar(double salario) {
+        return percentual ? salario + salario * valor / 100 : salario + valor;
+    }
+
+    @Override
+    public String toString() {
+        return percentual ? "Reajuste{" + valor + "%}" : "Reajuste{" + (valor >= 0 ? "+" : "") + valor + "}";
+    }
+}
@@ -0,0 +1,25 @@
+package service;
+
+/**
+ * Resultado das variantes "tentar..." do FuncionarioService, que informam
+ * código duplicado/inexistente sem lançar exceção.
+ */
+public enum ResultadoOperacao {
+    SUCESSO("Operação realizada"),
+    DUPLICADO("Funcionário já cadastrado"),
+    INEXISTENTE("Funcionário Inexistente");
+
+    private final String mensagem;
+
+    ResultadoOperacao(String mensagem) {
+        this.mensagem = mensagem;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public boolean isSucesso() {
+        return this == SUCESSO;
+    }
+}
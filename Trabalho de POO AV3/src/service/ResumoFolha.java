@@ -0,0 +1,45 @@
+package service;
+
+/**
+ * Totais da folha (de todos os funcionários ou de um cargo).
+ */
+public class ResumoFolha {
+    private final long quantidadeFuncionarios;
+    private final long quantidadeDependentes;
+    private final double totalSalarios;
+    private final double totalBonus;
+
+    public ResumoFolha(long quantidadeFuncionarios, long quantidadeDependentes, double totalSalarios, double totalBonus) {
+        this.quantidadeFuncionarios = quantidadeFuncionarios;
+        this.quantidadeDependentes = quantidadeDependentes;
+        this.totalSalarios = totalSalarios;
+        this.totalBonus = totalBonus;
+    }
+
+    // Getters
+    public long getQuantidadeFuncionarios() {
+        return quantidadeFuncionarios;
+    }
+
+    public long getQuantidadeDependentes() {
+        return quantidadeDependentes;
+    }
+
+    public double getTotalSalarios() {
+        return totalSalarios;
+    }
+
+    public double getTotalBonus() {
+        return totalBonus;
+    }
+
+    @Override
+    public String toString() {
+        return "ResumoFolha{" +
+                "funcionarios=" + quantidadeFuncionarios +
+                ", dependentes=" + quantidadeDependentes +
+                ", totalSalarios=" + totalSalarios +
+                ", totalBonus=" + totalBonus +
+                '}';
+    }
+}
@@ -0,0 +1,230 @@
+package service;
+
+import model.Dependente;
+import model.Funcionario;
+import storage.ArmazenamentoFuncionarios;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Visão consistente do cadastro numa versão fixa, obtida com
+ * {@link FuncionarioService#abrirSnapshot()}.
+ *
+ * Enquanto o snapshot está aberto o cadastro continua sendo alterado
+ * normalmente; as leituras feitas por ele ignoram tudo o que foi alterado
+ * depois da abertura. Os funcionários devolvidos são cópias.
+ * Deve ser fechado (try-with-resources) para liberar o histórico guardado.
+ */
+public final class SnapshotFuncionarios implements AutoCloseable {
+
+    /**
+     * Funcionário como era na versão do snapshot.
+     */
+    public static final class Visivel {
+        final Funcionario funcionario;
+        final int qtdDependentes;
+        final List<Dependente> dependentes; // null = iguais aos do armazenamento
+
+        Visivel(Funcionario funcionario, int qtdDependentes, List<Dependente> dependentes) {
+            this.funcionario = funcionario;
+            this.qtdDependentes = qtdDependentes;
+            this.dependentes = dependentes;
+        }
+
+        public Funcionario getFuncionario() {
+            return funcionario;
+        }
+
+        public int getQtdDependentes() {
+            return qtdDependentes;
+        }
+    }
+
+    private final ArmazenamentoFuncionarios armazenamento;
+    private final ConcurrentSkipListSet<CursorNome> porNome;
+    private final VersoesFuncionarios versoes;
+    private final long versao;
+    private final Runnable aoFechar;
+    private final AtomicBoolean fechado = new AtomicBoolean();
+
+    SnapshotFuncionarios(ArmazenamentoFuncionarios armazenamento, ConcurrentSkipListSet<CursorNome> porNome,
+                         VersoesFuncionarios versoes, long versao, Runnable aoFechar) {
+        this.armazenamento = armazenamento;
+        this.porNome = porNome;
+        this.versoes = versoes;
+        this.versao = versao;
+        this.aoFechar = aoFechar;
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    /**
+     * @return cópia do funcionário na versão do snapshot, ou null se ele não existia
+     */
+    public Funcionario buscar(int codigo) {
+        Visivel v = ler(codigo);
+        return v == null ? null : v.funcionario;
+    }
+
+    public int contarDependentes(int codigo) {
+        Visivel v = ler(codigo);
+        return v == null ? 0 : v.qtdDependentes;
+    }
+
+    /**
+     * @return dependentes do funcionário na versão do snapshot (lista vazia se não houver)
+     */
+    public List<Dependente> listarDependentes(int codigo) {
+        Visivel v = ler(codigo);
+        if (v == null) return Collections.emptyList();
+        List<Dependente> origem = v.dependentes != null ? v.dependentes : armazenamento.listarDependentes(codigo);
+        if (v.dependentes == null && origem.size() != v.qtdDependentes) {
+            // excluído e cadastrado de novo entre as duas leituras: o histórico tem a versão certa
+            return listarDependentes(codigo);
+        }
+        List<Dependente> deps = new ArrayList<>(origem.size());
+        for (Dependente d : origem) {
+            deps.add(new Dependente(v.funcionario, d.getNome()));
+        }
+        return deps;
+    }
+
+    /**
+     * Funcionários da versão do snapshot em ordem de nome.
+     */
+    public Iterable<Funcionario> ordenadosPorNome() {
+        return () -> {
+            Iterator<Visivel> it = visiveisPorNome();
+            return new Iterator<Funcionario>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Funcionario next() {
+                    return it.next().funcionario;
+                }
+            };
+        };
+    }
+
+    /**
+     * Até {@code tamanho} funcionários da versão do snapshot em ordem de nome,
+     * a partir do cursor, já com a quantidade de dependentes de cada um.
+     * Custa O(log n + tamanho).
+     *
+     * @param apos posição de início ({@link CursorNome#inicio()} para a primeira página)
+     */
+    public Pagina<Visivel> paginaPorNome(CursorNome apos, int tamanho) {
+        List<Visivel> itens = new ArrayList<>(Math.max(0, Math.min(tamanho, 1024)));
+        Iterator<Visivel> it = visiveisPorNome(apos);
+        while (itens.size() < tamanho && it.hasNext()) {
+            itens.add(it.next());
+        }
+        CursorNome ultimo = itens.isEmpty() ? null : FuncionarioService.chaveNome(itens.get(itens.size() - 1).funcionario);
+        return new Pagina<>(itens, it.hasNext() ? ultimo : null);
+    }
+
+    /**
+     * Percorre o índice por nome devolvendo só o que existe na versão do snapshot.
+     */
+    Iterator<Visivel> visiveisPorNome() {
+        return visiveisPorNome(null);
+    }
+
+    /**
+     * Como {@link #visiveisPorNome()}, a partir do cursor (exclusivo; null ou
+     * {@link CursorNome#inicio()} para começar do primeiro).
+     */
+    Iterator<Visivel> visiveisPorNome(CursorNome apos) {
+        Iterator<CursorNome> chaves = (apos == null || apos.isInicio()
+                ? porNome : porNome.tailSet(apos, false)).iterator();
+        return new Iterator<Visivel>() {
+            private Visivel proximo = avancar();
+
+            private Visivel avancar() {
+                while (chaves.hasNext()) {
+                    Visivel v = ler(chaves.next());
+                    if (v != null) return v;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return proximo != null;
+            }
+
+            @Override
+            public Visivel next() {
+                if (proximo == null) throw new NoSuchElementException();
+                Visivel v = proximo;
+                proximo = avancar();
+                return v;
+            }
+        };
+    }
+
+    /**
+     * Chaves do índice por nome; incluem todas as visíveis neste snapshot
+     * (e outras, que {@link #ler(CursorNome)} descarta).
+     */
+    CursorNome[] chaves() {
+        return porNome.toArray(new CursorNome[0]);
+    }
+
+    /**
+     * Lê o funcionário da chave, ou null se na versão do snapshot ele não
+     * existia ou tinha outro nome (chave de outra versão).
+     */
+    Visivel ler(CursorNome chave) {
+        Visivel v = ler(chave.getCodigo());
+        return v != null && FuncionarioService.mesmaChave(chave, v.funcionario) ? v : null;
+    }
+
+    Visivel ler(int codigo) {
+        // O estado atual é lido antes do histórico: a escrita guarda o estado
+        // anterior antes de alterar, então se a leitura pegou algo novo o
+        // histórico já tem como desfazer.
+        Funcionario atual = armazenamento.buscar(codigo);
+        Funcionario copia = null;
+        int qtd = 0;
+        if (atual != null) {
+            copia = new Funcionario(atual.getCodigo(), atual.getNome(), atual.getCargo(), atual.getSalario());
+            qtd = armazenamento.contarDependentes(codigo);
+        }
+        VersoesFuncionarios.Desfazer maisAntiga = null;
+        for (VersoesFuncionarios.Desfazer d = versoes.historico(codigo); d != null && d.versao > versao; d = d.anterior) {
+            maisAntiga = d;
+        }
+        if (maisAntiga != null) {
+            return maisAntiga.antes == null ? null
+                    : new Visivel(maisAntiga.antes, maisAntiga.dependentesAntes.size(), maisAntiga.dependentesAntes);
+        }
+        return copia == null ? null : new Visivel(copia, qtd, null);
+    }
+
+    /**
+     * @return true se o funcionário foi alterado depois da versão do snapshot
+     */
+    boolean alteradoDepois(int codigo) {
+        VersoesFuncionarios.Desfazer d = versoes.historico(codigo);
+        return d != null && d.versao > versao;
+    }
+
+    @Override
+    public void close() {
+        if (fechado.compareAndSet(false, true)) {
+            aoFechar.run();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package service;
+
+/**
+ * Tipo de cada evento do fluxo de alterações (ver {@link FuncionarioService#assinarAlteracoes}).
+ */
+public enum TipoAlteracao {
+    CADASTRO,
+    EXCLUSAO,
+    ALTERACAO_SALARIO
+}
@@ -0,0 +1,146 @@
+package service;
+
+import model.Dependente;
+import model.Funcionario;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Controle de versões para leituras isoladas (MVCC com log de desfazer).
+ *
+ * As escritas continuam alterando o armazenamento no lugar. Só enquanto há
+ * snapshot aberto cada escrita recebe uma versão e guarda, antes de alterar,
+ * uma cópia do estado anterior do funcionário no histórico do código (lista
+ * ligada, da alteração mais nova para a mais antiga). Um snapshot da
+ * versão V lê o estado atual e desfaz as alterações com versão maior que V.
+ * Sem snapshot aberto as escritas não pagam nada além de uma leitura volatile.
+ *
+ * Exclusões feitas com snapshot aberto não tiram a chave do índice por nome
+ * na hora: ela fica pendente até nenhum snapshot precisar mais dela.
+ */
+final class VersoesFuncionarios {
+
+    /**
+     * Estado de um funcionário antes de uma alteração.
+     */
+    static final class Desfazer {
+        final long versao;                     // versão da alteração desfeita
+        final Funcionario antes;               // cópia; null = não existia
+        final List<Dependente> dependentesAntes;
+        volatile Desfazer anterior;            // alteração mais antiga do mesmo código
+
+        Desfazer(long versao, Funcionario antes, List<Dependente> dependentesAntes, Desfazer anterior) {
+            this.versao = versao;
+            this.antes = antes;
+            this.dependentesAntes = dependentesAntes;
+            this.anterior = anterior;
+        }
+    }
+
+    private static final class RemocaoPendente {
+        final CursorNome chave;
+        final long versao;
+
+        RemocaoPendente(CursorNome chave, long versao) {
+            this.chave = chave;
+            this.versao = versao;
+        }
+    }
+
+    private final AtomicLong versao = new AtomicLong();
+    private volatile int abertos;                                    // lido pelos escritores
+    private final TreeMap<Long, Integer> ativos = new TreeMap<>();   // versão -> snapshots; protegido por this
+    private final ConcurrentHashMap<Integer, Desfazer> historico = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<RemocaoPendente> remocoes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Deve ser chamado com a trava do código, antes de alterar.
+     *
+     * @return a versão da escrita, ou 0 se não há snapshot aberto (nada a guardar)
+     */
+    long versaoDaEscrita() {
+        return abertos == 0 ? 0 : versao.incrementAndGet();
+    }
+
+    /**
+     * Guarda o estado anterior a uma escrita (com a trava do código).
+     */
+    void guardar(long versaoEscrita, int codigo, Funcionario antes, List<Dependente> dependentesAntes) {
+        Funcionario copia = antes == null ? null
+                : new Funcionario(antes.getCodigo(), antes.getNome(), antes.getCargo(), antes.getSalario());
+        historico.compute(codigo, (c, atual) -> new Desfazer(versaoEscrita, copia, dependentesAntes, atual));
+    }
+
+    /**
+     * Agenda a retirada da chave do índice por nome para quando nenhum
+     * snapshot anterior à exclusão estiver aberto.
+     */
+    void removerDoIndiceDepois(CursorNome chave, long versaoEscrita) {
+        remocoes.add(new RemocaoPendente(chave, versaoEscrita));
+    }
+
+    /**
+     * @return o histórico do código (alteração mais nova primeiro), ou null
+     */
+    Desfazer historico(int codigo) {
+        return historico.isEmpty() ? null : historico.get(codigo);
+    }
+
+    /**
+     * Registra um snapshot na versão atual. Quem chama ainda precisa esperar
+     * as escritas em andamento (que podem não ter visto o snapshot) terminarem.
+     */
+    synchronized long abrir() {
+        long v = versao.get();
+        ativos.merge(v, 1, Integer::sum);
+        abertos++;
+        return v;
+    }
+
+    /**
+     * Fecha um snapshot e descarta o histórico que nenhum snapshot aberto usa.
+     *
+     * @param removerDoIndice chamado para cada chave pendente que pode sair do índice
+     */
+    void fechar(long versaoSnapshot, Consumer<CursorNome> removerDoIndice) {
+        long minima;
+        synchronized (this) {
+            ativos.computeIfPresent(versaoSnapshot, (v, qtd) -> qtd == 1 ? null : qtd - 1);
+            abertos--;
+            minima = ativos.isEmpty() ? versao.get() : ativos.firstKey();
+            // Alterações com versão <= mínima já são vistas por todos os snapshots abertos
+            for (Map.Entry<Integer, Desfazer> e : historico.entrySet()) {
+                historico.computeIfPresent(e.getKey(), (c, d) -> podar(d, minima));
+            }
+        }
+        for (Iterator<RemocaoPendente> it = remocoes.iterator(); it.hasNext(); ) {
+            RemocaoPendente r = it.next();
+            if (r.versao <= minima) {
+                removerDoIndice.accept(r.chave);
+                it.remove();
+            }
+        }
+    }
+
+    int getSnapshotsAbertos() {
+        return abertos;
+    }
+
+    private static Desfazer podar(Desfazer d, long minima) {
+        if (d.versao <= minima) return null;
+        for (Desfazer x = d; x.anterior != null; x = x.anterior) {
+            if (x.anterior.versao <= minima) {
+                x.anterior = null;
+                break;
+            }
+        }
+        return d;
+    }
+}
@@ -0,0 +1,14 @@
+package storage;
+
+/**
+ * Calcula o novo salário de cada funcionário durante um reajuste em lote
+ * (ver {@link ArmazenamentoFuncionarios#ajustarSalarios}). Cada tarefa da
+ * varredura usa um ajuste próprio, que só é chamado por uma thread de cada vez.
+ */
+@FunctionalInterface
+public interface AjusteSalario {
+    /**
+     * @return o novo salário, ou {@code Double.NaN} para manter o atual
+     */
+    double novoSalario(int codigo, String cargo, double salario, int qtdDependentes);
+}
@@ -0,0 +1,228 @@
+package storage;
+
+import model.Dependente;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT_UNALIGNED;
+
+/**
+ * Textos fora do heap para o {@link ArmazenamentoForaDoHeap}: blocos de
+ * memória nativa onde cada texto (ou lista de textos) é anexado ao final e
+ * identificado pela sua posição (um long: número do bloco nos 32 bits altos,
+ * deslocamento nos baixos). Cada entrada é [int tamanho][conteúdo]; um texto
+ * é o UTF-8, uma lista é [int quantidade] seguido de [int tamanho][UTF-8] de
+ * cada texto. Os blocos crescem com o que está vivo na arena, de 64 KB a 4 MB.
+ *
+ * Entradas descartadas só são contadas. Quando o desperdício compensa
+ * ({@link #compensaCompactar()}) o dono sela os blocos atuais
+ * ({@link #selar()}), move aos poucos as entradas vivas para o fim
+ * ({@link #mover}) e então libera os blocos selados ({@link #liberarAte}).
+ * Cada bloco tem a sua Arena, fechada quando ele é liberado; os números dos
+ * blocos só crescem, mas só os vivos ficam guardados.
+ * Não é segura para várias threads: o armazenamento usa com a sua trava.
+ */
+final class ArenaTextos {
+    static final long NENHUM = -1; // texto null ou lista vazia
+
+    private static final int BLOCO_INICIAL = 1 << 16;  // 64 KB
+    private static final int BLOCO_MAXIMO = 1 << 22;   // 4 MB; uma entrada não atravessa blocos
+
+    // Blocos vivos: o de índice i tem o número primeiro + i
+    private MemorySegment[] blocos = new MemorySegment[8];
+    private Arena[] arenas = new Arena[8];
+    private int[] usadosNoBloco = new int[8];
+    private int[] descartadosNoBloco = new int[8];
+    private int qtdBlocos;
+    private int primeiro;
+    private int usadoNoUltimo;  // no último bloco (capacidade dele = ainda não há espaço)
+    private long bytesUsados;
+    private long bytesDescartados;
+    private long bytesAlocados;
+
+    long gravar(String texto) {
+        if (texto == null) return NENHUM;
+        byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+        long ref = reservar(utf8.length);
+        MemorySegment.copy(utf8, 0, bloco(ref), JAVA_BYTE, deslocamento(ref) + 4, utf8.length);
+        return ref;
+    }
+
+    long gravar(List<Dependente> dependentes) {
+        if (dependentes.isEmpty()) return NENHUM;
+        byte[][] nomes = new byte[dependentes.size()][];
+        int tamanho = 4;
+        for (int i = 0; i < nomes.length; i++) {
+            nomes[i] = dependentes.get(i).getNome().getBytes(StandardCharsets.UTF_8);
+            tamanho += 4 + nomes[i].length;
+        }
+        long ref = reservar(tamanho);
+        MemorySegment b = bloco(ref);
+        long p = deslocamento(ref) + 4;
+        b.set(JAVA_INT_UNALIGNED, p, nomes.length);
+        p += 4;
+        for (byte[] nome : nomes) {
+            b.set(JAVA_INT_UNALIGNED, p, nome.length);
+            MemorySegment.copy(nome, 0, b, JAVA_BYTE, p + 4, nome.length);
+            p += 4 + nome.length;
+        }
+        return ref;
+    }
+
+    String ler(long ref) {
+        if (ref == NENHUM) return null;
+        MemorySegment b = bloco(ref);
+        long p = deslocamento(ref);
+        return texto(b, p + 4, b.get(JAVA_INT_UNALIGNED, p));
+    }
+
+    List<String> lerLista(long ref) {
+        if (ref == NENHUM) return Collections.emptyList();
+        MemorySegment b = bloco(ref);
+        long p = deslocamento(ref) + 4;
+        int n = b.get(JAVA_INT_UNALIGNED, p);
+        p += 4;
+        List<String> textos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int tamanho = b.get(JAVA_INT_UNALIGNED, p);
+            textos.add(texto(b, p + 4, tamanho));
+            p += 4 + tamanho;
+        }
+        return textos;
+    }
+
+    void descartar(long ref) {
+        if (ref == NENHUM) return;
+        int total = 4 + bloco(ref).get(JAVA_INT_UNALIGNED, deslocamento(ref));
+        descartadosNoBloco[numeroBloco(ref) - primeiro] += total;
+        bytesDescartados += total;
+    }
+
+    /**
+     * @return true se mais da metade do que foi gravado já foi descartado (e isso passa do bloco inicial)
+     */
+    boolean compensaCompactar() {
+        return bytesDescartados > BLOCO_INICIAL && bytesDescartados * 2 > bytesUsados;
+    }
+
+    /**
+     * Fecha os blocos atuais para novas entradas (as próximas vão para um bloco novo).
+     *
+     * @return limite a passar para {@link #mover} e {@link #liberarAte}
+     */
+    int selar() {
+        if (qtdBlocos > 0) usadoNoUltimo = (int) blocos[qtdBlocos - 1].byteSize();
+        return primeiro + qtdBlocos;
+    }
+
+    /**
+     * Copia para o fim a entrada que está num bloco selado, descartando a original.
+     *
+     * @return a nova posição, ou a mesma se a entrada não está num bloco selado
+     */
+    long mover(long ref, int limite) {
+        if (ref == NENHUM || numeroBloco(ref) >= limite) return ref;
+        MemorySegment b = bloco(ref);
+        long p = deslocamento(ref);
+        int tamanho = b.get(JAVA_INT_UNALIGNED, p);
+        long nova = reservar(tamanho);
+        MemorySegment.copy(b, p + 4, bloco(nova), deslocamento(nova) + 4, tamanho);
+        descartar(ref);
+        return nova;
+    }
+
+    /**
+     * Libera os blocos selados (fecha as arenas deles) e tira-os da lista;
+     * nenhuma entrada viva pode estar neles.
+     */
+    void liberarAte(int limite) {
+        int n = Math.min(limite - primeiro, qtdBlocos);
+        if (n <= 0) return;
+        for (int i = 0; i < n; i++) {
+            bytesUsados -= usadosNoBloco[i];
+            bytesDescartados -= descartadosNoBloco[i];
+            bytesAlocados -= blocos[i].byteSize();
+            arenas[i].close();
+        }
+        qtdBlocos -= n;
+        primeiro += n;
+        System.arraycopy(blocos, n, blocos, 0, qtdBlocos);
+        System.arraycopy(arenas, n, arenas, 0, qtdBlocos);
+        System.arraycopy(usadosNoBloco, n, usadosNoBloco, 0, qtdBlocos);
+        System.arraycopy(descartadosNoBloco, n, descartadosNoBloco, 0, qtdBlocos);
+        Arrays.fill(blocos, qtdBlocos, qtdBlocos + n, null);
+        Arrays.fill(arenas, qtdBlocos, qtdBlocos + n, null);
+        Arrays.fill(usadosNoBloco, qtdBlocos, qtdBlocos + n, 0);
+        Arrays.fill(descartadosNoBloco, qtdBlocos, qtdBlocos + n, 0);
+    }
+
+    /**
+     * Libera todos os blocos; a arena não pode mais ser usada.
+     */
+    void liberar() {
+        liberarAte(primeiro + qtdBlocos);
+    }
+
+    long bytesAlocados() {
+        return bytesAlocados;
+    }
+
+    // Reserva [int tamanho][conteúdo] e grava o tamanho
+    private long reservar(int tamanho) {
+        int total = 4 + tamanho;
+        if (total > BLOCO_MAXIMO) {
+            throw new IllegalArgumentException("Texto grande demais para o armazenamento: " + tamanho + " bytes");
+        }
+        if (qtdBlocos == 0 || usadoNoUltimo + total > blocos[qtdBlocos - 1].byteSize()) novoBloco(total);
+        int ultimo = qtdBlocos - 1;
+        long ref = ((long) (primeiro + ultimo) << 32) | usadoNoUltimo;
+        blocos[ultimo].set(JAVA_INT_UNALIGNED, usadoNoUltimo, tamanho);
+        usadoNoUltimo += total;
+        usadosNoBloco[ultimo] += total;
+        bytesUsados += total;
+        return ref;
+    }
+
+    private void novoBloco(int minimo) {
+        // Um quarto do que está vivo (sobra pouco no último bloco), entre o inicial e o máximo
+        long quarto = Long.highestOneBit((bytesUsados - bytesDescartados) >>> 2);
+        int capacidade = Math.max(minimo, (int) Math.min(BLOCO_MAXIMO, Math.max(BLOCO_INICIAL, quarto)));
+        if (qtdBlocos == blocos.length) {
+            blocos = Arrays.copyOf(blocos, qtdBlocos * 2);
+            arenas = Arrays.copyOf(arenas, qtdBlocos * 2);
+            usadosNoBloco = Arrays.copyOf(usadosNoBloco, qtdBlocos * 2);
+            descartadosNoBloco = Arrays.copyOf(descartadosNoBloco, qtdBlocos * 2);
+        }
+        Arena arena = Arena.ofShared();
+        arenas[qtdBlocos] = arena;
+        blocos[qtdBlocos] = arena.allocate(capacidade);
+        qtdBlocos++;
+        bytesAlocados += capacidade;
+        usadoNoUltimo = 0;
+    }
+
+    private MemorySegment bloco(long ref) {
+        return blocos[numeroBloco(ref) - primeiro];
+    }
+
+    private static int numeroBloco(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    private static int deslocamento(long ref) {
+        return (int) ref;
+    }
+
+    private static String texto(MemorySegment b, long p, int tamanho) {
+        byte[] utf8 = new byte[tamanho];
+        MemorySegment.copy(b, JAVA_BYTE, p, utf8, 0, tamanho);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,401 @@
+package storage;
+
+import model.Dependente;
+import model.Funcionario;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+import static util.EnderecamentoAberto.espalhar;
+import static util.EnderecamentoAberto.podeMover;
+
+/**
+ * Armazenamento em colunas, sem objetos por funcionário e sem boxing.
+ *
+ * Os dados ficam em arrays paralelos (código, salário, qtd de dependentes,
+ * nome, cargo, nomes dos dependentes), sempre compactos em [0, tamanho).
+ * O índice por código é uma tabela de endereçamento aberto (sondagem linear)
+ * que guarda a posição + 1 de cada funcionário nas colunas (0 = vazio).
+ *
+ * Objetos Funcionario/Dependente só são criados quando alguém os pede
+ * (buscar, listar, iterar) e são cópias: alterá-los não muda o armazenamento.
+ *
+ * Os funcionários são divididos pelo hash do código em {@value #NUM_SEGMENTOS}
+ * segmentos independentes, cada um com as suas colunas, o seu índice e a sua
+ * trava (StampedLock: leituras com a de leitura, escritas com a de escrita).
+ * Escritas em segmentos diferentes não esperam umas pelas outras.
+ */
+public class ArmazenamentoColunar implements ArmazenamentoFuncionarios {
+    private static final int CAPACIDADE_INICIAL = 1024;
+    private static final int BITS_SEGMENTOS = 6;
+    private static final int NUM_SEGMENTOS = 1 << BITS_SEGMENTOS;
+    private static final int POSICOES_POR_BLOCO = 16 * 1024; // reajuste em lote: trabalho de cada tarefa
+
+    private final Segmento[] segmentos = new Segmento[NUM_SEGMENTOS];
+
+    public ArmazenamentoColunar() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * @param capacidadeInicial total esperado de funcionários (dividido entre os segmentos)
+     */
+    public ArmazenamentoColunar(int capacidadeInicial) {
+        for (int i = 0; i < NUM_SEGMENTOS; i++) {
+            segmentos[i] = new Segmento(capacidadeInicial / NUM_SEGMENTOS);
+        }
+    }
+
+    @Override
+    public boolean inserir(Funcionario f, List<Dependente> dependentes) {
+        return segmento(f.getCodigo()).inserir(f, dependentes);
+    }
+
+    @Override
+    public Funcionario remover(int codigo) {
+        return segmento(codigo).remover(codigo);
+    }
+
+    @Override
+    public double alterarSalario(int codigo, double novoSalario) {
+        return segmento(codigo).alterarSalario(codigo, novoSalario);
+    }
+
+    @Override
+    public Funcionario buscar(int codigo) {
+        return segmento(codigo).buscar(codigo);
+    }
+
+    @Override
+    public int contarDependentes(int codigo) {
+        return segmento(codigo).contarDependentes(codigo);
+    }
+
+    @Override
+    public List<Dependente> listarDependentes(int codigo) {
+        return segmento(codigo).listarDependentes(codigo);
+    }
+
+    /**
+     * Soma dos segmentos, sem travar: com escritas em andamento é aproximada.
+     */
+    @Override
+    public int tamanho() {
+        int total = 0;
+        for (Segmento seg : segmentos) total += seg.tamanho;
+        return total;
+    }
+
+    /**
+     * Percorre um segmento de cada vez, com a trava de leitura dele.
+     */
+    @Override
+    public void paraCada(VisitanteSalario visitante) {
+        for (Segmento seg : segmentos) seg.paraCada(visitante);
+    }
+
+    /**
+     * Segura a trava de escrita de todos os segmentos (em ordem) e processa
+     * as colunas em blocos paralelos; a posição já dá o funcionário, sem
+     * consultar o índice.
+     */
+    @Override
+    public long ajustarSalarios(Supplier<? extends AjusteSalario> porTarefa) {
+        long[] stamps = new long[NUM_SEGMENTOS];
+        for (int i = 0; i < NUM_SEGMENTOS; i++) stamps[i] = segmentos[i].trava.writeLock();
+        try {
+            List<int[]> blocos = new ArrayList<>(); // {segmento, início}
+            for (int i = 0; i < NUM_SEGMENTOS; i++) {
+                for (int p = 0; p < segmentos[i].tamanho; p += POSICOES_POR_BLOCO) blocos.add(new int[]{i, p});
+            }
+            return blocos.parallelStream().mapToLong(b -> segmentos[b[0]].ajustar(porTarefa.get(), b[1])).sum();
+        } finally {
+            for (int i = NUM_SEGMENTOS - 1; i >= 0; i--) segmentos[i].trava.unlockWrite(stamps[i]);
+        }
+    }
+
+    /**
+     * Iterador fracamente consistente: cada passo lê uma posição sob a trava
+     * de leitura do segmento; exclusões concorrentes podem fazer um
+     * funcionário ser pulado.
+     */
+    @Override
+    public Iterator<Funcionario> iterator() {
+        return new Iterator<Funcionario>() {
+            private int segmento;
+            private int proxima;
+
+            @Override
+            public boolean hasNext() {
+                while (segmento < NUM_SEGMENTOS && proxima >= segmentos[segmento].tamanho) {
+                    segmento++;
+                    proxima = 0;
+                }
+                return segmento < NUM_SEGMENTOS;
+            }
+
+            @Override
+            public Funcionario next() {
+                while (hasNext()) {
+                    Funcionario f = segmentos[segmento].ler(proxima++);
+                    if (f != null) return f;
+                }
+                throw new NoSuchElementException();
+            }
+        };
+    }
+
+    // Bits altos do hash escolhem o segmento; os baixos, o slot no índice do segmento
+    private Segmento segmento(int codigo) {
+        return segmentos[espalhar(codigo) >>> (32 - BITS_SEGMENTOS)];
+    }
+
+    /**
+     * Colunas, índice e trava de uma parte dos funcionários.
+     */
+    private static final class Segmento {
+        private final StampedLock trava = new StampedLock();
+
+        // Colunas
+        private int[] codigos;
+        private double[] salarios;
+        private int[] qtdDependentes;
+        private String[] nomes;
+        private String[] cargos;
+        private String[][] nomesDependentes; // null quando não há dependentes
+        private volatile int tamanho;
+
+        // Índice: posição + 1 nas colunas, 0 = vazio
+        private int[] indice;
+
+        Segmento(int capacidadeInicial) {
+            int cap = Math.max(16, capacidadeInicial);
+            codigos = new int[cap];
+            salarios = new double[cap];
+            qtdDependentes = new int[cap];
+            nomes = new String[cap];
+            cargos = new String[cap];
+            nomesDependentes = new String[cap][];
+            indice = new int[tamanhoIndice(cap)];
+        }
+
+        boolean inserir(Funcionario f, List<Dependente> dependentes) {
+            long stamp = trava.writeLock();
+            try {
+                int codigo = f.getCodigo();
+                if (posicao(codigo) >= 0) return false;
+                if (tamanho == codigos.length) crescer();
+
+                int p = tamanho++;
+                codigos[p] = codigo;
+                salarios[p] = f.getSalario();
+                nomes[p] = f.getNome();
+                cargos[p] = f.getCargo();
+                qtdDependentes[p] = dependentes.size();
+                if (dependentes.isEmpty()) {
+                    nomesDependentes[p] = null;
+                } else {
+                    String[] deps = new String[dependentes.size()];
+                    for (int i = 0; i < deps.length; i++) deps[i] = dependentes.get(i).getNome();
+                    nomesDependentes[p] = deps;
+                }
+                indexar(codigo, p);
+                return true;
+            } finally {
+                trava.unlockWrite(stamp);
+            }
+        }
+
+        Funcionario remover(int codigo) {
+            long stamp = trava.writeLock();
+            try {
+                int slot = slotDe(codigo);
+                if (slot < 0) return null;
+                int p = indice[slot] - 1;
+                Funcionario removido = montar(p);
+                desindexar(slot);
+
+                // Move o último para a posição liberada (mantém as colunas compactas)
+                int ultimo = --tamanho;
+                if (p != ultimo) {
+                    codigos[p] = codigos[ultimo];
+                    salarios[p] = salarios[ultimo];
+                    qtdDependentes[p] = qtdDependentes[ultimo];
+                    nomes[p] = nomes[ultimo];
+                    cargos[p] = cargos[ultimo];
+                    nomesDependentes[p] = nomesDependentes[ultimo];
+                    indice[slotDe(codigos[p])] = p + 1;
+                }
+                nomes[ultimo] = null;
+                cargos[ultimo] = null;
+                nomesDependentes[ultimo] = null;
+                return removido;
+            } finally {
+                trava.unlockWrite(stamp);
+            }
+        }
+
+        double alterarSalario(int codigo, double novoSalario) {
+            long stamp = trava.writeLock();
+            try {
+                int p = posicao(codigo);
+                if (p < 0) return Double.NaN;
+                double anterior = salarios[p];
+                salarios[p] = novoSalario;
+                return anterior;
+            } finally {
+                trava.unlockWrite(stamp);
+            }
+        }
+
+        Funcionario buscar(int codigo) {
+            long stamp = trava.readLock();
+            try {
+                int p = posicao(codigo);
+                return p < 0 ? null : montar(p);
+            } finally {
+                trava.unlockRead(stamp);
+            }
+        }
+
+        int contarDependentes(int codigo) {
+            long stamp = trava.readLock();
+            try {
+                int p = posicao(codigo);
+                return p < 0 ? 0 : qtdDependentes[p];
+            } finally {
+                trava.unlockRead(stamp);
+            }
+        }
+
+        List<Dependente> listarDependentes(int codigo) {
+            long stamp = trava.readLock();
+            try {
+                int p = posicao(codigo);
+                if (p < 0 || nomesDependentes[p] == null) return Collections.emptyList();
+                Funcionario f = montar(p);
+                List<Dependente> deps = new ArrayList<>(nomesDependentes[p].length);
+                for (String nome : nomesDependentes[p]) deps.add(new Dependente(f, nome));
+                return Collections.unmodifiableList(deps);
+            } finally {
+                trava.unlockRead(stamp);
+            }
+        }
+
+        void paraCada(VisitanteSalario visitante) {
+            long stamp = trava.readLock();
+            try {
+                for (int p = 0, n = tamanho; p < n; p++) {
+                    visitante.visitar(codigos[p], salarios[p], qtdDependentes[p]);
+                }
+            } finally {
+                trava.unlockRead(stamp);
+            }
+        }
+
+        // Chamado com a trava de escrita do segmento
+        long ajustar(AjusteSalario ajuste, int inicio) {
+            long alterados = 0;
+            for (int p = inicio, fim = Math.min(tamanho, inicio + POSICOES_POR_BLOCO); p < fim; p++) {
+                double novo = ajuste.novoSalario(codigos[p], cargos[p], salarios[p], qtdDependentes[p]);
+                if (!Double.isNaN(novo)) {
+                    salarios[p] = novo;
+                    alterados++;
+                }
+            }
+            return alterados;
+        }
+
+        /**
+         * @return o funcionário na posição, ou null se ela já não existe
+         */
+        Funcionario ler(int posicao) {
+            long stamp = trava.readLock();
+            try {
+                return posicao < tamanho ? montar(posicao) : null;
+            } finally {
+                trava.unlockRead(stamp);
+            }
+        }
+
+        // ----- índice (endereçamento aberto) -----
+
+        private static int tamanhoIndice(int capacidade) {
+            // potência de 2 com ocupação máxima de 50%
+            return Integer.highestOneBit(Math.max(2, capacidade) * 2 - 1) * 2;
+        }
+
+        /**
+         * @return posição do código nas colunas, ou -1
+         */
+        private int posicao(int codigo) {
+            int slot = slotDe(codigo);
+            return slot < 0 ? -1 : indice[slot] - 1;
+        }
+
+        /**
+         * @return slot do código no índice, ou -1
+         */
+        private int slotDe(int codigo) {
+            int mascara = indice.length - 1;
+            for (int s = espalhar(codigo) & mascara; ; s = (s + 1) & mascara) {
+                int v = indice[s];
+                if (v == 0) return -1;
+                if (codigos[v - 1] == codigo) return s;
+            }
+        }
+
+        private void indexar(int codigo, int posicao) {
+            int mascara = indice.length - 1;
+            int s = espalhar(codigo) & mascara;
+            while (indice[s] != 0) s = (s + 1) & mascara;
+            indice[s] = posicao + 1;
+        }
+
+        /**
+         * Remove o slot sem deixar marcas: puxa para trás as entradas seguintes
+         * do mesmo agrupamento que ficariam inalcançáveis.
+         */
+        private void desindexar(int slot) {
+            int mascara = indice.length - 1;
+            int vazio = slot;
+            int s = slot;
+            while (true) {
+                s = (s + 1) & mascara;
+                int v = indice[s];
+                if (v == 0) break;
+                if (podeMover(vazio, s, espalhar(codigos[v - 1]) & mascara)) {
+                    indice[vazio] = v;
+                    vazio = s;
+                }
+            }
+            indice[vazio] = 0;
+        }
+
+        private void crescer() {
+            int cap = codigos.length + (codigos.length >> 1);
+            codigos = Arrays.copyOf(codigos, cap);
+            salarios = Arrays.copyOf(salarios, cap);
+            qtdDependentes = Arrays.copyOf(qtdDependentes, cap);
+            nomes = Arrays.copyOf(nomes, cap);
+            cargos = Arrays.copyOf(cargos, cap);
+            nomesDependentes = Arrays.copyOf(nomesDependentes, cap);
+
+            int novoTamanho = tamanhoIndice(cap);
+            if (novoTamanho != indice.length) {
+                indice = new int[novoTamanho];
+                for (int p = 0; p < tamanho; p++) indexar(codigos[p], p);
+            }
+        }
+
+        private Funcionario montar(int p) {
+            return new Funcionario(codigos[p], nomes[p], cargos[p], salarios[p]);
+        }
+    }
+}
@@ -0,0 +1,553 @@
+package storage;
+
+import model.Dependente;
+import model.Funcionario;
+import util.DicionarioTextos;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static util.EnderecamentoAberto.espalhar;
+import static util.EnderecamentoAberto.podeMover;
+
+/**
+ * Armazenamento fora do heap, para cadastros grandes demais para o coletor
+ * de lixo: nada por funcionário fica no heap.
+ *
+ * Os funcionários são divididos pelo hash do código em {@value #NUM_SEGMENTOS}
+ * segmentos, como no {@link ArmazenamentoColunar}, cada um com a sua trava
+ * (StampedLock). Num segmento, os funcionários são registros de tamanho fixo
+ * em blocos de memória nativa, sempre compactos em [0, tamanho); o índice por
+ * código é uma tabela de endereçamento aberto também fora do heap, com a
+ * posição + 1 de cada funcionário (0 = vazio). Nomes e dependentes ficam numa
+ * {@link ArenaTextos} do segmento; os cargos, poucos, num dicionário no heap.
+ *
+ * Objetos Funcionario/Dependente só são criados quando alguém os pede e são
+ * cópias. A memória nativa vem de Arenas compartilhadas (java.lang.foreign,
+ * em preview no Java 21: roda com --enable-preview): uma para os registros
+ * de cada segmento, uma para o índice e uma por bloco de textos, fechadas
+ * quando a memória deixa de ser usada. {@link #close()} fecha todas e
+ * devolve a memória na hora, sem esperar o coletor; depois disso o
+ * armazenamento não pode mais ser usado.
+ * A compactação dos textos descartados roda numa thread de fundo, em passos
+ * curtos sob a trava do segmento, fora do caminho das exclusões.
+ */
+public class ArmazenamentoForaDoHeap implements ArmazenamentoFuncionarios, AutoCloseable {
+    private static final int BITS_SEGMENTOS = 6;
+    private static final int NUM_SEGMENTOS = 1 << BITS_SEGMENTOS;
+    private static final int BITS_BLOCO = 12;
+    private static final int REGISTROS_POR_BLOCO = 1 << BITS_BLOCO;
+    private static final int SLOTS_INICIAIS = 64;
+    private static final int MAX_SLOTS_INDICE = 1 << 28; // o índice é um único segmento (até 1 GB)
+    private static final int REGISTROS_POR_PASSO = 1024;  // compactação: registros movidos por vez com a trava
+
+    // Registro: deslocamento de cada campo
+    private static final int CODIGO = 0;
+    private static final int CARGO = 4;            // id no dicionário, -1 = null
+    private static final int SALARIO = 8;
+    private static final int NOME = 16;            // posição na arena
+    private static final int DEPENDENTES = 24;     // posição na arena
+    private static final int QTD_DEPENDENTES = 32;
+    private static final int TAMANHO_REGISTRO = 40;
+
+    // Compactações das arenas de todos os armazenamentos, uma de cada vez
+    private static final ExecutorService COMPACTADOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "compactador-fora-do-heap");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final DicionarioTextos cargos = new DicionarioTextos();
+    private final Segmento[] segmentos = new Segmento[NUM_SEGMENTOS];
+    private volatile boolean fechado; // muda com as travas de escrita de todos os segmentos
+
+    public ArmazenamentoForaDoHeap() {
+        for (int i = 0; i < NUM_SEGMENTOS; i++) segmentos[i] = new Segmento();
+    }
+
+    @Override
+    public boolean inserir(Funcionario f, List<Dependente> dependentes) {
+        return segmento(f.getCodigo()).inserir(f, dependentes);
+    }
+
+    @Override
+    public Funcionario remover(int codigo) {
+        return segmento(codigo).remover(codigo);
+    }
+
+    @Override
+    public double alterarSalario(int codigo, double novoSalario) {
+        return segmento(codigo).alterarSalario(codigo, novoSalario);
+    }
+
+    @Override
+    public Funcionario buscar(int codigo) {
+        return segmento(codigo).buscar(codigo);
+    }
+
+    @Override
+    public int contarDependentes(int codigo) {
+        return segmento(codigo).contarDependentes(codigo);
+    }
+
+    @Override
+    public List<Dependente> listarDependentes(int codigo) {
+        return segmento(codigo).listarDependentes(codigo);
+    }
+
+    /**
+     * Soma dos segmentos, sem travar: com escritas em andamento é aproximada.
+     */
+    @Override
+    public int tamanho() {
+        int total = 0;
+        for (Segmento seg : segmentos) total += seg.tamanho;
+        return total;
+    }
+
+    /**
+     * Percorre um segmento de cada vez, com a trava de leitura dele.
+     */
+    @Override
+    public void paraCada(VisitanteSalario visitante) {
+        for (Segmento seg : segmentos) seg.paraCada(visitante);
+    }
+
+    /**
+     * Segura a trava de escrita de todos os segmentos (em ordem) e processa
+     * os blocos de registros de todos eles em paralelo.
+     */
+    @Override
+    public long ajustarSalarios(Supplier<? extends AjusteSalario> porTarefa) {
+        long[] stamps = travarTodos();
+        try {
+            verificarAberto();
+            List<int[]> blocos = new ArrayList<>(); // {segmento, bloco}
+            for (int i = 0; i < NUM_SEGMENTOS; i++) {
+                for (int b = 0; b * REGISTROS_POR_BLOCO < segmentos[i].tamanho; b++) blocos.add(new int[]{i, b});
+            }
+            return blocos.parallelStream().mapToLong(b -> segmentos[b[0]].ajustar(porTarefa.get(), b[1])).sum();
+        } finally {
+            destravarTodos(stamps);
+        }
+    }
+
+    /**
+     * Iterador fracamente consistente: cada passo lê uma posição sob a trava
+     * de leitura do segmento; exclusões concorrentes podem fazer um
+     * funcionário ser pulado.
+     */
+    @Override
+    public Iterator<Funcionario> iterator() {
+        return new Iterator<Funcionario>() {
+            private int segmento;
+            private int proxima;
+
+            @Override
+            public boolean hasNext() {
+                while (segmento < NUM_SEGMENTOS && proxima >= segmentos[segmento].tamanho) {
+                    segmento++;
+                    proxima = 0;
+                }
+                return segmento < NUM_SEGMENTOS;
+            }
+
+            @Override
+            public Funcionario next() {
+                while (hasNext()) {
+                    Funcionario f = segmentos[segmento].ler(proxima++);
+                    if (f != null) return f;
+                }
+                throw new NoSuchElementException();
+            }
+        };
+    }
+
+    /**
+     * @return bytes de memória nativa reservados (registros, índices e textos)
+     */
+    public long getBytesForaDoHeap() {
+        long total = 0;
+        for (Segmento seg : segmentos) total += seg.bytesForaDoHeap();
+        return total;
+    }
+
+    /**
+     * Devolve toda a memória nativa na hora. Depois disso as operações lançam
+     * IllegalStateException (e {@link #tamanho()} é 0); chamar de novo não faz nada.
+     */
+    @Override
+    public void close() {
+        long[] stamps = travarTodos();
+        try {
+            if (fechado) return;
+            fechado = true;
+            for (Segmento seg : segmentos) seg.liberar();
+        } finally {
+            destravarTodos(stamps);
+        }
+    }
+
+    // Bits altos do hash escolhem o segmento; os baixos, o slot no índice do segmento
+    private Segmento segmento(int codigo) {
+        return segmentos[espalhar(codigo) >>> (32 - BITS_SEGMENTOS)];
+    }
+
+    private long[] travarTodos() {
+        long[] stamps = new long[NUM_SEGMENTOS];
+        for (int i = 0; i < NUM_SEGMENTOS; i++) stamps[i] = segmentos[i].trava.writeLock();
+        return stamps;
+    }
+
+    private void destravarTodos(long[] stamps) {
+        for (int i = NUM_SEGMENTOS - 1; i >= 0; i--) segmentos[i].trava.unlockWrite(stamps[i]);
+    }
+
+    // Chamado com alguma trava: a memória não é liberada enquanto ela estiver com alguém
+    private void verificarAberto() {
+        if (fechado) throw new IllegalStateException("Armazenamento fora do heap já fechado");
+    }
+
+    /**
+     * Registros, índice, textos e trava de uma parte dos funcionários.
+     */
+    private final class Segmento {
+        private final StampedLock trava = new StampedLock();
+
+        private final Arena arenaRegistros = Arena.ofShared();
+        private MemorySegment[] blocos = new MemorySegment[4];
+        private int qtdBlocos;
+        private volatile int tamanho;
+        private Arena arenaIndice = Arena.ofShared();
+        private MemorySegment indice = arenaIndice.allocate((long) SLOTS_INICIAIS * 4); // int por slot, zerado = vazio
+        private int slotsIndice = SLOTS_INICIAIS;
+        private final ArenaTextos textos = new ArenaTextos();
+        private boolean compactando;
+
+        boolean inserir(Funcionario f, List<Dependente> dependentes) {
+            long stamp = trava.writeLock();
+            try {
+                verificarAberto();
+                int codigo = f.getCodigo();
+                if (posicao(codigo) >= 0) return false;
+                if ((long) (tamanho + 1) * 2 > slotsIndice) crescerIndice();
+                if (tamanho == qtdBlocos * REGISTROS_POR_BLOCO) novoBloco();
+
+                long nome = textos.gravar(f.getNome());
+                long deps = textos.gravar(dependentes);
+                int p = tamanho;
+                MemorySegment b = bloco(p);
+                long r = base(p);
+                b.set(JAVA_INT, r + CODIGO, codigo);
+                b.set(JAVA_INT, r + CARGO, f.getCargo() == null ? -1 : cargos.id(f.getCargo()));
+                b.set(JAVA_DOUBLE, r + SALARIO, f.getSalario());
+                b.set(JAVA_LONG, r + NOME, nome);
+                b.set(JAVA_LONG, r + DEPENDENTES, deps);
+                b.set(JAVA_INT, r + QTD_DEPENDENTES, dependentes.size());
+                tamanho = p + 1;
+                indexar(codigo, p);
+                return true;
+            } finally {
+                trava.unlockWrite(stamp);
+            }
+        }
+
+        Funcionario remover(int codigo) {
+            long stamp = trava.writeLock();
+            try {
+                verificarAberto();
+                int slot = slotDe(codigo);
+                if (slot < 0) return null;
+                int p = indice.getAtIndex(JAVA_INT, slot) - 1;
+                Funcionario removido = montar(p);
+                textos.descartar(bloco(p).get(JAVA_LONG, base(p) + NOME));
+                textos.descartar(bloco(p).get(JAVA_LONG, base(p) + DEPENDENTES));
+                desindexar(slot);
+
+                // Move o último para a posição liberada (mantém os registros compactos)
+                int ultimo = tamanho - 1;
+                if (p != ultimo) {
+                    MemorySegment.copy(bloco(ultimo), base(ultimo), bloco(p), base(p), TAMANHO_REGISTRO);
+                    indice.setAtIndex(JAVA_INT, slotDe(codigo(p)), p + 1);
+                }
+                tamanho = ultimo;
+                if (!compactando && textos.compensaCompactar()) {
+                    compactando = true;
+                    COMPACTADOR.execute(this::compactarTextos);
+                }
+                return removido;
+            } finally {
+                trava.unlockWrite(stamp);
+            }
+        }
+
+        double alterarSalario(int codigo, double novoSalario) {
+            long stamp = trava.writeLock();
+            try {
+                verificarAberto();
+                int p = posicao(codigo);
+                if (p < 0) return Double.NaN;
+                double anterior = bloco(p).get(JAVA_DOUBLE, base(p) + SALARIO);
+                bloco(p).set(JAVA_DOUBLE, base(p) + SALARIO, novoSalario);
+                return anterior;
+            } finally {
+                trava.unlockWrite(stamp);
+            }
+        }
+
+        Funcionario buscar(int codigo) {
+            long stamp = trava.readLock();
+            try {
+                verificarAberto();
+                int p = posicao(codigo);
+                return p < 0 ? null : montar(p);
+            } finally {
+                trava.unlockRead(stamp);
+            }
+        }
+
+        int contarDependentes(int codigo) {
+            long stamp = trava.readLock();
+            try {
+                verificarAberto();
+                int p = posicao(codigo);
+                return p < 0 ? 0 : bloco(p).get(JAVA_INT, base(p) + QTD_DEPENDENTES);
+            } finally {
+                trava.unlockRead(stamp);
+            }
+        }
+
+        List<Dependente> listarDependentes(int codigo) {
+            long stamp = trava.readLock();
+            try {
+                verificarAberto();
+                int p = posicao(codigo);
+                if (p < 0) return Collections.emptyList();
+                List<String> nomes = textos.lerLista(bloco(p).get(JAVA_LONG, base(p) + DEPENDENTES));
+                if (nomes.isEmpty()) return Collections.emptyList();
+                Funcionario f = montar(p);
+                List<Dependente> deps = new ArrayList<>(nomes.size());
+                for (String nome : nomes) deps.add(new Dependente(f, nome));
+                return Collections.unmodifiableList(deps);
+            } finally {
+                trava.unlockRead(stamp);
+            }
+        }
+
+        void paraCada(VisitanteSalario visitante) {
+            long stamp = trava.readLock();
+            try {
+                verificarAberto();
+                for (int p = 0, n = tamanho; p < n; p++) {
+                    MemorySegment b = bloco(p);
+                    long r = base(p);
+                    visitante.visitar(b.get(JAVA_INT, r + CODIGO), b.get(JAVA_DOUBLE, r + SALARIO),
+                            b.get(JAVA_INT, r + QTD_DEPENDENTES));
+                }
+            } finally {
+                trava.unlockRead(stamp);
+            }
+        }
+
+        // Chamado com a trava de escrita do segmento
+        long ajustar(AjusteSalario ajuste, int bloco) {
+            MemorySegment b = blocos[bloco];
+            long alterados = 0;
+            for (int p = bloco * REGISTROS_POR_BLOCO, fim = Math.min(tamanho, p + REGISTROS_POR_BLOCO); p < fim; p++) {
+                long r = base(p);
+                int cargo = b.get(JAVA_INT, r + CARGO);
+                double novo = ajuste.novoSalario(b.get(JAVA_INT, r + CODIGO), cargo < 0 ? null : cargos.texto(cargo),
+                        b.get(JAVA_DOUBLE, r + SALARIO), b.get(JAVA_INT, r + QTD_DEPENDENTES));
+                if (!Double.isNaN(novo)) {
+                    b.set(JAVA_DOUBLE, r + SALARIO, novo);
+                    alterados++;
+                }
+            }
+            return alterados;
+        }
+
+        /**
+         * @return o funcionário na posição, ou null se ela já não existe
+         */
+        Funcionario ler(int posicao) {
+            long stamp = trava.readLock();
+            try {
+                verificarAberto();
+                return posicao < tamanho ? montar(posicao) : null;
+            } finally {
+                trava.unlockRead(stamp);
+            }
+        }
+
+        long bytesForaDoHeap() {
+            long stamp = trava.readLock();
+            try {
+                if (fechado) return 0;
+                return (long) qtdBlocos * REGISTROS_POR_BLOCO * TAMANHO_REGISTRO + indice.byteSize()
+                        + textos.bytesAlocados();
+            } finally {
+                trava.unlockRead(stamp);
+            }
+        }
+
+        // Chamado com a trava de escrita do segmento
+        void liberar() {
+            arenaRegistros.close();
+            arenaIndice.close();
+            textos.liberar();
+            blocos = new MemorySegment[0];
+            qtdBlocos = 0;
+            indice = null;
+            tamanho = 0;
+        }
+
+        /**
+         * Na thread de fundo: sela os blocos atuais da arena, copia os textos
+         * vivos para blocos novos em passos de {@value #REGISTROS_POR_PASSO}
+         * registros (cada um com a trava de escrita) e libera os selados.
+         *
+         * As posições são percorridas do fim para o começo: uma exclusão só
+         * traz para trás o último registro, que já foi movido ou ainda vai ser.
+         */
+        private void compactarTextos() {
+            int limite;
+            int p;
+            long stamp = trava.writeLock();
+            try {
+                if (fechado) return;
+                limite = textos.selar();
+                p = tamanho;
+            } finally {
+                trava.unlockWrite(stamp);
+            }
+            while (p > 0) {
+                stamp = trava.writeLock();
+                try {
+                    if (fechado) return;
+                    p = Math.min(p, tamanho);
+                    for (int fim = Math.max(0, p - REGISTROS_POR_PASSO); p > fim; ) {
+                        p--;
+                        MemorySegment b = bloco(p);
+                        long r = base(p);
+                        b.set(JAVA_LONG, r + NOME, textos.mover(b.get(JAVA_LONG, r + NOME), limite));
+                        b.set(JAVA_LONG, r + DEPENDENTES, textos.mover(b.get(JAVA_LONG, r + DEPENDENTES), limite));
+                    }
+                } finally {
+                    trava.unlockWrite(stamp);
+                }
+            }
+            stamp = trava.writeLock();
+            try {
+                if (fechado) return;
+                textos.liberarAte(limite);
+                compactando = false;
+            } finally {
+                trava.unlockWrite(stamp);
+            }
+        }
+
+        // ----- registros -----
+
+        private MemorySegment bloco(int posicao) {
+            return blocos[posicao >>> BITS_BLOCO];
+        }
+
+        private int codigo(int posicao) {
+            return bloco(posicao).get(JAVA_INT, base(posicao) + CODIGO);
+        }
+
+        // Os blocos de registros só são liberados junto com o segmento
+        private void novoBloco() {
+            if (qtdBlocos == blocos.length) blocos = Arrays.copyOf(blocos, qtdBlocos * 2);
+            blocos[qtdBlocos++] = arenaRegistros.allocate((long) REGISTROS_POR_BLOCO * TAMANHO_REGISTRO, 8);
+        }
+
+        private Funcionario montar(int p) {
+            MemorySegment b = bloco(p);
+            long r = base(p);
+            int cargo = b.get(JAVA_INT, r + CARGO);
+            return new Funcionario(b.get(JAVA_INT, r + CODIGO), textos.ler(b.get(JAVA_LONG, r + NOME)),
+                    cargo < 0 ? null : cargos.texto(cargo), b.get(JAVA_DOUBLE, r + SALARIO));
+        }
+
+        // ----- índice (endereçamento aberto) -----
+
+        /**
+         * @return posição do código nos registros, ou -1
+         */
+        private int posicao(int codigo) {
+            int slot = slotDe(codigo);
+            return slot < 0 ? -1 : indice.getAtIndex(JAVA_INT, slot) - 1;
+        }
+
+        /**
+         * @return slot do código no índice, ou -1
+         */
+        private int slotDe(int codigo) {
+            int mascara = slotsIndice - 1;
+            for (int s = espalhar(codigo) & mascara; ; s = (s + 1) & mascara) {
+                int v = indice.getAtIndex(JAVA_INT, s);
+                if (v == 0) return -1;
+                if (codigo(v - 1) == codigo) return s;
+            }
+        }
+
+        private void indexar(int codigo, int posicao) {
+            int mascara = slotsIndice - 1;
+            int s = espalhar(codigo) & mascara;
+            while (indice.getAtIndex(JAVA_INT, s) != 0) s = (s + 1) & mascara;
+            indice.setAtIndex(JAVA_INT, s, posicao + 1);
+        }
+
+        /**
+         * Remove o slot sem deixar marcas: puxa para trás as entradas seguintes
+         * do mesmo agrupamento que ficariam inalcançáveis.
+         */
+        private void desindexar(int slot) {
+            int mascara = slotsIndice - 1;
+            int vazio = slot;
+            int s = slot;
+            while (true) {
+                s = (s + 1) & mascara;
+                int v = indice.getAtIndex(JAVA_INT, s);
+                if (v == 0) break;
+                if (podeMover(vazio, s, espalhar(codigo(v - 1)) & mascara)) {
+                    indice.setAtIndex(JAVA_INT, vazio, v);
+                    vazio = s;
+                }
+            }
+            indice.setAtIndex(JAVA_INT, vazio, 0);
+        }
+
+        // Dobra o índice (ocupação máxima de 50%) numa arena nova e fecha a do antigo
+        private void crescerIndice() {
+            if (slotsIndice == MAX_SLOTS_INDICE) {
+                throw new IllegalStateException("Segmento do armazenamento fora do heap cheio: " + tamanho
+                        + " funcionários");
+            }
+            Arena antiga = arenaIndice;
+            slotsIndice *= 2;
+            arenaIndice = Arena.ofShared();
+            indice = arenaIndice.allocate((long) slotsIndice * 4);
+            for (int p = 0; p < tamanho; p++) indexar(codigo(p), p);
+            antiga.close();
+        }
+    }
+
+    private static long base(int posicao) {
+        return (long) (posicao & (REGISTROS_POR_BLOCO - 1)) * TAMANHO_REGISTRO;
+    }
+}
@@ -0,0 +1,68 @@
+package storage;
+
+import model.Dependente;
+import model.Funcionario;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Mecanismo de armazenamento usado pelo FuncionarioService.
+ * As implementações devem ser seguras para várias threads; o serviço já
+ * garante que alterações sobre o mesmo código não acontecem ao mesmo tempo.
+ */
+public interface ArmazenamentoFuncionarios extends Iterable<Funcionario> {
+
+    /**
+     * Insere o funcionário com seus dependentes.
+     *
+     * @return false se já existir funcionário com o mesmo código
+     */
+    boolean inserir(Funcionario f, List<Dependente> dependentes);
+
+    /**
+     * Remove o funcionário e seus dependentes.
+     *
+     * @return o funcionário removido, ou null se não existir
+     */
+    Funcionario remover(int codigo);
+
+    /**
+     * Altera o salário do funcionário.
+     *
+     * @return o salário anterior, ou {@code Double.NaN} se o funcionário não existir
+     */
+    double alterarSalario(int codigo, double novoSalario);
+
+    /**
+     * @return o funcionário com o código informado, ou null se não existir
+     */
+    Funcionario buscar(int codigo);
+
+    int contarDependentes(int codigo);
+
+    /**
+     * @return dependentes do funcionário (lista vazia se não houver)
+     */
+    List<Dependente> listarDependentes(int codigo);
+
+    int tamanho();
+
+    /**
+     * Percorre código, salário e quantidade de dependentes de todos os
+     * funcionários, sem criar objetos Funcionario.
+     */
+    void paraCada(VisitanteSalario visitante);
+
+    /**
+     * Passa todos os funcionários por um ajuste e grava os salários que ele
+     * mudar, numa única varredura (em paralelo quando a implementação puder).
+     * Cada tarefa da varredura pede o seu ajuste ao fornecedor, então quem
+     * acumula algo no ajuste não precisa de sincronização nem de ThreadLocal.
+     * O serviço chama com todas as suas travas, sem outras alterações em andamento.
+     *
+     * @param porTarefa chamado uma vez por tarefa da varredura (de qualquer thread)
+     * @return quantidade de salários alterados
+     */
+    long ajustarSalarios(Supplier<? extends AjusteSalario> porTarefa);
+}
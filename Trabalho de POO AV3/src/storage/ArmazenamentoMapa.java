@@ -0,0 +1,136 @@
+package storage;
+
+import model.Dependente;
+import model.Funcionario;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento padrão: um ConcurrentHashMap de código para o funcionário
+ * junto com seus dependentes.
+ */
+public class ArmazenamentoMapa implements ArmazenamentoFuncionarios {
+    // Reajuste em lote: abaixo disso a varredura não divide o trabalho
+    private static final long LIMIAR_PARALELO = 16 * 1024;
+
+    // Funcionário e seus dependentes ficam juntos, indexados pelo código
+    private final ConcurrentHashMap<Integer, Registro> registros = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean inserir(Funcionario f, List<Dependente> dependentes) {
+        return registros.putIfAbsent(f.getCodigo(), new Registro(f, dependentes)) == null;
+    }
+
+    @Override
+    public Funcionario remover(int codigo) {
+        Registro r = registros.remove(codigo);
+        return r == null ? null : r.funcionario;
+    }
+
+    @Override
+    public double alterarSalario(int codigo, double novoSalario) {
+        Registro r = registros.get(codigo);
+        if (r == null) return Double.NaN;
+        double anterior = r.funcionario.getSalario();
+        r.funcionario.setSalario(novoSalario);
+        return anterior;
+    }
+
+    @Override
+    public Funcionario buscar(int codigo) {
+        Registro r = registros.get(codigo);
+        return r == null ? null : r.funcionario;
+    }
+
+    @Override
+    public int contarDependentes(int codigo) {
+        Registro r = registros.get(codigo);
+        return r == null ? 0 : r.dependentes.size();
+    }
+
+    @Override
+    public List<Dependente> listarDependentes(int codigo) {
+        Registro r = registros.get(codigo);
+        return r == null ? Collections.emptyList() : r.dependentes;
+    }
+
+    @Override
+    public int tamanho() {
+        return registros.size();
+    }
+
+    @Override
+    public void paraCada(VisitanteSalario visitante) {
+        for (Registro r : registros.values()) {
+            visitante.visitar(r.funcionario.getCodigo(), r.funcionario.getSalario(), r.dependentes.size());
+        }
+    }
+
+    @Override
+    public long ajustarSalarios(Supplier<? extends AjusteSalario> porTarefa) {
+        Stream<Registro> todos = registros.values().stream();
+        if (registros.mappingCount() >= LIMIAR_PARALELO) todos = todos.parallel();
+        // Cada trecho do collect é de uma tarefa só: o ajuste dele não é compartilhado
+        return todos.collect(() -> new TrechoAjuste(porTarefa.get()), TrechoAjuste::ajustar, TrechoAjuste::somar)
+                .alterados;
+    }
+
+    @Override
+    public Iterator<Funcionario> iterator() {
+        Iterator<Registro> it = registros.values().iterator();
+        return new Iterator<Funcionario>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Funcionario next() {
+                return it.next().funcionario;
+            }
+        };
+    }
+
+    /**
+     * Ajuste e contagem de alterados de uma tarefa do reajuste em lote.
+     */
+    private static final class TrechoAjuste {
+        final AjusteSalario ajuste;
+        long alterados;
+
+        TrechoAjuste(AjusteSalario ajuste) {
+            this.ajuste = ajuste;
+        }
+
+        void ajustar(Registro r) {
+            Funcionario f = r.funcionario;
+            double novo = ajuste.novoSalario(f.getCodigo(), f.getCargo(), f.getSalario(), r.dependentes.size());
+            if (!Double.isNaN(novo)) {
+                f.setSalario(novo);
+                alterados++;
+            }
+        }
+
+        void somar(TrechoAjuste outro) {
+            alterados += outro.alterados;
+        }
+    }
+
+    /**
+     * Entrada do mapa: funcionário junto com seus dependentes (lista imutável).
+     */
+    private static final class Registro {
+        final Funcionario funcionario;
+        final List<Dependente> dependentes;
+
+        Registro(Funcionario funcionario, List<Dependente> dependentes) {
+            this.funcionario = funcionario;
+            this.dependentes = List.copyOf(dependentes);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package storage;
+
+/**
+ * Recebe os dados numéricos de cada funcionário durante uma varredura
+ * do armazenamento (ver {@link ArmazenamentoFuncionarios#paraCada}).
+ */
+@FunctionalInterface
+public interface VisitanteSalario {
+    void visitar(int codigo, double salario, int qtdDependentes);
+}
@@ -0,0 +1,435 @@
+package ui;
+
+import metrics.HistogramaLatencia;
+import model.Funcionario;
+import persistence.JournalFuncionarios;
+import service.ErroLote;
+import service.FuncionarioService;
+import service.MonitorFuncionarios;
+import service.ResultadoOperacao;
+import util.EnderecamentoAberto;
+import util.FileUtil;
+
+import javax.management.JMException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Modo sem interface gráfica: lê comandos de um arquivo (ou da entrada padrão)
+ * e os executa no FuncionarioService em lotes, terminando com um resumo de
+ * vazão e latência.
+ *
+ * Um comando por linha, campos separados por ';' (linhas em branco ou
+ * iniciadas por '#' são ignoradas):
+ * <pre>
+ * CADASTRAR;codigo;nome;cargo;salario;dependente1|dependente2
+ * EXCLUIR;codigo
+ * SALARIO;codigo;novoSalario
+ * RELATORIO;arquivo        (sem arquivo, escreve na saída padrão)
+ * </pre>
+ * Uso:
+ * <pre>
+ * java ui.ExecutorComandos [--dados=dir] [--lote=4096] [--threads=N] [arquivo | -]
+ * </pre>
+ * --dados restaura e grava o cadastro no diretório informado (como a aplicação
+ * gráfica faz em "dados"); sem ele tudo fica só em memória.
+ *
+ * A leitura roda em uma thread própria e entrega lotes já interpretados por uma
+ * fila limitada enquanto o lote anterior é executado. Dentro de um lote os
+ * comandos são divididos pelo código entre as threads: comandos do mesmo código
+ * mantêm a ordem do arquivo, e RELATORIO só roda depois de tudo o que veio antes.
+ */
+public class ExecutorComandos {
+    private static final int MAX_ERROS_MOSTRADOS = 20;
+    private static final Locale LOCALE_RELATORIO = Locale.of("pt", "BR");
+
+    private enum Tipo {
+        CADASTRAR, EXCLUIR, SALARIO, RELATORIO
+    }
+
+    private static final class Comando {
+        final long linha;
+        final Tipo tipo;
+        final int codigo;
+        final Funcionario funcionario;
+        final List<String> dependentes;
+        final double salario;
+        final String arquivo;
+
+        Comando(long linha, Tipo tipo, int codigo, Funcionario funcionario, List<String> dependentes,
+                double salario, String arquivo) {
+            this.linha = linha;
+            this.tipo = tipo;
+            this.codigo = codigo;
+            this.funcionario = funcionario;
+            this.dependentes = dependentes;
+            this.salario = salario;
+            this.arquivo = arquivo;
+        }
+    }
+
+    // Comandos interpretados de um trecho da entrada, com os erros de leitura desse trecho
+    private static final class Lote {
+        final List<Comando> comandos;
+        final List<ErroLote> erros = new ArrayList<>();
+
+        Lote(int capacidade) {
+            comandos = new ArrayList<>(capacidade);
+        }
+    }
+
+    private static final Lote FIM = new Lote(0);
+
+    // Contadores de uma thread de execução (cada parte do lote usa sempre a mesma)
+    private static final class Estatisticas {
+        final HistogramaLatencia[] latencias = new HistogramaLatencia[Tipo.values().length];
+        final long[] falhas = new long[Tipo.values().length];
+        final List<ErroLote> erros = new ArrayList<>();
+
+        Estatisticas() {
+            for (int i = 0; i < latencias.length; i++) latencias[i] = new HistogramaLatencia();
+        }
+    }
+
+    private final FuncionarioService service;
+    private final int tamanhoLote;
+    private final int threads;
+    private final BlockingQueue<Lote> fila = new ArrayBlockingQueue<>(8);
+    private final Estatisticas[] estatisticas;
+    private final List<ErroLote> errosLeitura = new ArrayList<>();
+    private volatile IOException falhaLeitura;
+    private long linhasLidas;
+
+    public ExecutorComandos(FuncionarioService service, int tamanhoLote, int threads) {
+        this.service = Objects.requireNonNull(service, "Service não pode ser null");
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+        this.threads = Math.max(1, threads);
+        this.estatisticas = new Estatisticas[this.threads];
+        for (int i = 0; i < this.threads; i++) estatisticas[i] = new Estatisticas();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new HashMap<>();
+        String origem = "-";
+        for (String a : args) {
+            if (a.startsWith("--") && a.contains("=")) {
+                opcoes.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+            } else {
+                origem = a;
+            }
+        }
+        int tamanhoLote = Integer.parseInt(opcoes.getOrDefault("lote", "4096"));
+        int threads = Integer.parseInt(opcoes.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        FuncionarioService service = new FuncionarioService();
+        try {
+            MonitorFuncionarios.publicar(service, "lote");
+        } catch (JMException ex) {
+            System.err.println("Métricas JMX indisponíveis: " + ex.getMessage());
+        }
+        JournalFuncionarios journal = opcoes.containsKey("dados")
+                ? JournalFuncionarios.abrir(Path.of(opcoes.get("dados")), service) : null;
+        try (BufferedReader entrada = "-".equals(origem)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(origem), StandardCharsets.UTF_8)) {
+            ExecutorComandos executor = new ExecutorComandos(service, tamanhoLote, threads);
+            long inicio = System.nanoTime();
+            executor.executar(entrada);
+            long fim = System.nanoTime();
+            executor.imprimirResumo(fim - inicio);
+        } finally {
+            if (journal != null) journal.close();
+        }
+    }
+
+    /**
+     * Lê e executa todos os comandos da entrada.
+     *
+     * @throws IOException se a leitura da entrada falhar (os lotes já lidos são executados)
+     */
+    public void executar(BufferedReader entrada) throws IOException, InterruptedException {
+        Thread leitor = new Thread(() -> ler(entrada), "executor-comandos-leitura");
+        leitor.setDaemon(true);
+        leitor.start();
+
+        ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread t = new Thread(r, "executor-comandos");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+        try {
+            for (Lote lote = fila.take(); lote != FIM; lote = fila.take()) {
+                errosLeitura.addAll(lote.erros);
+                executarLote(lote, pool);
+            }
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+        leitor.join();
+        if (falhaLeitura != null) throw falhaLeitura;
+    }
+
+    // ----- leitura -----
+
+    private void ler(BufferedReader entrada) {
+        Lote lote = new Lote(tamanhoLote);
+        try {
+            String texto;
+            while ((texto = entrada.readLine()) != null) {
+                interpretar(texto, ++linhasLidas, lote);
+                if (lote.comandos.size() >= tamanhoLote) {
+                    fila.put(lote);
+                    lote = new Lote(tamanhoLote);
+                }
+            }
+        } catch (IOException ex) {
+            falhaLeitura = ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            fila.put(lote);
+            fila.put(FIM);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void interpretar(String texto, long linha, Lote lote) {
+        String t = texto.trim();
+        if (t.isEmpty() || t.startsWith("#")) return;
+        String[] campos = t.split(";", 6);
+        Tipo tipo;
+        try {
+            tipo = Tipo.valueOf(campos[0].trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            lote.erros.add(new ErroLote(linha, 0, "Comando desconhecido: " + campos[0].trim()));
+            return;
+        }
+
+        if (tipo == Tipo.RELATORIO) {
+            String arquivo = campos.length > 1 && !campos[1].trim().isEmpty() ? campos[1].trim() : null;
+            lote.comandos.add(new Comando(linha, tipo, 0, null, null, 0, arquivo));
+            return;
+        }
+        int minimo = tipo == Tipo.CADASTRAR ? 5 : tipo == Tipo.SALARIO ? 3 : 2;
+        if (campos.length < minimo) {
+            lote.erros.add(new ErroLote(linha, 0, "Linha incompleta para " + tipo));
+            return;
+        }
+        int codigo;
+        try {
+            codigo = Integer.parseInt(campos[1].trim());
+        } catch (NumberFormatException ex) {
+            lote.erros.add(new ErroLote(linha, 0, "Código inválido: " + campos[1].trim()));
+            return;
+        }
+
+        switch (tipo) {
+            case EXCLUIR:
+                lote.comandos.add(new Comando(linha, tipo, codigo, null, null, 0, null));
+                break;
+            case SALARIO: {
+                Double salario = numero(campos[2]);
+                if (salario == null) {
+                    lote.erros.add(new ErroLote(linha, codigo, "Salário inválido: " + campos[2].trim()));
+                    return;
+                }
+                lote.comandos.add(new Comando(linha, tipo, codigo, null, null, salario, null));
+                break;
+            }
+            default: { // CADASTRAR
+                String nome = campos[2].trim();
+                String cargo = campos[3].trim();
+                Double salario = numero(campos[4]);
+                if (nome.isEmpty() || cargo.isEmpty()) {
+                    lote.erros.add(new ErroLote(linha, codigo, "Linha incompleta para " + tipo));
+                    return;
+                }
+                if (salario == null) {
+                    lote.erros.add(new ErroLote(linha, codigo, "Salário inválido: " + campos[4].trim()));
+                    return;
+                }
+                List<String> dependentes = new ArrayList<>();
+                if (campos.length > 5) {
+                    for (String dep : campos[5].split("\\|")) {
+                        if (!dep.trim().isEmpty()) dependentes.add(dep.trim());
+                    }
+                }
+                lote.comandos.add(new Comando(linha, tipo, codigo, new Funcionario(codigo, nome, cargo, salario),
+                        dependentes, salario, null));
+            }
+        }
+    }
+
+    private static Double numero(String s) {
+        try {
+            return Double.parseDouble(s.trim().replace(',', '.'));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    // ----- execução -----
+
+    /**
+     * Executa o lote em trechos separados pelos RELATORIO, para que cada
+     * relatório veja exatamente os comandos anteriores a ele.
+     */
+    private void executarLote(Lote lote, ExecutorService pool) throws InterruptedException {
+        List<Comando> trecho = new ArrayList<>(lote.comandos.size());
+        for (Comando c : lote.comandos) {
+            if (c.tipo == Tipo.RELATORIO) {
+                executarTrecho(trecho, pool);
+                trecho.clear();
+                executarComando(c, estatisticas[0]);
+            } else {
+                trecho.add(c);
+            }
+        }
+        executarTrecho(trecho, pool);
+    }
+
+    private void executarTrecho(List<Comando> trecho, ExecutorService pool) throws InterruptedException {
+        if (trecho.isEmpty()) return;
+        if (pool == null || trecho.size() < threads * 2) {
+            for (Comando c : trecho) executarComando(c, estatisticas[0]);
+            return;
+        }
+
+        // Mesmo código -> mesma parte, na ordem do arquivo
+        List<List<Comando>> partes = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) partes.add(new ArrayList<>(trecho.size() / threads + 16));
+        for (Comando c : trecho) {
+            partes.get(Math.floorMod(EnderecamentoAberto.espalhar(c.codigo), threads)).add(c);
+        }
+
+        List<Future<?>> futuros = new ArrayList<>(threads - 1);
+        for (int i = 1; i < threads; i++) {
+            List<Comando> parte = partes.get(i);
+            Estatisticas est = estatisticas[i];
+            futuros.add(pool.submit((Callable<Void>) () -> {
+                for (Comando c : parte) executarComando(c, est);
+                return null;
+            }));
+        }
+        for (Comando c : partes.get(0)) executarComando(c, estatisticas[0]);
+        for (Future<?> f : futuros) {
+            try {
+                f.get();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Erro ao executar comandos", ex.getCause());
+            }
+        }
+    }
+
+    private void executarComando(Comando c, Estatisticas est) {
+        long inicio = System.nanoTime();
+        String erro = null;
+        switch (c.tipo) {
+            case CADASTRAR:
+                erro = mensagem(service.tentarCadastrar(c.funcionario, c.dependentes));
+                break;
+            case EXCLUIR:
+                erro = mensagem(service.tentarExcluir(c.codigo));
+                break;
+            case SALARIO:
+                erro = mensagem(service.tentarAlterarSalario(c.codigo, c.salario));
+                break;
+            case RELATORIO:
+                erro = escreverRelatorio(c.arquivo);
+                break;
+        }
+        est.latencias[c.tipo.ordinal()].registrar(System.nanoTime() - inicio);
+        if (erro != null) {
+            est.falhas[c.tipo.ordinal()]++;
+            est.erros.add(new ErroLote(c.linha, c.codigo, erro));
+        }
+    }
+
+    private static String mensagem(ResultadoOperacao r) {
+        return r.isSucesso() ? null : r.getMensagem();
+    }
+
+    private String escreverRelatorio(String arquivo) {
+        try {
+            if (arquivo != null) {
+                FileUtil.escreverEmArquivo(Path.of(arquivo), w -> service.escreverBonusFormatado(LOCALE_RELATORIO, w, ForkJoinPool.commonPool()));
+            } else {
+                // Não fecha a saída padrão: só descarrega
+                BufferedWriter w = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                service.escreverBonusFormatado(LOCALE_RELATORIO, w, ForkJoinPool.commonPool());
+                w.flush();
+            }
+            return null;
+        } catch (IOException ex) {
+            return "Erro ao gravar relatório: " + ex.getMessage();
+        }
+    }
+
+    // ----- resumo -----
+
+    /**
+     * Mostra contagens, vazão e latências por tipo de comando na saída de erro
+     * (a saída padrão fica livre para os relatórios).
+     */
+    public void imprimirResumo(long nanosTotais) {
+        HistogramaLatencia total = new HistogramaLatencia();
+        HistogramaLatencia[] porTipo = new HistogramaLatencia[Tipo.values().length];
+        long[] falhas = new long[porTipo.length];
+        List<ErroLote> erros = new ArrayList<>(errosLeitura);
+        for (int i = 0; i < porTipo.length; i++) porTipo[i] = new HistogramaLatencia();
+        for (Estatisticas est : estatisticas) {
+            for (int i = 0; i < porTipo.length; i++) {
+                porTipo[i].somar(est.latencias[i]);
+                total.somar(est.latencias[i]);
+                falhas[i] += est.falhas[i];
+            }
+            erros.addAll(est.erros);
+        }
+        erros.sort(Comparator.comparingLong(ErroLote::getLinha));
+
+        double segundos = nanosTotais / 1e9;
+        System.err.printf(Locale.ROOT, "Linhas lidas: %d | comandos executados: %d | erros de leitura: %d | falhas: %d%n",
+                linhasLidas, total.getQuantidade(), errosLeitura.size(), erros.size() - errosLeitura.size());
+        System.err.printf(Locale.ROOT, "Tempo: %.3f s | vazão: %.0f comandos/s%n",
+                segundos, total.getQuantidade() / Math.max(segundos, 1e-9));
+        System.err.printf(Locale.ROOT, "%-10s %10s %8s %10s %10s %10s %10s%n",
+                "Latência", "qtd", "falhas", "p50 (µs)", "p90 (µs)", "p99 (µs)", "máx (µs)");
+        for (Tipo tipo : Tipo.values()) {
+            HistogramaLatencia h = porTipo[tipo.ordinal()];
+            if (h.getQuantidade() > 0) imprimirLinha(tipo.name(), h, falhas[tipo.ordinal()]);
+        }
+        imprimirLinha("TOTAL", total, erros.size() - errosLeitura.size());
+
+        int mostrar = Math.min(MAX_ERROS_MOSTRADOS, erros.size());
+        for (int i = 0; i < mostrar; i++) {
+            System.err.println(erros.get(i));
+        }
+        if (erros.size() > mostrar) {
+            System.err.println("... (" + (erros.size() - mostrar) + " erros não mostrados)");
+        }
+    }
+
+    private static void imprimirLinha(String nome, HistogramaLatencia h, long falhas) {
+        System.err.printf(Locale.ROOT, "%-10s %10d %8d %10.1f %10.1f %10.1f %10.1f%n", nome, h.getQuantidade(), falhas,
+                h.percentil(0.50) / 1e3, h.percentil(0.90) / 1e3, h.percentil(0.99) / 1e3, h.getMaximo() / 1e3);
+    }
+}
@@ -1,265 +1,498 @@
-package ui;
-
-import model.Funcionario;
-import service.FuncionarioService;
-import util.FileUtil;
-import exceptions.FuncDuplicadoEx;
-import exceptions.FuncInexistenteEx;
-
-import javax.swing.*;
-import java.io.IOException;
-import java.nio.file.Path;
-import java.text.NumberFormat;
-import java.util.*;
-
-/**
- * Interface simples com JOptionPane para interagir com o usuário.
- */
-public class FuncionarioApp {
-    private final FuncionarioService service;
-    private final Locale localeBR = new Locale("pt", "BR");
-    private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(localeBR);
-
-    public FuncionarioApp() {
-        this.service = new FuncionarioService();
-    }
-
-    public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> {
-            FuncionarioApp app = new FuncionarioApp();
-            app.run();
-        });
-    }
-
-    private void run() {
-        String menu = "Escolha uma opção:\n"
-                + "1 - Cadastrar funcionário\n"
-                + "2 - Mostrar bônus mensal de cada funcionário\n"
-                + "3 - Excluir funcionário\n"
-                + "4 - Alterar salário de um funcionário\n"
-                + "5 - Sair";
-
-        while (true) {
-            String input = JOptionPane.showInputDialog(null, menu, "Gerenciamento RH", JOptionPane.QUESTION_MESSAGE);
-            if (input == null) break; // usuário cancelou -> sai
-            input = input.trim();
-            if (input.isEmpty()) continue;
-
-            switch (input) {
-                case "1":
-                    cadastrarFluxo();
-                    break;
-                case "2":
-                    mostrarBonusFluxo();
-                    break;
-                case "3":
-                    excluirFluxo();
-                    break;
-                case "4":
-                    alterarSalarioFluxo();
-                    break;
-                case "5":
-                    JOptionPane.showMessageDialog(null, "Encerrando aplicação.", "Sair", JOptionPane.INFORMATION_MESSAGE);
-                    return;
-                default:
-                    JOptionPane.showMessageDialog(null, "Opção inválida. Informe 1-5.", "Erro", JOptionPane.ERROR_MESSAGE);
-            }
-        }
-    }
-
-    private void cadastrarFluxo() {
-        try {
-            Integer codigo = lerInteiro("Informe o código do funcionário:");
-            if (codigo == null) return;
-
-            String nome = lerTextoObrigatorio("Informe o nome do funcionário:");
-            if (nome == null) return;
-
-            String cargo = lerTextoObrigatorio("Informe o cargo do funcionário:");
-            if (cargo == null) return;
-
-            Double salario = lerDouble("Informe o salário do funcionário (ex: 2500.50):");
-            if (salario == null) return;
-
-            Integer qtdDeps = lerInteiroComMinimo("Quantos dependentes esse funcionário tem? (0 ou mais):", 0);
-            if (qtdDeps == null) return;
-
-            List<String> nomesDeps = new ArrayList<>();
-            for (int i = 1; i <= qtdDeps; i++) {
-                String nomeDep = lerTextoObrigatorio("Nome do dependente " + i + " de " + qtdDeps + ": (ou CANCEL para abortar cadastro)");
-                if (nomeDep == null) {
-                    // Usuário cancelou a entrada dos dependentes => abortar cadastro inteiro
-                    JOptionPane.showMessageDialog(null, "Cadastro abortado.", "Aviso", JOptionPane.WARNING_MESSAGE);
-                    return;
-                }
-                nomesDeps.add(nomeDep);
-            }
-
-            Funcionario f = new Funcionario(codigo, nome, cargo, salario);
-            service.cadastrarFuncionario(f, nomesDeps);
-            JOptionPane.showMessageDialog(null, "Funcionário cadastrado com sucesso.", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
-        } catch (FuncDuplicadoEx ex) {
-            JOptionPane.showMessageDialog(null, ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(null, "Erro inesperado: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private void mostrarBonusFluxo() {
-        try {
-            List<String> linhas = service.listarBonusFormatado(localeBR);
-            // Formatar valores monetários para exibição (substitui a parte "Bonus: X.XX" por moeda)
-            List<String> linhasFormatadas = new ArrayList<>();
-            for (String linha : linhas) {
-                if (linha.startsWith("Nome: ")) {
-                    // tenta extrair o valor decimal no final
-                    int idx = linha.lastIndexOf("Bonus:");
-                    if (idx >= 0) {
-                        String principio = linha.substring(0, idx);
-                        String valorTxt = linha.substring(idx + "Bonus:".length()).trim();
-                        try {
-                            double valor = Double.parseDouble(valorTxt);
-                            String valorFmt = currencyFormat.format(valor);
-                            linhasFormatadas.add(principio + "Bonus: " + valorFmt);
-                        } catch (NumberFormatException e) {
-                            linhasFormatadas.add(linha);
-                        }
-                    } else {
-                        linhasFormatadas.add(linha);
-                    }
-                } else {
-                    linhasFormatadas.add(linha);
-                }
-            }
-
-            // Exibe no diálogo (concatena com linhas)
-            String texto = String.join("\n", linhasFormatadas);
-            JOptionPane.showMessageDialog(null, texto, "Bônus Mensal", JOptionPane.INFORMATION_MESSAGE);
-
-            // Pergunta se deseja salvar em arquivo
-            int salvar = JOptionPane.showConfirmDialog(null, "Deseja salvar este relatório em arquivo?", "Salvar", JOptionPane.YES_NO_OPTION);
-            if (salvar == JOptionPane.YES_OPTION) {
-                String caminho = JOptionPane.showInputDialog(null, "Informe o caminho e nome do arquivo (ex: bonus_mensal.txt):", "bonus_mensal.txt");
-                if (caminho != null && !caminho.trim().isEmpty()) {
-                    try {
-                        Path caminhoPath = Path.of(caminho.trim());
-                        FileUtil.escreverLinhasEmArquivo(linhasFormatadas, caminhoPath);
-                        JOptionPane.showMessageDialog(null, "Arquivo salvo em: " + caminhoPath.toAbsolutePath(), "Sucesso", JOptionPane.INFORMATION_MESSAGE);
-                    } catch (IOException ioEx) {
-                        JOptionPane.showMessageDialog(null, "Erro ao salvar arquivo: " + ioEx.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
-                    }
-                } else {
-                    JOptionPane.showMessageDialog(null, "Caminho inválido. Operação de salvar cancelada.", "Aviso", JOptionPane.WARNING_MESSAGE);
-                }
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(null, "Erro ao gerar relatório: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private void excluirFluxo() {
-        try {
-            Integer codigo = lerInteiro("Informe o código do funcionário a excluir:");
-            if (codigo == null) return;
-            try {
-                service.excluirFuncionario(codigo);
-                JOptionPane.showMessageDialog(null, "Funcionário e dependentes excluídos.", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
-            } catch (FuncInexistenteEx ex) {
-                JOptionPane.showMessageDialog(null, ex.getMessage(), "Funcionário Inexistente", JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(null, "Erro inesperado: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private void alterarSalarioFluxo() {
-        try {
-            Integer codigo = lerInteiro("Informe o código do funcionário cujo salário será alterado:");
-            if (codigo == null) return;
-            Double novoSalario = lerDouble("Informe o novo salário (ex: 3000.00):");
-            if (novoSalario == null) return;
-
-            try {
-                service.alterarSalario(codigo, novoSalario);
-                JOptionPane.showMessageDialog(null, "Salário alterado com sucesso.", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
-            } catch (FuncInexistenteEx ex) {
-                JOptionPane.showMessageDialog(null, ex.getMessage(), "Funcionário Inexistente", JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(null, "Erro inesperado: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    // ----- helpers de leitura com validação -----
-
-    /**
-     * Lê um inteiro do usuário; retorna null se o usuário cancelar.
-     */
-    private Integer lerInteiro(String mensagem) {
-        while (true) {
-            String s = JOptionPane.showInputDialog(null, mensagem);
-            if (s == null) return null;
-            s = s.trim();
-            if (s.isEmpty()) {
-                JOptionPane.showMessageDialog(null, "Entrada vazia. Informe um número válido ou cancele.", "Erro", JOptionPane.ERROR_MESSAGE);
-                continue;
-            }
-            try {
-                return Integer.parseInt(s);
-            } catch (NumberFormatException e) {
-                JOptionPane.showMessageDialog(null, "Número inválido. Tente novamente.", "Erro", JOptionPane.ERROR_MESSAGE);
-            }
-        }
-    }
-
-    /**
-     * Lê um inteiro com valor mínimo (inclusive). Retorna null se cancelar.
-     */
-    private Integer lerInteiroComMinimo(String mensagem, int minimo) {
-        while (true) {
-            Integer val = lerInteiro(mensagem);
-            if (val == null) return null;
-            if (val < minimo) {
-                JOptionPane.showMessageDialog(null, "Informe um número maior ou igual a " + minimo + ".", "Erro", JOptionPane.ERROR_MESSAGE);
-                continue;
-            }
-            return val;
-        }
-    }
-
-    /**
-     * Lê um double do usuário; retorna null se cancelar.
-     */
-    private Double lerDouble(String mensagem) {
-        while (true) {
-            String s = JOptionPane.showInputDialog(null, mensagem);
-            if (s == null) return null;
-            s = s.trim().replace(',', '.'); // aceita vírgula como decimal
-            if (s.isEmpty()) {
-                JOptionPane.showMessageDialog(null, "Entrada vazia. Informe um número válido ou cancele.", "Erro", JOptionPane.ERROR_MESSAGE);
-                continue;
-            }
-            try {
-                return Double.parseDouble(s);
-            } catch (NumberFormatException e) {
-                JOptionPane.showMessageDialog(null, "Número inválido. Tente novamente.", "Erro", JOptionPane.ERROR_MESSAGE);
-            }
-        }
-    }
-
-    /**
-     * Lê texto obrigatório; se o usuário cancelar retorna null.
-     */
-    private String lerTextoObrigatorio(String mensagem) {
-        while (true) {
-            String s = JOptionPane.showInputDialog(null, mensagem);
-            if (s == null) return null;
-            s = s.trim();
-            if (s.isEmpty()) {
-                JOptionPane.showMessageDialog(null, "Entrada vazia. Informe um valor ou cancele.", "Erro", JOptionPane.ERROR_MESSAGE);
-                continue;
-            }
-            return s;
-        }
-    }
-}
+package ui;
+
+import model.Funcionario;
+import persistence.JournalFuncionarios;
+import service.CursorNome;
+import service.FuncionarioService;
+import service.MonitorFuncionarios;
+import service.Pagina;
+import util.FileUtil;
+import util.ImportadorCsv;
+import exceptions.FuncDuplicadoEx;
+import exceptions.FuncInexistenteEx;
+
+import javax.management.JMException;
+import javax.swing.*;
+import java.awt.BorderLayout;
+import java.awt.Frame;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interface simples com JOptionPane para interagir com o usuário.
+ * Trabalhos demorados (gravar o relatório, importar CSV) rodam em threads de
+ * trabalho, com um diálogo de progresso; a thread do Swing só cuida da tela.
+ */
+public class FuncionarioApp {
+    private static final Path DIRETORIO_DADOS = Path.of("dados");
+    private static final int LINHAS_POR_PAGINA = 100;
+
+    /**
+     * Trabalho executado fora da thread do Swing.
+     */
+    @FunctionalInterface
+    private interface Tarefa<T> {
+        T executar(Progresso progresso) throws Exception;
+    }
+
+    /**
+     * Canal da tarefa com o diálogo de progresso.
+     */
+    @FunctionalInterface
+    private interface Progresso {
+        /**
+         * @param percentual andamento de 0 a 100
+         * @return false se o usuário pediu o cancelamento
+         */
+        boolean atualizar(int percentual);
+    }
+
+    private final FuncionarioService service;
+    private final Locale localeBR = Locale.of("pt", "BR");
+    private final ExecutorService trabalhadores;
+    private JournalFuncionarios journal; // null até restaurar (ou se não foi possível abrir)
+
+    public FuncionarioApp() {
+        this.service = new FuncionarioService();
+        try {
+            MonitorFuncionarios.publicar(service, "app");
+        } catch (JMException ex) {
+            // métricas são opcionais: a aplicação segue sem o monitor JMX
+        }
+        AtomicInteger contador = new AtomicInteger();
+        this.trabalhadores = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "funcionario-app-trabalho-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static void main(String[] args) {
+        SwingUtilities.invokeLater(() -> {
+            FuncionarioApp app = new FuncionarioApp();
+            try {
+                app.journal = app.abrirJournal();
+                app.run();
+            } finally {
+                app.trabalhadores.shutdown();
+                app.fecharJournal();
+            }
+        });
+    }
+
+    /**
+     * Restaura o cadastro salvo (numa thread de trabalho, com o diálogo de
+     * progresso) e passa a gravar as alterações; em caso de erro a aplicação
+     * continua apenas em memória.
+     */
+    private JournalFuncionarios abrirJournal() {
+        try {
+            return executarEmSegundoPlano("Dados", "Carregando dados salvos...", false,
+                    p -> JournalFuncionarios.abrir(DIRETORIO_DADOS, service));
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(null, "Não foi possível carregar os dados salvos: " + ex.getMessage()
+                    + "\nAs alterações não serão gravadas.", "Aviso", JOptionPane.WARNING_MESSAGE);
+            return null;
+        }
+    }
+
+    /**
+     * Espera a alteração que acabou de ser feita chegar ao disco (fsync em
+     * lote do journal) antes de confirmá-la ao usuário.
+     *
+     * @return false se a gravação falhou (o usuário já foi avisado)
+     */
+    private boolean confirmarGravacao() {
+        if (journal == null) return true;
+        try {
+            journal.aguardarGravacao();
+            return true;
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null, "A alteração foi feita, mas não foi gravada em disco: "
+                    + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+    }
+
+    private void fecharJournal() {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null, "Erro ao gravar dados: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void run() {
+        String menu = "Escolha uma opção:\n"
+                + "1 - Cadastrar funcionário\n"
+                + "2 - Mostrar bônus mensal de cada funcionário\n"
+                + "3 - Excluir funcionário\n"
+                + "4 - Alterar salário de um funcionário\n"
+                + "5 - Importar funcionários de arquivo CSV\n"
+                + "6 - Sair";
+
+        while (true) {
+            String input = JOptionPane.showInputDialog(null, menu, "Gerenciamento RH", JOptionPane.QUESTION_MESSAGE);
+            if (input == null) break; // usuário cancelou -> sai
+            input = input.trim();
+            if (input.isEmpty()) continue;
+
+            switch (input) {
+                case "1":
+                    cadastrarFluxo();
+                    break;
+                case "2":
+                    mostrarBonusFluxo();
+                    break;
+                case "3":
+                    excluirFluxo();
+                    break;
+                case "4":
+                    alterarSalarioFluxo();
+                    break;
+                case "5":
+                    importarCsvFluxo();
+                    break;
+                case "6":
+                    JOptionPane.showMessageDialog(null, "Encerrando aplicação.", "Sair", JOptionPane.INFORMATION_MESSAGE);
+                    return;
+                default:
+                    JOptionPane.showMessageDialog(null, "Opção inválida. Informe 1-6.", "Erro", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    private void cadastrarFluxo() {
+        try {
+            Integer codigo = lerInteiro("Informe o código do funcionário:");
+            if (codigo == null) return;
+
+            String nome = lerTextoObrigatorio("Informe o nome do funcionário:");
+            if (nome == null) return;
+
+            String cargo = lerTextoObrigatorio("Informe o cargo do funcionário:");
+            if (cargo == null) return;
+
+            Double salario = lerDouble("Informe o salário do funcionário (ex: 2500.50):");
+            if (salario == null) return;
+
+            Integer qtdDeps = lerInteiroComMinimo("Quantos dependentes esse funcionário tem? (0 ou mais):", 0);
+            if (qtdDeps == null) return;
+
+            List<String> nomesDeps = new ArrayList<>();
+            for (int i = 1; i <= qtdDeps; i++) {
+                String nomeDep = lerTextoObrigatorio("Nome do dependente " + i + " de " + qtdDeps + ": (ou CANCEL para abortar cadastro)");
+                if (nomeDep == null) {
+                    // Usuário cancelou a entrada dos dependentes => abortar cadastro inteiro
+                    JOptionPane.showMessageDialog(null, "Cadastro abortado.", "Aviso", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                nomesDeps.add(nomeDep);
+            }
+
+            Funcionario f = new Funcionario(codigo, nome, cargo, salario);
+            service.cadastrarFuncionario(f, nomesDeps);
+            if (!confirmarGravacao()) return;
+            JOptionPane.showMessageDialog(null, "Funcionário cadastrado com sucesso.", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+        } catch (FuncDuplicadoEx ex) {
+            JOptionPane.showMessageDialog(null, ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(null, "Erro inesperado: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void mostrarBonusFluxo() {
+        try {
+            // Exibe no diálogo uma página por vez (o serviço já formata o bônus como moeda do locale)
+            CursorNome cursor = CursorNome.inicio();
+            int numero = 1;
+            while (cursor != null) {
+                Pagina<String> pagina = service.paginaBonusFormatado(localeBR, cursor, LINHAS_POR_PAGINA);
+                String texto = "Relatório de Bônus Mensal (página " + numero + ")\n"
+                        + "-------------------------\n"
+                        + String.join("\n", pagina.getItens());
+                if (!pagina.temProxima()) {
+                    JOptionPane.showMessageDialog(null, texto, "Bônus Mensal", JOptionPane.INFORMATION_MESSAGE);
+                    break;
+                }
+                String[] opcoes = {"Próxima página", "Fechar"};
+                int escolha = JOptionPane.showOptionDialog(null, texto, "Bônus Mensal", JOptionPane.DEFAULT_OPTION,
+                        JOptionPane.INFORMATION_MESSAGE, null, opcoes, opcoes[0]);
+                if (escolha != 0) break;
+                cursor = pagina.getProximo();
+                numero++;
+            }
+
+            // Pergunta se deseja salvar em arquivo
+            int salvar = JOptionPane.showConfirmDialog(null, "Deseja salvar este relatório em arquivo?", "Salvar", JOptionPane.YES_NO_OPTION);
+            if (salvar == JOptionPane.YES_OPTION) {
+                String caminho = JOptionPane.showInputDialog(null, "Informe o caminho e nome do arquivo (ex: bonus_mensal.txt):", "bonus_mensal.txt");
+                if (caminho != null && !caminho.trim().isEmpty()) {
+                    salvarRelatorio(Path.of(caminho.trim()));
+                } else {
+                    JOptionPane.showMessageDialog(null, "Caminho inválido. Operação de salvar cancelada.", "Aviso", JOptionPane.WARNING_MESSAGE);
+                }
+            }
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(null, "Erro ao gerar relatório: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Gera o relatório completo direto no arquivo, em segundo plano. Se o usuário
+     * cancelar, o arquivo incompleto é apagado.
+     */
+    private void salvarRelatorio(Path caminhoPath) {
+        try {
+            long total = Math.max(1, service.quantidadeFuncionarios());
+            boolean completo = executarEmSegundoPlano("Salvar", "Gravando " + caminhoPath.getFileName() + "...", true, p -> {
+                boolean[] fim = {false};
+                // Gera novamente direto no arquivo, com as linhas formatadas em paralelo
+                FileUtil.escreverEmArquivo(caminhoPath, w -> fim[0] = service.escreverBonusFormatado(localeBR, w,
+                        linhas -> p.atualizar((int) Math.min(100, linhas * 100 / total)), ForkJoinPool.commonPool()));
+                if (!fim[0]) {
+                    Files.deleteIfExists(caminhoPath);
+                }
+                return fim[0];
+            });
+            if (completo) {
+                JOptionPane.showMessageDialog(null, "Arquivo salvo em: " + caminhoPath.toAbsolutePath(), "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, "Gravação cancelada.", "Aviso", JOptionPane.WARNING_MESSAGE);
+            }
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(null, "Erro ao salvar arquivo: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void excluirFluxo() {
+        try {
+            Integer codigo = lerInteiro("Informe o código do funcionário a excluir:");
+            if (codigo == null) return;
+            try {
+                service.excluirFuncionario(codigo);
+                if (!confirmarGravacao()) return;
+                JOptionPane.showMessageDialog(null, "Funcionário e dependentes excluídos.", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+            } catch (FuncInexistenteEx ex) {
+                JOptionPane.showMessageDialog(null, ex.getMessage(), "Funcionário Inexistente", JOptionPane.ERROR_MESSAGE);
+            }
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(null, "Erro inesperado: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void alterarSalarioFluxo() {
+        try {
+            Integer codigo = lerInteiro("Informe o código do funcionário cujo salário será alterado:");
+            if (codigo == null) return;
+            Double novoSalario = lerDouble("Informe o novo salário (ex: 3000.00):");
+            if (novoSalario == null) return;
+
+            try {
+                service.alterarSalario(codigo, novoSalario);
+                if (!confirmarGravacao()) return;
+                JOptionPane.showMessageDialog(null, "Salário alterado com sucesso.", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+            } catch (FuncInexistenteEx ex) {
+                JOptionPane.showMessageDialog(null, ex.getMessage(), "Funcionário Inexistente", JOptionPane.ERROR_MESSAGE);
+            }
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(null, "Erro inesperado: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void importarCsvFluxo() {
+        String caminho = JOptionPane.showInputDialog(null,
+                "Informe o caminho do arquivo CSV (codigo;nome;cargo;salario;dependente1|dependente2):", "funcionarios.csv");
+        if (caminho == null) return;
+        if (caminho.trim().isEmpty()) {
+            JOptionPane.showMessageDialog(null, "Caminho inválido. Importação cancelada.", "Aviso", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        try {
+            Path arquivo = Path.of(caminho.trim());
+            // A importação não pode ser interrompida no meio: o diálogo só mostra que está em andamento
+            ImportadorCsv.Resultado r = executarEmSegundoPlano("Importação", "Importando " + arquivo.getFileName() + "...",
+                    false, p -> ImportadorCsv.importar(arquivo, service));
+            if (!confirmarGravacao()) return;
+            StringBuilder msg = new StringBuilder();
+            msg.append("Linhas lidas: ").append(r.getLinhasLidas())
+                    .append("\nFuncionários importados: ").append(r.getImportados())
+                    .append("\nErros: ").append(r.getErros().size());
+            // Mostra só os primeiros erros para não travar o diálogo
+            int mostrar = Math.min(20, r.getErros().size());
+            for (int i = 0; i < mostrar; i++) {
+                msg.append("\n").append(r.getErros().get(i));
+            }
+            if (r.getErros().size() > mostrar) {
+                msg.append("\n...");
+            }
+            JOptionPane.showMessageDialog(null, msg.toString(), "Importação", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null, "Erro ao ler arquivo: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(null, "Erro inesperado: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // ----- execução em segundo plano -----
+
+    /**
+     * Executa a tarefa em uma thread de trabalho e mostra um diálogo modal de
+     * progresso até ela terminar. O diálogo modal mantém a tela respondendo
+     * (a thread do Swing continua tratando eventos) enquanto o fluxo do menu espera.
+     *
+     * @param cancelavel se o diálogo deve oferecer o botão Cancelar
+     * @return o resultado da tarefa (que decide o que devolver quando é cancelada)
+     * @throws Exception o erro lançado pela tarefa
+     */
+    private <T> T executarEmSegundoPlano(String titulo, String mensagem, boolean cancelavel, Tarefa<T> tarefa)
+            throws Exception {
+        JDialog dialogo = new JDialog((Frame) null, titulo, true);
+        JProgressBar barra = new JProgressBar(0, 100);
+        barra.setIndeterminate(true);
+        barra.setStringPainted(cancelavel);
+        JButton cancelar = new JButton("Cancelar");
+        cancelar.setEnabled(cancelavel);
+
+        // Cancelar só marca o pedido; a tarefa confere em Progresso.atualizar e para sozinha
+        // (sem interromper a thread, para não deixar arquivos fechados pela metade)
+        AtomicBoolean cancelado = new AtomicBoolean();
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return tarefa.executar(percentual -> {
+                    setProgress(Math.max(0, Math.min(100, percentual)));
+                    return !cancelado.get();
+                });
+            }
+
+            @Override
+            protected void done() {
+                dialogo.dispose();
+            }
+        };
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                barra.setIndeterminate(false);
+                barra.setValue((Integer) e.getNewValue());
+            }
+        });
+        Runnable pedirCancelamento = () -> {
+            if (!cancelavel) return;
+            cancelado.set(true);
+            cancelar.setEnabled(false);
+            cancelar.setText("Cancelando...");
+        };
+        cancelar.addActionListener(e -> pedirCancelamento.run());
+        dialogo.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        dialogo.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                pedirCancelamento.run();
+            }
+        });
+
+        JPanel painel = new JPanel(new BorderLayout(8, 8));
+        painel.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        painel.add(new JLabel(mensagem), BorderLayout.NORTH);
+        painel.add(barra, BorderLayout.CENTER);
+        painel.add(cancelar, BorderLayout.SOUTH);
+        dialogo.setContentPane(painel);
+        dialogo.pack();
+        dialogo.setLocationRelativeTo(null);
+
+        trabalhadores.execute(worker);
+        dialogo.setVisible(true); // volta quando done() fecha o diálogo
+        try {
+            return worker.get();
+        } catch (ExecutionException ex) {
+            Throwable causa = ex.getCause();
+            if (causa instanceof Exception) throw (Exception) causa;
+            throw ex;
+        }
+    }
+
+    // ----- helpers de leitura com validação -----
+
+    /**
+     * Lê um inteiro do usuário; retorna null se o usuário cancelar.
+     */
+    private Integer lerInteiro(String mensagem) {
+        while (true) {
+            String s = JOptionPane.showInputDialog(null, mensagem);
+            if (s == null) return null;
+            s = s.trim();
+            if (s.isEmpty()) {
+                JOptionPane.showMessageDialog(null, "Entrada vazia. Informe um número válido ou cancele.", "Erro", JOptionPane.ERROR_MESSAGE);
+                continue;
+            }
+            try {
+                return Integer.parseInt(s);
+            } catch (NumberFormatException e) {
+                JOptionPane.showMessageDialog(null, "Número inválido. Tente novamente.", "Erro", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    /**
+     * Lê um inteiro com valor mínimo (inclusive). Retorna null se cancelar.
+     */
+    private Integer lerInteiroComMinimo(String mensagem, int minimo) {
+        while (true) {
+            Integer val = lerInteiro(mensagem);
+            if (val == null) return null;
+            if (val < minimo) {
+                JOptionPane.showMessageDialog(null, "Informe um número maior ou igual a " + minimo + ".", "Erro", JOptionPane.ERROR_MESSAGE);
+                continue;
+            }
+            return val;
+        }
+    }
+
+    /**
+     * Lê um double do usuário; retorna null se cancelar.
+     */
+    private Double lerDouble(String mensagem) {
+        while (true) {
+            String s = JOptionPane.showInputDialog(null, mensagem);
+            if (s == null) return null;
+            s = s.trim().replace(',', '.'); // aceita vírgula como decimal
+            if (s.isEmpty()) {
+                JOptionPane.showMessageDialog(null, "Entrada vazia. Informe um número válido ou cancele.", "Erro", JOptionPane.ERROR_MESSAGE);
+                continue;
+            }
+            try {
+                return Double.parseDouble(s);
+            } catch (NumberFormatException e) {
+                JOptionPane.showMessageDialog(null, "Número inválido. Tente novamente.", "Erro", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    /**
+     * Lê texto obrigatório; se o usuário cancelar retorna null.
+     */
+    private String lerTextoObrigatorio(String mensagem) {
+        while (true) {
+            String s = JOptionPane.showInputDialog(null, mensagem);
+            if (s == null) return null;
+            s = s.trim();
+            if (s.isEmpty()) {
+                JOptionPane.showMessageDialog(null, "Entrada vazia. Informe um valor ou cancele.", "Erro", JOptionPane.ERROR_MESSAGE);
+                continue;
+            }
+            return s;
+        }
+    }
+}
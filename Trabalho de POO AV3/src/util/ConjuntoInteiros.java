@@ -0,0 +1,112 @@
+package util;
+
+import java.util.Arrays;
+
+import static util.EnderecamentoAberto.espalhar;
+import static util.EnderecamentoAberto.podeMover;
+
+/**
+ * Conjunto de ints sem boxing: tabela de endereçamento aberto (sondagem
+ * linear) com ocupação máxima de 75%. Os métodos são sincronizados; a cópia
+ * devolvida por {@link #copiar()} pode ser percorrida sem trava.
+ */
+public final class ConjuntoInteiros {
+    private static final int VAZIO = Integer.MIN_VALUE;
+
+    private int[] tabela = vazia(8);
+    private int tamanho;          // sem contar VAZIO
+    private boolean temVazio;     // o próprio Integer.MIN_VALUE, que não cabe na tabela
+
+    /**
+     * @return true se o valor não estava no conjunto
+     */
+    public synchronized boolean adicionar(int valor) {
+        if (valor == VAZIO) {
+            boolean novo = !temVazio;
+            temVazio = true;
+            return novo;
+        }
+        int mascara = tabela.length - 1;
+        int s = espalhar(valor) & mascara;
+        for (int v; (v = tabela[s]) != VAZIO; s = (s + 1) & mascara) {
+            if (v == valor) return false;
+        }
+        tabela[s] = valor;
+        if (++tamanho > tabela.length * 3 / 4) crescer();
+        return true;
+    }
+
+    /**
+     * @return true se o valor estava no conjunto
+     */
+    public synchronized boolean remover(int valor) {
+        if (valor == VAZIO) {
+            boolean tinha = temVazio;
+            temVazio = false;
+            return tinha;
+        }
+        int mascara = tabela.length - 1;
+        int s = espalhar(valor) & mascara;
+        for (int v; (v = tabela[s]) != valor; s = (s + 1) & mascara) {
+            if (v == VAZIO) return false;
+        }
+        // Puxa para trás as entradas seguintes do agrupamento que ficariam inalcançáveis
+        int vazio = s;
+        while (true) {
+            s = (s + 1) & mascara;
+            int v = tabela[s];
+            if (v == VAZIO) break;
+            if (podeMover(vazio, s, espalhar(v) & mascara)) {
+                tabela[vazio] = v;
+                vazio = s;
+            }
+        }
+        tabela[vazio] = VAZIO;
+        tamanho--;
+        return true;
+    }
+
+    public synchronized boolean contem(int valor) {
+        if (valor == VAZIO) return temVazio;
+        int mascara = tabela.length - 1;
+        for (int s = espalhar(valor) & mascara, v; (v = tabela[s]) != VAZIO; s = (s + 1) & mascara) {
+            if (v == valor) return true;
+        }
+        return false;
+    }
+
+    public synchronized int tamanho() {
+        return tamanho + (temVazio ? 1 : 0);
+    }
+
+    /**
+     * @return os valores do conjunto, em ordem qualquer
+     */
+    public synchronized int[] copiar() {
+        int[] valores = new int[tamanho()];
+        int n = 0;
+        for (int v : tabela) {
+            if (v != VAZIO) valores[n++] = v;
+        }
+        if (temVazio) valores[n] = VAZIO;
+        return valores;
+    }
+
+    private void crescer() {
+        int[] antiga = tabela;
+        tabela = vazia(antiga.length * 2);
+        int mascara = tabela.length - 1;
+        for (int v : antiga) {
+            if (v == VAZIO) continue;
+            int s = espalhar(v) & mascara;
+            while (tabela[s] != VAZIO) s = (s + 1) & mascara;
+            tabela[s] = v;
+        }
+    }
+
+    private static int[] vazia(int capacidade) {
+        int[] t = new int[capacidade];
+        Arrays.fill(t, VAZIO);
+        return t;
+    }
+}
@@ -0,0 +1,68 @@
+package util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dicionário de textos compartilhado entre threads: cada texto distinto
+ * recebe um id inteiro pequeno (0, 1, 2...) e uma única instância canônica.
+ *
+ * Serve para valores que se repetem muito (cargos, nomes): guardar a
+ * instância canônica faz todos os registros apontarem para a mesma String,
+ * e o id permite agrupar por índice de array em vez de comparar textos.
+ * Os textos nunca saem do dicionário.
+ */
+public final class DicionarioTextos {
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    // Publicado com escrita volatile antes do id entrar no mapa
+    private volatile String[] textos = new String[16];
+    private int tamanho; // protegido por this
+
+    /**
+     * @return o id do texto, registrando-o se ainda não existir
+     */
+    public int id(String texto) {
+        Integer id = ids.get(texto);
+        return id != null ? id : registrar(texto);
+    }
+
+    /**
+     * @return o id do texto, ou -1 se ele não estiver no dicionário
+     */
+    public int buscar(String texto) {
+        Integer id = texto == null ? null : ids.get(texto);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return o texto do id informado
+     */
+    public String texto(int id) {
+        return textos[id];
+    }
+
+    /**
+     * @return a instância canônica do texto (null continua null)
+     */
+    public String internar(String texto) {
+        return texto == null ? null : texto(id(texto));
+    }
+
+    /**
+     * Quantidade de textos distintos; os ids válidos são [0, tamanho).
+     */
+    public int tamanho() {
+        return ids.size();
+    }
+
+    private synchronized int registrar(String texto) {
+        Integer existente = ids.get(texto);
+        if (existente != null) return existente;
+        String[] t = textos;
+        if (tamanho == t.length) t = Arrays.copyOf(t, tamanho * 2);
+        t[tamanho] = texto;
+        textos = t;
+        ids.put(texto, tamanho);
+        return tamanho++;
+    }
+}
@@ -0,0 +1,35 @@
+package util;
+
+/**
+ * Funções comuns às tabelas de endereçamento aberto com sondagem linear
+ * ({@link ConjuntoInteiros}, {@link MapaInteiros} e os índices por código
+ * dos armazenamentos).
+ *
+ * A remoção não deixa marcas: a partir do slot liberado, as entradas
+ * seguintes do agrupamento são puxadas para trás quando
+ * {@link #podeMover} permite, até o primeiro slot vazio.
+ */
+public final class EnderecamentoAberto {
+
+    private EnderecamentoAberto() {
+    }
+
+    /**
+     * Espalha códigos sequenciais pela tabela (hash multiplicativo de
+     * Fibonacci com os bits altos dobrados sobre os baixos); os bits baixos
+     * escolhem o slot, e os altos servem para escolher o segmento.
+     */
+    public static int espalhar(int valor) {
+        int h = valor * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Na remoção, diz se a entrada no slot {@code s}, cujo slot ideal é
+     * {@code ideal}, pode ir para o buraco em {@code vazio}: pode, se o ideal
+     * dela não estiver entre (vazio, s] (circularmente).
+     */
+    public static boolean podeMover(int vazio, int s, int ideal) {
+        return vazio <= s ? (ideal <= vazio || ideal > s) : (ideal <= vazio && ideal > s);
+    }
+}
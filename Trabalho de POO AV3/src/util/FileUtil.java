@@ -1,34 +1,81 @@
-package util;
-
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.util.List;
-
-/**
- * Utilitário simples para gravar linhas em arquivo de texto.
- */
-public class FileUtil {
-
-    /**
-     * Grava as linhas no arquivo informado (cria/overwrite).
-     *
-     * @param linhas caminho do arquivo
-     * @throws IOException em caso de erro de I/O
-     */
-    public static void escreverLinhasEmArquivo(List<String> linhas, Path caminho) throws IOException {
-        // Certifica diretório existente
-        if (caminho.getParent() != null) {
-            Files.createDirectories(caminho.getParent());
-        }
-        try (BufferedWriter writer = Files.newBufferedWriter(caminho,
-                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
-            for (String linha : linhas) {
-                writer.write(linha == null ? "" : linha);
-                writer.newLine();
-            }
-        }
-    }
-}
+package util;
+
+import metrics.HistogramaLatencia;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Utilitário simples para gravar linhas em arquivo de texto.
+ */
+public class FileUtil {
+    // Tempo de cada gravação completa (abrir, escrever e fechar) e quantas falharam
+    private static final HistogramaLatencia LATENCIA_ESCRITA = new HistogramaLatencia();
+    private static final LongAdder FALHAS_ESCRITA = new LongAdder();
+
+    /**
+     * Grava as linhas no arquivo informado (cria/overwrite).
+     *
+     * @param linhas caminho do arquivo
+     * @throws IOException em caso de erro de I/O
+     */
+    public static void escreverLinhasEmArquivo(List<String> linhas, Path caminho) throws IOException {
+        escreverEmArquivo(caminho, writer -> {
+            for (String linha : linhas) {
+                writer.write(linha == null ? "" : linha);
+                writer.newLine();
+            }
+        });
+    }
+
+    /**
+     * Abre o arquivo (cria/overwrite) e entrega o writer para o conteúdo ser
+     * gravado aos poucos, sem precisar montar todas as linhas em memória.
+     *
+     * @param caminho  caminho do arquivo
+     * @param conteudo quem escreve o conteúdo no writer
+     * @throws IOException em caso de erro de I/O
+     */
+    public static void escreverEmArquivo(Path caminho, Conteudo conteudo) throws IOException {
+        // Certifica diretório existente
+        if (caminho.getParent() != null) {
+            Files.createDirectories(caminho.getParent());
+        }
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(caminho,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                conteudo.escrever(writer);
+            }
+            sucesso = true;
+        } finally {
+            LATENCIA_ESCRITA.registrar(System.nanoTime() - inicio);
+            if (!sucesso) FALHAS_ESCRITA.increment();
+        }
+    }
+
+    /**
+     * Latências de todas as gravações feitas por {@link #escreverEmArquivo}.
+     */
+    public static HistogramaLatencia getLatenciaEscrita() {
+        return LATENCIA_ESCRITA;
+    }
+
+    public static long getFalhasEscrita() {
+        return FALHAS_ESCRITA.sum();
+    }
+
+    /**
+     * Escreve o conteúdo de um arquivo no writer recebido.
+     */
+    @FunctionalInterface
+    public interface Conteudo {
+        void escrever(BufferedWriter writer) throws IOException;
+    }
+}
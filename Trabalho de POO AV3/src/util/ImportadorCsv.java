@@ -0,0 +1,262 @@
+package util;
+
+import model.Funcionario;
+import service.CadastroLote;
+import service.ErroLote;
+import service.FuncionarioService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Importação em massa de funcionários a partir de um arquivo CSV.
+ *
+ * Formato de cada linha (separador ';', dependentes separados por '|'):
+ * <pre>codigo;nome;cargo;salario;dependente1|dependente2</pre>
+ * A coluna de dependentes é opcional e o salário aceita vírgula como decimal.
+ * Uma primeira linha de cabeçalho (código não numérico) é ignorada.
+ *
+ * O arquivo é mapeado em memória e dividido em pedaços (sempre em fim de linha),
+ * que são lidos em paralelo. Linhas inválidas e códigos repetidos não interrompem
+ * a importação: aparecem no relatório de erros.
+ */
+public class ImportadorCsv {
+    private static final long TAMANHO_MIN_PEDACO = 4L * 1024 * 1024;
+    private static final long TAMANHO_MAX_PEDACO = 512L * 1024 * 1024;
+
+    /**
+     * Resultado da importação: quantidade de linhas com dados, quantos
+     * funcionários foram cadastrados e os erros por linha.
+     */
+    public static class Resultado {
+        private final long linhasLidas;
+        private final long importados;
+        private final List<ErroLote> erros;
+
+        Resultado(long linhasLidas, long importados, List<ErroLote> erros) {
+            this.linhasLidas = linhasLidas;
+            this.importados = importados;
+            this.erros = erros;
+        }
+
+        public long getLinhasLidas() {
+            return linhasLidas;
+        }
+
+        public long getImportados() {
+            return importados;
+        }
+
+        public List<ErroLote> getErros() {
+            return erros;
+        }
+    }
+
+    // Resultado da leitura de um pedaço do arquivo
+    private static class Pedaco {
+        final List<CadastroLote> itens = new ArrayList<>();
+        final List<ErroLote> erros = new ArrayList<>();
+        long linhasComDados;
+    }
+
+    public static Resultado importar(Path arquivo, FuncionarioService service) throws IOException {
+        return importar(arquivo, service, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Lê o CSV e cadastra os funcionários válidos com {@link FuncionarioService#cadastrarEmLote}.
+     *
+     * @param paralelismo em quantos pedaços (no mínimo) dividir o arquivo para leitura em paralelo
+     * @throws IOException em caso de erro de I/O
+     */
+    public static Resultado importar(Path arquivo, FuncionarioService service, int paralelismo) throws IOException {
+        List<Pedaco> pedacos;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long[] limites = dividir(canal, Math.max(1, paralelismo));
+            int n = limites.length - 1;
+            MappedByteBuffer[] mapas = new MappedByteBuffer[n];
+            for (int i = 0; i < n; i++) {
+                mapas[i] = canal.map(FileChannel.MapMode.READ_ONLY, limites[i], limites[i + 1] - limites[i]);
+            }
+
+            // 1ª passada: conta as linhas de cada pedaço para saber o número da primeira linha de cada um
+            long[] contagens = IntStream.range(0, n).parallel().mapToLong(i -> contarLinhas(mapas[i])).toArray();
+            long[] primeiraLinha = new long[n];
+            long acumulado = 1;
+            for (int i = 0; i < n; i++) {
+                primeiraLinha[i] = acumulado;
+                acumulado += contagens[i];
+            }
+
+            // 2ª passada: leitura dos registros em paralelo
+            pedacos = IntStream.range(0, n).parallel()
+                    .mapToObj(i -> lerPedaco(mapas[i], primeiraLinha[i]))
+                    .collect(Collectors.toList());
+        }
+
+        // Validação em lote dos códigos repetidos dentro do próprio arquivo (vale a primeira ocorrência)
+        long linhasLidas = 0;
+        int totalItens = 0;
+        for (Pedaco p : pedacos) {
+            totalItens += p.itens.size();
+        }
+        List<CadastroLote> validos = new ArrayList<>(totalItens);
+        List<ErroLote> erros = new ArrayList<>();
+        Set<Integer> vistos = new HashSet<>(Math.max(16, totalItens * 4 / 3 + 1));
+        for (Pedaco p : pedacos) {
+            linhasLidas += p.linhasComDados;
+            erros.addAll(p.erros);
+            for (CadastroLote item : p.itens) {
+                int codigo = item.getFuncionario().getCodigo();
+                if (vistos.add(codigo)) {
+                    validos.add(item);
+                } else {
+                    erros.add(new ErroLote(item.getLinha(), codigo, "Código repetido no arquivo"));
+                }
+            }
+        }
+
+        List<ErroLote> errosCadastro = service.cadastrarEmLote(validos);
+        erros.addAll(errosCadastro);
+        erros.sort(Comparator.comparingLong(ErroLote::getLinha));
+        return new Resultado(linhasLidas, validos.size() - errosCadastro.size(), erros);
+    }
+
+    /**
+     * Calcula os limites dos pedaços, sempre logo após uma quebra de linha.
+     */
+    private static long[] dividir(FileChannel canal, int paralelismo) throws IOException {
+        long tamanho = canal.size();
+        long alvo = Math.min(TAMANHO_MAX_PEDACO, Math.max(TAMANHO_MIN_PEDACO, (tamanho + paralelismo - 1) / paralelismo));
+        List<Long> limites = new ArrayList<>();
+        limites.add(0L);
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        long pos = alvo;
+        while (pos < tamanho) {
+            long fimLinha = -1;
+            long p = pos;
+            while (fimLinha < 0 && p < tamanho) {
+                buf.clear();
+                int lidos = canal.read(buf, p);
+                if (lidos <= 0) break;
+                for (int i = 0; i < lidos; i++) {
+                    if (buf.get(i) == '\n') {
+                        fimLinha = p + i + 1;
+                        break;
+                    }
+                }
+                p += lidos;
+            }
+            if (fimLinha < 0 || fimLinha >= tamanho) break;
+            limites.add(fimLinha);
+            pos = fimLinha + alvo;
+        }
+        limites.add(tamanho);
+        long[] r = new long[limites.size()];
+        for (int i = 0; i < r.length; i++) r[i] = limites.get(i);
+        return r;
+    }
+
+    private static long contarLinhas(ByteBuffer mapa) {
+        long linhas = 0;
+        int fim = mapa.limit();
+        for (int i = 0; i < fim; i++) {
+            if (mapa.get(i) == '\n') linhas++;
+        }
+        if (fim > 0 && mapa.get(fim - 1) != '\n') linhas++; // última linha sem quebra
+        return linhas;
+    }
+
+    private static Pedaco lerPedaco(ByteBuffer mapa, long primeiraLinha) {
+        Pedaco pedaco = new Pedaco();
+        byte[] bytes = new byte[256];
+        long linha = primeiraLinha;
+        int inicio = 0;
+        int fim = mapa.limit();
+        while (inicio < fim) {
+            int i = inicio;
+            while (i < fim && mapa.get(i) != '\n') i++;
+            int tam = i - inicio;
+            if (tam > 0 && mapa.get(i - 1) == '\r') tam--;
+            if (tam > bytes.length) bytes = new byte[Math.max(tam, bytes.length * 2)];
+            mapa.get(inicio, bytes, 0, tam);
+            String texto = new String(bytes, 0, tam, StandardCharsets.UTF_8);
+            lerLinha(texto, linha, pedaco);
+            linha++;
+            inicio = i + 1;
+        }
+        return pedaco;
+    }
+
+    private static void lerLinha(String texto, long linha, Pedaco pedaco) {
+        if (texto.isBlank()) return;
+        String[] campos = dividirCampos(texto, ';', 5);
+        Integer codigo = inteiro(campos[0]);
+        if (codigo == null) {
+            // cabeçalho na primeira linha
+            if (linha != 1) {
+                pedaco.linhasComDados++;
+                pedaco.erros.add(new ErroLote(linha, 0, "Código inválido: " + campos[0].trim()));
+            }
+            return;
+        }
+        pedaco.linhasComDados++;
+
+        String nome = campos[1] == null ? "" : campos[1].trim();
+        String cargo = campos[2] == null ? "" : campos[2].trim();
+        if (nome.isEmpty() || cargo.isEmpty() || campos[3] == null) {
+            pedaco.erros.add(new ErroLote(linha, codigo, "Linha incompleta"));
+            return;
+        }
+        double salario;
+        try {
+            salario = Double.parseDouble(campos[3].trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            pedaco.erros.add(new ErroLote(linha, codigo, "Salário inválido: " + campos[3].trim()));
+            return;
+        }
+
+        List<String> dependentes = new ArrayList<>();
+        if (campos[4] != null) {
+            for (String dep : dividirCampos(campos[4], '|', Integer.MAX_VALUE)) {
+                if (dep != null && !dep.trim().isEmpty()) dependentes.add(dep.trim());
+            }
+        }
+        pedaco.itens.add(new CadastroLote(linha, new Funcionario(codigo, nome, cargo, salario), dependentes));
+    }
+
+    /**
+     * Divide o texto em no máximo {@code max} campos; campos ausentes ficam null.
+     */
+    private static String[] dividirCampos(String texto, char separador, int max) {
+        List<String> campos = new ArrayList<>(Math.min(max, 8));
+        int inicio = 0;
+        while (campos.size() < max - 1) {
+            int sep = texto.indexOf(separador, inicio);
+            if (sep < 0) break;
+            campos.add(texto.substring(inicio, sep));
+            inicio = sep + 1;
+        }
+        campos.add(texto.substring(inicio));
+        if (max != Integer.MAX_VALUE) {
+            while (campos.size() < max) campos.add(null);
+        }
+        return campos.toArray(new String[0]);
+    }
+
+    private static Integer inteiro(String s) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
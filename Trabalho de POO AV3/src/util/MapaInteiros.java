@@ -0,0 +1,109 @@
+package util;
+
+import java.util.Arrays;
+
+import static util.EnderecamentoAberto.espalhar;
+import static util.EnderecamentoAberto.podeMover;
+
+/**
+ * Mapa de int para int sem boxing, no mesmo formato do
+ * {@link ConjuntoInteiros}: chaves e valores em arrays paralelos, sondagem
+ * linear e ocupação máxima de 75%. Os métodos são sincronizados.
+ */
+public final class MapaInteiros {
+    private static final int VAZIO = Integer.MIN_VALUE;
+
+    private int[] chaves = vazia(8);
+    private int[] valores = new int[8];
+    private int tamanho;          // sem contar VAZIO
+    private boolean temVazio;     // a própria chave Integer.MIN_VALUE, que não cabe na tabela
+    private int valorVazio;
+
+    public synchronized void colocar(int chave, int valor) {
+        if (chave == VAZIO) {
+            temVazio = true;
+            valorVazio = valor;
+            return;
+        }
+        int mascara = chaves.length - 1;
+        int s = espalhar(chave) & mascara;
+        for (int c; (c = chaves[s]) != VAZIO; s = (s + 1) & mascara) {
+            if (c == chave) {
+                valores[s] = valor;
+                return;
+            }
+        }
+        chaves[s] = chave;
+        valores[s] = valor;
+        if (++tamanho > chaves.length * 3 / 4) crescer();
+    }
+
+    /**
+     * @return o valor da chave, ou {@code padrao} se ela não estiver no mapa
+     */
+    public synchronized int obter(int chave, int padrao) {
+        if (chave == VAZIO) return temVazio ? valorVazio : padrao;
+        int mascara = chaves.length - 1;
+        for (int s = espalhar(chave) & mascara, c; (c = chaves[s]) != VAZIO; s = (s + 1) & mascara) {
+            if (c == chave) return valores[s];
+        }
+        return padrao;
+    }
+
+    /**
+     * @return true se a chave estava no mapa
+     */
+    public synchronized boolean remover(int chave) {
+        if (chave == VAZIO) {
+            boolean tinha = temVazio;
+            temVazio = false;
+            return tinha;
+        }
+        int mascara = chaves.length - 1;
+        int s = espalhar(chave) & mascara;
+        for (int c; (c = chaves[s]) != chave; s = (s + 1) & mascara) {
+            if (c == VAZIO) return false;
+        }
+        // Puxa para trás as entradas seguintes do agrupamento que ficariam inalcançáveis
+        int vazio = s;
+        while (true) {
+            s = (s + 1) & mascara;
+            int c = chaves[s];
+            if (c == VAZIO) break;
+            if (podeMover(vazio, s, espalhar(c) & mascara)) {
+                chaves[vazio] = c;
+                valores[vazio] = valores[s];
+                vazio = s;
+            }
+        }
+        chaves[vazio] = VAZIO;
+        tamanho--;
+        return true;
+    }
+
+    public synchronized int tamanho() {
+        return tamanho + (temVazio ? 1 : 0);
+    }
+
+    private void crescer() {
+        int[] antigasChaves = chaves;
+        int[] antigosValores = valores;
+        chaves = vazia(antigasChaves.length * 2);
+        valores = new int[chaves.length];
+        int mascara = chaves.length - 1;
+        for (int i = 0; i < antigasChaves.length; i++) {
+            int c = antigasChaves[i];
+            if (c == VAZIO) continue;
+            int s = espalhar(c) & mascara;
+            while (chaves[s] != VAZIO) s = (s + 1) & mascara;
+            chaves[s] = c;
+            valores[s] = antigosValores[i];
+        }
+    }
+
+    private static int[] vazia(int capacidade) {
+        int[] t = new int[capacidade];
+        Arrays.fill(t, VAZIO);
+        return t;
+    }
+}
@@ -0,0 +1,38 @@
+package metrics;
+
+import metrics.MetricasServico.Operacao;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Amostragem das operações sobre um funcionário: todas as chamadas são
+ * contadas, só as sorteadas são cronometradas.
+ */
+class MetricasServicoTest {
+
+    @Test
+    void amostradasContamTodasAsChamadasECronometramUmaEmN() {
+        MetricasServico m = new MetricasServico();
+        m.setAmostragem(64);
+        int n = 64_000;
+        for (int i = 0; i < n; i++) {
+            m.registrarAmostrado(Operacao.CONTAR_DEPENDENTES, m.inicioAmostrado(), i % 2 == 0, i);
+        }
+        assertEquals(n, m.getChamadas(Operacao.CONTAR_DEPENDENTES));
+        assertEquals(n / 2, m.getFalhas(Operacao.CONTAR_DEPENDENTES));
+        long cronometradas = m.getLatencia(Operacao.CONTAR_DEPENDENTES).getQuantidade();
+        assertTrue(cronometradas > n / 64 / 2 && cronometradas < n / 64 * 2, "cronometradas: " + cronometradas);
+    }
+
+    @Test
+    void amostragemUmCronometraTodas() {
+        MetricasServico m = new MetricasServico();
+        m.setAmostragem(1);
+        for (int i = 0; i < 1000; i++) {
+            m.registrarAmostrado(Operacao.EXCLUIR, m.inicioAmostrado(), true, i);
+        }
+        assertEquals(1000, m.getChamadas(Operacao.EXCLUIR));
+        assertEquals(1000, m.getLatencia(Operacao.EXCLUIR).getQuantidade());
+    }
+}
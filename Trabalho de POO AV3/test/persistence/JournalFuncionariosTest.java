@@ -0,0 +1,77 @@
+package persistence;
+
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.ConsultaFuncionarios;
+import service.FuncionarioService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Restauração do journal e falhas do snapshot.
+ */
+class JournalFuncionariosTest {
+
+    @Test
+    void reaplicaJournalSobreSnapshotSemExcecoes(@TempDir Path dir) throws Exception {
+        FuncionarioService s = new FuncionarioService();
+        try (JournalFuncionarios j = JournalFuncionarios.abrir(dir, s)) {
+            s.cadastrarFuncionario(new Funcionario(1, "Ana", "Dev", 3000), List.of("Bia"));
+            s.cadastrarFuncionario(new Funcionario(2, "Bruno", "Dev", 2000), List.of());
+            j.snapshot();
+            // Depois do snapshot: exclusão e recadastro do mesmo código, e um código que deixa de existir
+            s.excluirFuncionario(1);
+            s.cadastrarFuncionario(new Funcionario(1, "Ana", "Gerente", 5000), List.of("Bia", "Caio"));
+            s.alterarSalario(2, 2500);
+            s.excluirFuncionario(2);
+        }
+
+        FuncionarioService restaurado = new FuncionarioService();
+        JournalFuncionarios.abrir(dir, restaurado).close();
+        List<Funcionario> todos = restaurado.buscarFuncionarios(ConsultaFuncionarios.todos());
+        assertEquals(1, todos.size());
+        assertEquals("Gerente", todos.get(0).getCargo());
+        assertEquals(2, restaurado.contarDependentes(1));
+    }
+
+    @Test
+    void snapshotQueFalhaApagaOTemporario(@TempDir Path dir) throws Exception {
+        FuncionarioService s = new FuncionarioService();
+        JournalFuncionarios j = JournalFuncionarios.abrir(dir, s);
+        s.cadastrarFuncionario(new Funcionario(1, "Ana", "Dev", 3000), List.of());
+        // O destino do próximo snapshot (geração 2) é um diretório não vazio: a troca falha
+        Files.createDirectories(dir.resolve("snapshot-2.bin").resolve("x"));
+
+        assertThrows(IOException.class, j::snapshot);
+        assertFalse(Files.exists(dir.resolve("snapshot-2.tmp")));
+        j.close();
+    }
+
+    @Test
+    void falhaDoSnapshotEmSegundoPlanoChegaAoAguardarGravacao(@TempDir Path dir) throws Exception {
+        FuncionarioService s = new FuncionarioService();
+        JournalFuncionarios j = JournalFuncionarios.abrir(dir, s, 2, 5);
+        Files.createDirectories(dir.resolve("snapshot-2.bin").resolve("x"));
+        s.cadastrarFuncionario(new Funcionario(1, "Ana", "Dev", 3000), List.of());
+        s.cadastrarFuncionario(new Funcionario(2, "Bruno", "Dev", 2000), List.of()); // dispara o snapshot
+
+        IOException falha = null;
+        for (long fim = System.nanoTime() + 10_000_000_000L; falha == null && System.nanoTime() < fim; ) {
+            try {
+                j.aguardarGravacao();
+                Thread.sleep(5);
+            } catch (IOException e) {
+                falha = e;
+            }
+        }
+        assertNotNull(falha, "a falha do snapshot não foi informada");
+        assertFalse(Files.exists(dir.resolve("snapshot-2.tmp")));
+        assertThrows(IOException.class, j::close);
+    }
+}
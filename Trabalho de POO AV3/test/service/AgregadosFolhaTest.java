@@ -0,0 +1,144 @@
+package service;
+
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import storage.ArmazenamentoFuncionarios;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Totais da folha mantidos incrementalmente pelo FuncionarioService contra
+ * os esperados e contra um recálculo completo ({@link FuncionarioService#verificarAgregados}).
+ */
+class AgregadosFolhaTest {
+    private static final String[] CARGOS = {"Analista", "Gerente", "Desenvolvedor", "Assistente", "Diretor", null};
+    private static final int CODIGOS = 5_000;
+    private static final int OPERACOES = 40_000;
+    private static final int RODADAS = 4;
+    private static final int THREADS = 4;
+
+    @Test
+    void totaisAcompanhamCadastroExclusaoEAlteracao() throws Exception {
+        FuncionarioService s = new FuncionarioService();
+        s.cadastrarFuncionario(new Funcionario(1, "Ana", "Analista", 3000), List.of("Bia", "Caio"));
+        s.cadastrarFuncionario(new Funcionario(2, "Bruno", "Analista", 2000), List.of());
+        s.cadastrarFuncionario(new Funcionario(3, "Carla", "Gerente", 8000), List.of("Davi"));
+        s.alterarSalario(2, 2500);
+        s.excluirFuncionario(3);
+
+        ResumoFolha geral = s.resumoFolha();
+        assertEquals(2, geral.getQuantidadeFuncionarios());
+        assertEquals(2, geral.getQuantidadeDependentes());
+        assertEquals(5500, geral.getTotalSalarios(), 1e-9);
+        assertEquals(s.calcBonus(3000, 2) + s.calcBonus(2500, 0), geral.getTotalBonus(), 1e-9);
+
+        ResumoFolha gerentes = s.resumoFolha("Gerente");
+        assertEquals(0, gerentes.getQuantidadeFuncionarios());
+        assertEquals(0, gerentes.getTotalSalarios(), 1e-9);
+        assertEquals(Map.of("Analista", 2L), s.quantidadePorCargo());
+        assertEquals(List.of(), s.verificarAgregados());
+    }
+
+    /**
+     * Reajuste grande o bastante para a varredura se dividir em várias
+     * tarefas, no pool de quem chama: cada tarefa soma a sua parte e o total
+     * tem de bater com o recálculo.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"mapa", "colunar", "foraDoHeap"})
+    void reajusteNoPoolInformadoSomaTodasAsTarefas(String nome) throws Exception {
+        ArmazenamentoFuncionarios armazenamento = Armazenamentos.criar(nome);
+        FuncionarioService s = new FuncionarioService(armazenamento);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int n = 100_000;
+            for (int codigo = 1; codigo <= n; codigo++) {
+                s.cadastrarFuncionario(new Funcionario(codigo, "F" + codigo, CARGOS[codigo % 5], 1000), List.of());
+            }
+            long alterados = s.reajustarSalarios(FiltroFuncionarios.todos(), Reajuste.valorFixo(10), pool);
+            assertEquals(n, alterados);
+            assertEquals(n * 1010.0, s.resumoFolha().getTotalSalarios(), 1e-6);
+            assertEquals(List.of(), s.verificarAgregados());
+        } finally {
+            pool.shutdown();
+            Armazenamentos.fechar(armazenamento);
+        }
+    }
+
+    /**
+     * Rodadas de cadastros (também em lote), exclusões, alterações de salário
+     * e reajustes em lote sobre códigos e cargos sorteados (inclusive cargo
+     * null), em várias threads e com um snapshot aberto em metade das
+     * rodadas; os totais são conferidos ao fim de cada rodada.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"mapa", "colunar", "foraDoHeap"})
+    void totaisConferemComRecalculoDepoisDeAlteracoesConcorrentes(String nome) throws Exception {
+        ArmazenamentoFuncionarios armazenamento = Armazenamentos.criar(nome);
+        FuncionarioService s = new FuncionarioService(armazenamento);
+        s.setRastrearExcecoes(false);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int rodada = 1; rodada <= RODADAS; rodada++) {
+                // Snapshot aberto: as escritas também guardam o estado anterior
+                SnapshotFuncionarios snapshot = rodada % 2 == 0 ? s.abrirSnapshot() : null;
+                List<Future<?>> tarefas = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    tarefas.add(pool.submit(() -> alterar(s, OPERACOES / THREADS)));
+                }
+                for (Future<?> f : tarefas) f.get();
+                if (snapshot != null) snapshot.close();
+
+                assertEquals(List.of(), s.verificarAgregados(), "rodada " + rodada);
+                assertEquals(s.quantidadeFuncionarios(), s.resumoFolha().getQuantidadeFuncionarios(), "rodada " + rodada);
+            }
+        } finally {
+            pool.shutdownNow();
+            Armazenamentos.fechar(armazenamento);
+        }
+    }
+
+    private static Void alterar(FuncionarioService s, int operacoes) {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        for (int i = 0; i < operacoes; i++) {
+            int codigo = r.nextInt(CODIGOS);
+            int sorteio = r.nextInt(100);
+            if (sorteio < 30) {
+                s.tentarCadastrar(funcionario(r, codigo), dependentes(r));
+            } else if (sorteio < 50) {
+                s.tentarExcluir(codigo);
+            } else if (sorteio < 98) {
+                s.tentarAlterarSalario(codigo, 1000 + r.nextInt(9000) + r.nextInt(100) / 100.0);
+            } else if (sorteio < 99) {
+                List<CadastroLote> lote = new ArrayList<>();
+                for (int k = 0; k < 50; k++) {
+                    lote.add(new CadastroLote(k, funcionario(r, r.nextInt(CODIGOS)), dependentes(r)));
+                }
+                s.cadastrarEmLote(lote);
+            } else {
+                String cargo = CARGOS[r.nextInt(CARGOS.length - 1)];
+                s.reajustarSalarios(FiltroFuncionarios.todos().doCargo(cargo), Reajuste.percentual(r.nextInt(11) - 5));
+            }
+        }
+        return null;
+    }
+
+    private static Funcionario funcionario(ThreadLocalRandom r, int codigo) {
+        return new Funcionario(codigo, "Funcionario " + codigo, CARGOS[r.nextInt(CARGOS.length)], 1000 + r.nextInt(9000));
+    }
+
+    private static List<String> dependentes(ThreadLocalRandom r) {
+        List<String> nomes = new ArrayList<>();
+        for (int i = r.nextInt(4); i > 0; i--) nomes.add("Dependente " + r.nextInt(1000));
+        return nomes;
+    }
+}
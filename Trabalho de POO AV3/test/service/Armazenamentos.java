@@ -0,0 +1,34 @@
+package service;
+
+import storage.ArmazenamentoColunar;
+import storage.ArmazenamentoForaDoHeap;
+import storage.ArmazenamentoFuncionarios;
+import storage.ArmazenamentoMapa;
+
+/**
+ * Armazenamentos por nome, para os testes parametrizados rodarem o mesmo
+ * cenário sobre cada um.
+ */
+final class Armazenamentos {
+
+    private Armazenamentos() {
+    }
+
+    static ArmazenamentoFuncionarios criar(String nome) {
+        switch (nome) {
+            case "mapa":
+                return new ArmazenamentoMapa();
+            case "colunar":
+                return new ArmazenamentoColunar();
+            case "foraDoHeap":
+                return new ArmazenamentoForaDoHeap();
+            default:
+                throw new IllegalArgumentException("Armazenamento desconhecido: " + nome);
+        }
+    }
+
+    // O fora do heap devolve a memória nativa na hora
+    static void fechar(ArmazenamentoFuncionarios armazenamento) throws Exception {
+        if (armazenamento instanceof AutoCloseable) ((AutoCloseable) armazenamento).close();
+    }
+}
@@ -0,0 +1,45 @@
+package service;
+
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorNomeTest {
+
+    @Test
+    void ordemIgnoraMaiusculasMasDesempataPeloNomeExato() {
+        CursorNome minusculo = new CursorNome("ana", 7);
+        CursorNome maiusculo = new CursorNome("Ana", 7);
+        assertNotEquals(minusculo, maiusculo);
+        assertNotEquals(0, minusculo.compareTo(maiusculo));
+        assertEquals(-Integer.signum(minusculo.compareTo(maiusculo)), Integer.signum(maiusculo.compareTo(minusculo)));
+        assertEquals(0, minusculo.compareTo(new CursorNome("ana", 7)));
+
+        assertTrue(new CursorNome("ana", 9).compareTo(new CursorNome("Bruno", 1)) < 0);
+        assertTrue(new CursorNome("Bruno", 1).compareTo(new CursorNome("carla", 0)) < 0);
+        assertTrue(CursorNome.inicio().compareTo(minusculo) < 0);
+        assertTrue(CursorNome.apos("ana").compareTo(minusculo) > 0);
+    }
+
+    @Test
+    void relatorioEmCacheTrocaALinhaDoCodigoRecadastradoComOutraCaixa() throws Exception {
+        FuncionarioService s = new FuncionarioService();
+        s.cadastrarFuncionario(new Funcionario(7, "ana", "Analista", 3000), List.of());
+        s.cadastrarFuncionario(new Funcionario(8, "Bruno", "Analista", 3000), List.of());
+        assertEquals(4, s.listarBonusFormatado(Locale.ROOT).size()); // título, separador e 2 linhas; gera o cache
+
+        s.excluirFuncionario(7);
+        s.cadastrarFuncionario(new Funcionario(7, "Ana", "Gerente", 5000), List.of());
+
+        List<String> relatorio = s.listarBonusFormatado(Locale.ROOT);
+        List<String> linhas = relatorio.subList(2, relatorio.size());
+        assertEquals(2, linhas.size(), relatorio.toString());
+        assertTrue(linhas.get(0).contains("Ana"), linhas.toString());
+        assertFalse(linhas.get(0).contains("ana"), linhas.toString());
+        assertEquals(linhas, s.paginaBonusFormatado(Locale.ROOT, null, 10).getItens());
+    }
+}
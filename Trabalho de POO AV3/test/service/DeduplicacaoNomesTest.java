@@ -0,0 +1,74 @@
+package service;
+
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deduplicação de nomes ({@link FuncionarioService#setDeduplicarNomes}): os
+ * textos de cada funcionário são instâncias novas, como saem de uma
+ * importação de CSV; sem o dicionário, cada funcionário guardaria a sua
+ * cópia de cada nome de dependente (os cargos são sempre deduplicados).
+ */
+class DeduplicacaoNomesTest {
+    private static final int FUNCIONARIOS = 200_000;
+    private static final int CARGOS = 300;
+    private static final int NOMES = 500;
+    private static final int DEPENDENTES = 2;
+    private static final int ECONOMIA_MINIMA = 32; // bytes por funcionário; cada cópia evitada tem ao menos 40
+
+    @Test
+    void textosIguaisViramAMesmaInstancia() throws Exception {
+        FuncionarioService s = new FuncionarioService();
+        s.setDeduplicarNomes(true);
+        s.cadastrarFuncionario(new Funcionario(1, "Ana", new String("Analista"), 3000), List.of(new String("Bia")));
+        s.cadastrarFuncionario(new Funcionario(2, "Bruno", new String("Analista"), 3000), List.of(new String("Bia")));
+
+        List<Funcionario> todos = new ArrayList<>(s.listarFuncionarios());
+        assertEquals(2, todos.size());
+        assertSame(todos.get(0).getCargo(), todos.get(1).getCargo());
+        assertSame(s.listarDependentes(1).get(0).getNome(), s.listarDependentes(2).get(0).getNome());
+    }
+
+    @Test
+    void deduplicarEconomizaHeap() throws Exception {
+        long sem = heapDoCadastro(false);
+        long com = heapDoCadastro(true);
+        assertTrue(sem - com > (long) FUNCIONARIOS * ECONOMIA_MINIMA, String.format(Locale.ROOT,
+                "%.1f bytes/funcionário sem deduplicar, %.1f com", sem / (double) FUNCIONARIOS, com / (double) FUNCIONARIOS));
+    }
+
+    private static long heapDoCadastro(boolean deduplicar) throws Exception {
+        long antes = heapUsado();
+        FuncionarioService s = new FuncionarioService();
+        s.setDeduplicarNomes(deduplicar);
+        for (int codigo = 0; codigo < FUNCIONARIOS; codigo++) {
+            List<String> deps = new ArrayList<>(DEPENDENTES);
+            for (int i = 0; i < DEPENDENTES; i++) {
+                deps.add(new String("Dependente " + ((codigo * 31 + i) % NOMES)));
+            }
+            String cargo = new String("Cargo " + (codigo % CARGOS));
+            s.cadastrarFuncionario(new Funcionario(codigo, "Funcionario " + codigo, cargo, 1500 + codigo % 9000), deps);
+        }
+        long depois = heapUsado();
+        assertEquals(FUNCIONARIOS, s.quantidadeFuncionarios());
+        return depois - antes;
+    }
+
+    // Heap ocupado depois de algumas coletas completas
+    private static long heapUsado() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,110 @@
+package service;
+
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * O custo por funcionário das consultas de dependentes, da exclusão e do
+ * relatório de bônus não pode crescer com o cadastro: com um cadastro 20
+ * vezes maior, uma operação linear no cadastro (busca linear nos
+ * dependentes, por exemplo) ficaria umas 20 vezes mais cara por
+ * funcionário. A tolerância cobre caches de CPU e ruído da máquina.
+ */
+class EscalabilidadeTest {
+    private static final int PEQUENO = 10_000;
+    private static final int GRANDE = 200_000;
+    private static final int DEPENDENTES = 2;
+    private static final int REPETICOES = 3;
+    private static final double TOLERANCIA = 5;
+
+    @Test
+    void consultaDeDependentesEscalaLinearmente() throws Exception {
+        assertLinear("contarDependentes", (s, ordem) -> {
+            long soma = 0;
+            for (int codigo : ordem) soma += s.contarDependentes(codigo);
+            return soma;
+        }, false);
+        assertLinear("listarDependentes", (s, ordem) -> {
+            long soma = 0;
+            for (int codigo : ordem) soma += s.listarDependentes(codigo).size();
+            return soma;
+        }, false);
+    }
+
+    @Test
+    void relatorioDeBonusEscalaLinearmente() throws Exception {
+        assertLinear("escreverBonusFormatado", (s, ordem) -> {
+            s.escreverBonusFormatado(Locale.ROOT, Writer.nullWriter());
+            return 0;
+        }, false);
+    }
+
+    @Test
+    void exclusaoEscalaLinearmente() throws Exception {
+        assertLinear("excluirFuncionario", (s, ordem) -> {
+            for (int codigo : ordem) s.excluirFuncionario(codigo);
+            return 0;
+        }, true);
+    }
+
+    private interface Operacao {
+        long executar(FuncionarioService s, int[] ordem) throws Exception;
+    }
+
+    private static void assertLinear(String nome, Operacao operacao, boolean destrutiva) throws Exception {
+        double pequeno = nsPorFuncionario(PEQUENO, operacao, destrutiva);
+        double grande = nsPorFuncionario(GRANDE, operacao, destrutiva);
+        double razao = grande / pequeno;
+        assertTrue(razao <= TOLERANCIA, String.format(Locale.ROOT,
+                "%s: %.1f ns/funcionário com %d e %.1f com %d (%.1fx)", nome, pequeno, PEQUENO, grande, GRANDE, razao));
+    }
+
+    // Melhor de algumas repetições, em ordem aleatória dos códigos
+    private static double nsPorFuncionario(int n, Operacao operacao, boolean destrutiva) throws Exception {
+        int[] ordem = embaralhados(n);
+        FuncionarioService s = destrutiva ? null : popular(n);
+        long melhor = Long.MAX_VALUE;
+        long sumidouro = 0;
+        for (int i = 0; i < REPETICOES; i++) {
+            FuncionarioService alvo = destrutiva ? popular(n) : s;
+            long inicio = System.nanoTime();
+            sumidouro += operacao.executar(alvo, ordem);
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        assertTrue(sumidouro >= 0);
+        return melhor / (double) n;
+    }
+
+    private static FuncionarioService popular(int n) throws Exception {
+        FuncionarioService s = new FuncionarioService();
+        s.setRastrearExcecoes(false);
+        for (int codigo = 0; codigo < n; codigo++) {
+            List<String> deps = new ArrayList<>(DEPENDENTES);
+            for (int i = 0; i < DEPENDENTES; i++) deps.add("Dependente " + codigo + "-" + i);
+            s.cadastrarFuncionario(new Funcionario(codigo, "Funcionario " + codigo, "Cargo " + codigo % 50,
+                    1500 + codigo % 9000), deps);
+        }
+        return s;
+    }
+
+    private static int[] embaralhados(int n) {
+        int[] codigos = new int[n];
+        for (int i = 0; i < n; i++) codigos[i] = i;
+        Random r = new Random(42);
+        for (int i = n - 1; i > 0; i--) {
+            int j = r.nextInt(i + 1);
+            int t = codigos[i];
+            codigos[i] = codigos[j];
+            codigos[j] = t;
+        }
+        return codigos;
+    }
+}
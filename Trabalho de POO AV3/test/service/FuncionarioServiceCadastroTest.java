@@ -0,0 +1,44 @@
+package service;
+
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuncionarioServiceCadastroTest {
+
+    @Test
+    void cadastroRecusadoNaoAlteraOFuncionarioDeQuemChamou() throws Exception {
+        FuncionarioService s = new FuncionarioService();
+        s.setDeduplicarNomes(true);
+        s.cadastrarFuncionario(new Funcionario(1, "Ana", "Analista", 3000), List.of());
+
+        String nome = new String("Ana");
+        String cargo = new String("Analista");
+        Funcionario duplicado = new Funcionario(1, nome, cargo, 5000);
+        assertEquals(ResultadoOperacao.DUPLICADO, s.tentarCadastrar(duplicado, List.of("Dependente")));
+        assertSame(nome, duplicado.getNome());
+        assertSame(cargo, duplicado.getCargo());
+        assertEquals(3000, unico(s).getSalario());
+    }
+
+    @Test
+    void servicoGuardaUmaCopiaDoFuncionario() throws Exception {
+        FuncionarioService s = new FuncionarioService();
+        Funcionario f = new Funcionario(1, "Ana", "Analista", 3000);
+        s.cadastrarFuncionario(f, List.of());
+        f.setSalario(9999);
+        s.alterarSalario(1, 4000);
+
+        assertEquals(9999, f.getSalario());
+        assertEquals(4000, unico(s).getSalario());
+        assertEquals(4000, s.resumoFolha().getTotalSalarios());
+    }
+
+    private static Funcionario unico(FuncionarioService s) {
+        assertEquals(1, s.quantidadeFuncionarios());
+        return s.listarFuncionarios().iterator().next();
+    }
+}
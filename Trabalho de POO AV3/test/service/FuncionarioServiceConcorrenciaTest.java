@@ -0,0 +1,224 @@
+package service;
+
+import model.Funcionario;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import storage.ArmazenamentoFuncionarios;
+
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Estresse do FuncionarioService compartilhado entre threads: nenhuma
+ * alteração pode se perder, e cadastro e dependentes entram e saem juntos.
+ * <ol>
+ * <li>cadastro disputado: todas as threads tentam cadastrar os mesmos
+ * códigos; cada código deve ser aceito exatamente uma vez;</li>
+ * <li>carga mista: as threads cadastram, excluem e alteram salários de
+ * códigos sorteados, contando os sucessos de cada uma, enquanto outras
+ * threads leem dependentes, totais e relatórios e reajustes em lote somam 1
+ * ao salário dos funcionários do cargo "Contador";</li>
+ * <li>conferência: o cadastro final deve ser exatamente o que os sucessos
+ * contados explicam, e os totais mantidos devem bater com ele e com um
+ * recálculo completo.</li>
+ * </ol>
+ * As falhas são juntadas (as threads não podem falhar o teste) e conferidas no fim.
+ */
+class FuncionarioServiceConcorrenciaTest {
+    private static final String CONTADOR = "Contador";
+    private static final int CODIGOS_CONTADOR = 1000; // cadastrados com códigos negativos, fora da carga mista
+    private static final int THREADS = 4;
+    private static final int LEITORES = 2;
+    private static final int CODIGOS = 20_000;
+    private static final int OPERACOES = 400_000;
+    private static final int REAJUSTES = 50;
+
+    private final List<String> falhas = Collections.synchronizedList(new ArrayList<>());
+
+    @ParameterizedTest
+    @ValueSource(strings = {"mapa", "colunar", "foraDoHeap"})
+    void nenhumaAlteracaoSePerde(String nome) throws Exception {
+        ArmazenamentoFuncionarios armazenamento = Armazenamentos.criar(nome);
+        FuncionarioService s = new FuncionarioService(armazenamento);
+        s.setRastrearExcecoes(false);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + LEITORES + 1);
+        try {
+            cadastroDisputado(s, pool);
+            long[][] saldos = cargaMista(s, pool);
+            conferir(s, saldos);
+        } finally {
+            pool.shutdownNow();
+            Armazenamentos.fechar(armazenamento);
+        }
+        assertEquals(List.of(), falhas.subList(0, Math.min(20, falhas.size())), falhas.size() + " falha(s)");
+    }
+
+    // Todas as threads tentam cadastrar todos os códigos (cada uma numa ordem)
+    private void cadastroDisputado(FuncionarioService s, ExecutorService pool) throws Exception {
+        List<Future<long[]>> aceitos = new ArrayList<>();
+        CountDownLatch largada = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            int deslocamento = t * (CODIGOS / THREADS);
+            aceitos.add(pool.submit(() -> {
+                largada.await();
+                long[] porCodigo = new long[CODIGOS];
+                for (int i = 0; i < CODIGOS; i++) {
+                    int codigo = (i + deslocamento) % CODIGOS;
+                    if (s.tentarCadastrar(funcionario(codigo, "Cadastro"), dependentes(codigo)).isSucesso()) {
+                        porCodigo[codigo]++;
+                    }
+                }
+                return porCodigo;
+            }));
+        }
+        largada.countDown();
+        long[] total = new long[CODIGOS];
+        for (Future<long[]> f : aceitos) {
+            long[] porCodigo = f.get();
+            for (int i = 0; i < CODIGOS; i++) total[i] += porCodigo[i];
+        }
+        for (int codigo = 0; codigo < CODIGOS; codigo++) {
+            if (total[codigo] != 1) falha("código " + codigo + " aceito " + total[codigo] + " vezes no cadastro disputado");
+            if (s.contarDependentes(codigo) != codigo % 4) falha("código " + codigo + " com dependentes incompletos");
+        }
+        if (s.quantidadeFuncionarios() != CODIGOS) {
+            falha("cadastro disputado: " + s.quantidadeFuncionarios() + " funcionários, esperado " + CODIGOS);
+        }
+
+        for (int i = 1; i <= CODIGOS_CONTADOR; i++) {
+            s.cadastrarFuncionario(new Funcionario(-i, "Contador " + i, CONTADOR, 0), List.of());
+        }
+    }
+
+    /**
+     * @return por thread, o saldo de cada código (+1 por cadastro aceito, -1 por exclusão aceita)
+     */
+    private long[][] cargaMista(FuncionarioService s, ExecutorService pool) throws Exception {
+        AtomicBoolean fim = new AtomicBoolean();
+        List<Future<?>> auxiliares = new ArrayList<>();
+        for (int l = 0; l < LEITORES; l++) {
+            auxiliares.add(pool.submit(() -> ler(s, fim)));
+        }
+        auxiliares.add(pool.submit(() -> {
+            FiltroFuncionarios doContador = FiltroFuncionarios.todos().doCargo(CONTADOR);
+            for (int i = 0; i < REAJUSTES; i++) {
+                long alterados = s.reajustarSalarios(doContador, Reajuste.valorFixo(1));
+                if (alterados != CODIGOS_CONTADOR) falha("reajuste alterou " + alterados + " funcionários");
+            }
+            return null;
+        }));
+
+        List<Future<long[]>> trabalhadores = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            trabalhadores.add(pool.submit(() -> {
+                long[] saldo = new long[CODIGOS];
+                ThreadLocalRandom r = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERACOES / THREADS; i++) {
+                    int codigo = r.nextInt(CODIGOS);
+                    int sorteio = r.nextInt(8);
+                    if (sorteio == 0) {
+                        if (s.tentarExcluir(codigo).isSucesso()) saldo[codigo]--;
+                    } else if (sorteio == 1) {
+                        if (s.tentarCadastrar(funcionario(codigo, "Carga"), dependentes(codigo)).isSucesso()) {
+                            saldo[codigo]++;
+                        }
+                    } else {
+                        s.tentarAlterarSalario(codigo, 1000 + r.nextInt(9000));
+                    }
+                }
+                return saldo;
+            }));
+        }
+        long[][] saldos = new long[THREADS][];
+        for (int t = 0; t < THREADS; t++) saldos[t] = trabalhadores.get(t).get();
+        fim.set(true);
+        for (Future<?> f : auxiliares) f.get();
+        return saldos;
+    }
+
+    // Leitores: nunca podem ver um funcionário com parte dos dependentes
+    private Void ler(FuncionarioService s, AtomicBoolean fim) throws Exception {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        long leituras = 0;
+        while (!fim.get()) {
+            int codigo = r.nextInt(CODIGOS);
+            int qtd = s.listarDependentes(codigo).size();
+            if (qtd != 0 && qtd != codigo % 4) falha("código " + codigo + " lido com " + qtd + " dependentes");
+            if (++leituras % 20_000 == 0) {
+                s.escreverBonusFormatado(Locale.ROOT, Writer.nullWriter());
+                s.resumoFolhaPorCargo();
+            }
+        }
+        return null;
+    }
+
+    // Chamado com as threads paradas
+    private void conferir(FuncionarioService s, long[][] saldos) {
+        Map<Integer, Funcionario> atuais = new HashMap<>();
+        for (Funcionario f : s.listarFuncionarios()) {
+            if (atuais.put(f.getCodigo(), f) != null) falha("código " + f.getCodigo() + " listado duas vezes");
+        }
+
+        long esperados = CODIGOS_CONTADOR;
+        long dependentesEsperados = 0;
+        for (int codigo = 0; codigo < CODIGOS; codigo++) {
+            long presenca = 1; // todos existiam ao fim do cadastro disputado
+            for (long[] saldo : saldos) presenca += saldo[codigo];
+            if (presenca != 0 && presenca != 1) {
+                falha("código " + codigo + ": os sucessos contados deixariam " + presenca + " cadastros");
+                continue;
+            }
+            boolean existe = atuais.containsKey(codigo);
+            if (existe != (presenca == 1)) {
+                falha("código " + codigo + (existe ? " existe" : " não existe") + ", mas os sucessos contados dizem o contrário");
+            }
+            int qtd = s.contarDependentes(codigo);
+            if (qtd != (existe ? codigo % 4 : 0)) falha("código " + codigo + " terminou com " + qtd + " dependentes");
+            esperados += presenca;
+            dependentesEsperados += presenca * (codigo % 4);
+        }
+        for (int i = 1; i <= CODIGOS_CONTADOR; i++) {
+            Funcionario f = atuais.get(-i);
+            if (f == null || f.getSalario() != REAJUSTES) {
+                falha("contador " + i + " com salário " + (f == null ? "-" : f.getSalario()) + ", esperado " + REAJUSTES);
+            }
+        }
+
+        if (atuais.size() != esperados || s.quantidadeFuncionarios() != esperados) {
+            falha("cadastro com " + atuais.size() + " funcionários, esperado " + esperados);
+        }
+        ResumoFolha resumo = s.resumoFolha();
+        if (resumo.getQuantidadeFuncionarios() != esperados || resumo.getQuantidadeDependentes() != dependentesEsperados) {
+            falha("totais mantidos " + resumo + ", esperado " + esperados + " funcionários e "
+                    + dependentesEsperados + " dependentes");
+        }
+        ResumoFolha contadores = s.resumoFolha(CONTADOR);
+        if (contadores.getTotalSalarios() != (double) REAJUSTES * CODIGOS_CONTADOR) {
+            falha("total de salários do cargo " + CONTADOR + " " + contadores.getTotalSalarios()
+                    + ", esperado " + (double) REAJUSTES * CODIGOS_CONTADOR);
+        }
+        for (String d : s.verificarAgregados()) falha("totais da folha: " + d);
+    }
+
+    private static Funcionario funcionario(int codigo, String origem) {
+        return new Funcionario(codigo, origem + " " + codigo, "Cargo " + (codigo % 7), 1500 + codigo % 9000);
+    }
+
+    private static List<String> dependentes(int codigo) {
+        List<String> nomes = new ArrayList<>(codigo % 4);
+        for (int i = 0; i < codigo % 4; i++) nomes.add("Dependente " + codigo + "-" + i);
+        return nomes;
+    }
+
+    private void falha(String mensagem) {
+        falhas.add(mensagem);
+    }
+}
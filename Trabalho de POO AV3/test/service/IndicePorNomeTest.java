@@ -0,0 +1,98 @@
+package service;
+
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Índice por nome quando uma exclusão fica pendente por causa de um
+ * snapshot aberto e o código volta a ser cadastrado antes de ele fechar.
+ */
+class IndicePorNomeTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Ana", "ana", "ANA Maria"})
+    void recadastroComExclusaoPendenteContinuaNoIndiceDepoisDoSnapshot(String novoNome) throws Exception {
+        FuncionarioService s = new FuncionarioService();
+        s.setIndiceBusca(true);
+        s.cadastrarFuncionario(new Funcionario(7, "ana", "Analista", 3000), List.of());
+        s.cadastrarFuncionario(new Funcionario(8, "Bruno", "Analista", 3000), List.of());
+
+        SnapshotFuncionarios snapshot = s.abrirSnapshot();
+        s.excluirFuncionario(7); // a chave "ana"/7 só sai do índice quando o snapshot fechar
+        s.cadastrarFuncionario(new Funcionario(7, novoNome, "Gerente", 5000), List.of("Dependente"));
+        assertEquals(List.of("ana", "Bruno"), nomes(snapshot.ordenadosPorNome()));
+        snapshot.close();
+
+        assertEquals(List.of(novoNome, "Bruno"), nomes(todasAsPaginas(s)));
+        assertEquals(List.of(novoNome, "Bruno"), nomes(s.buscarFuncionarios(ConsultaFuncionarios.todos())));
+        assertEquals(List.of(novoNome),
+                nomes(s.buscarFuncionarios(ConsultaFuncionarios.todos().nomeContendo("ana"))));
+
+        List<String> relatorio = s.listarBonusFormatado(Locale.ROOT);
+        assertEquals(4, relatorio.size(), relatorio.toString()); // título, separador e 2 linhas
+        assertTrue(relatorio.get(2).startsWith("Nome: " + novoNome + ";"), relatorio.toString());
+        StringWriter escrito = new StringWriter();
+        s.escreverBonusFormatado(Locale.ROOT, escrito);
+        assertEquals(String.join(System.lineSeparator(), relatorio) + System.lineSeparator(), escrito.toString());
+    }
+
+    @Test
+    void exclusaoPendenteSemRecadastroSaiDoIndiceAoFecharOSnapshot() throws Exception {
+        FuncionarioService s = new FuncionarioService();
+        s.cadastrarFuncionario(new Funcionario(7, "ana", "Analista", 3000), List.of());
+        s.cadastrarFuncionario(new Funcionario(8, "Bruno", "Analista", 3000), List.of());
+
+        try (SnapshotFuncionarios snapshot = s.abrirSnapshot()) {
+            s.excluirFuncionario(7);
+            assertEquals(List.of("ana", "Bruno"), nomes(snapshot.ordenadosPorNome()));
+            assertEquals(List.of("Bruno"), nomes(todasAsPaginas(s)));
+        }
+        assertEquals(List.of("Bruno"), nomes(todasAsPaginas(s)));
+    }
+
+    @Test
+    void paginaDoSnapshotTrazDependentesDaVersaoDele() throws Exception {
+        FuncionarioService s = new FuncionarioService();
+        s.cadastrarFuncionario(new Funcionario(7, "ana", "Analista", 3000), List.of("Bia"));
+        s.cadastrarFuncionario(new Funcionario(8, "Bruno", "Analista", 3000), List.of());
+
+        try (SnapshotFuncionarios snapshot = s.abrirSnapshot()) {
+            s.excluirFuncionario(7);
+            s.cadastrarFuncionario(new Funcionario(7, "Ana", "Gerente", 5000), List.of("Bia", "Caio"));
+            Pagina<SnapshotFuncionarios.Visivel> primeira = snapshot.paginaPorNome(CursorNome.inicio(), 1);
+            assertEquals(1, primeira.getItens().size());
+            assertEquals("ana", primeira.getItens().get(0).getFuncionario().getNome());
+            assertEquals(1, primeira.getItens().get(0).getQtdDependentes());
+            Pagina<SnapshotFuncionarios.Visivel> segunda = snapshot.paginaPorNome(primeira.getProximo(), 1);
+            assertEquals("Bruno", segunda.getItens().get(0).getFuncionario().getNome());
+            assertNull(segunda.getProximo());
+        }
+    }
+
+    // Percorre as páginas de 1 em 1, para o cursor passar por cada chave
+    private static List<Funcionario> todasAsPaginas(FuncionarioService s) {
+        List<Funcionario> todos = new ArrayList<>();
+        CursorNome cursor = null;
+        do {
+            Pagina<Funcionario> pagina = s.paginaPorNome(cursor, 1);
+            todos.addAll(pagina.getItens());
+            cursor = pagina.getProximo();
+        } while (cursor != null);
+        return todos;
+    }
+
+    private static List<String> nomes(Iterable<Funcionario> funcionarios) {
+        List<String> nomes = new ArrayList<>();
+        for (Funcionario f : funcionarios) nomes.add(f.getNome());
+        return nomes;
+    }
+}
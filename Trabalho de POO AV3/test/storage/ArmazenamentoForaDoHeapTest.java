@@ -0,0 +1,121 @@
+package storage;
+
+import model.Dependente;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Armazenamento fora do heap contra o {@link ArmazenamentoMapa}, mais a
+ * compactação dos textos e o fechamento das arenas.
+ */
+class ArmazenamentoForaDoHeapTest {
+
+    @Test
+    void mesmoConteudoQueOMapaDepoisDeOperacoesAleatorias() {
+        try (ArmazenamentoForaDoHeap fora = new ArmazenamentoForaDoHeap()) {
+            ArmazenamentoMapa mapa = new ArmazenamentoMapa();
+            Random r = new Random(3);
+            for (int k = 0; k < 300_000; k++) {
+                int codigo = r.nextInt(20_000) - 500;
+                int sorteio = r.nextInt(4);
+                if (sorteio < 2) {
+                    String nome = r.nextInt(50) == 0 ? null : "Nome ção " + codigo + "x".repeat(r.nextInt(80));
+                    String cargo = r.nextInt(10) == 0 ? null : "Cargo " + r.nextInt(5);
+                    int dependentes = r.nextInt(3);
+                    double salario = r.nextInt(10_000);
+                    assertEquals(inserir(mapa, codigo, nome, cargo, salario, dependentes),
+                            inserir(fora, codigo, nome, cargo, salario, dependentes));
+                } else if (sorteio == 2) {
+                    Funcionario esperado = mapa.remover(codigo);
+                    Funcionario removido = fora.remover(codigo);
+                    assertEquals(esperado == null, removido == null);
+                    if (esperado != null) assertEquals(esperado.getNome(), removido.getNome());
+                } else {
+                    assertEquals(mapa.alterarSalario(codigo, k), fora.alterarSalario(codigo, k));
+                }
+            }
+
+            assertEquals(mapa.tamanho(), fora.tamanho());
+            for (Funcionario esperado : mapa) {
+                int codigo = esperado.getCodigo();
+                Funcionario f = fora.buscar(codigo);
+                assertNotNull(f, "código " + codigo);
+                assertEquals(esperado.getNome(), f.getNome());
+                assertEquals(esperado.getCargo(), f.getCargo());
+                assertEquals(esperado.getSalario(), f.getSalario());
+                assertEquals(nomes(mapa.listarDependentes(codigo)), nomes(fora.listarDependentes(codigo)));
+                assertEquals(mapa.contarDependentes(codigo), fora.contarDependentes(codigo));
+            }
+            int iterados = 0;
+            for (Funcionario f : fora) iterados++;
+            assertEquals(mapa.tamanho(), iterados);
+            assertEquals(mapa.ajustarSalarios(() -> ArmazenamentoForaDoHeapTest::reajustarCargo1),
+                    fora.ajustarSalarios(() -> ArmazenamentoForaDoHeapTest::reajustarCargo1));
+        }
+    }
+
+    @Test
+    void compactacaoDevolveAMemoriaDosTextosExcluidos() throws Exception {
+        try (ArmazenamentoForaDoHeap fora = new ArmazenamentoForaDoHeap()) {
+            String longo = "x".repeat(200);
+            long primeiraOnda = 0;
+            long pico = 0;
+            // Ondas de cadastro e exclusão: sem compactação, os textos de cada onda se acumulariam
+            for (int onda = 0; onda < 10; onda++) {
+                for (int codigo = 0; codigo < 20_000; codigo++) inserir(fora, codigo, longo + onda, "Cargo", 1000, 2);
+                if (onda == 0) primeiraOnda = fora.getBytesForaDoHeap();
+                pico = Math.max(pico, fora.getBytesForaDoHeap());
+                for (int codigo = 0; codigo < 20_000; codigo++) fora.remover(codigo);
+            }
+            inserir(fora, 1, "Ana", "Cargo", 1000, 0);
+            assertTrue(pico <= 2 * primeiraOnda, pico + " bytes no pico, " + primeiraOnda + " na primeira onda");
+
+            // A compactação roda em segundo plano; os registros e índices ficam no tamanho do pico
+            for (int i = 0; i < 100 && fora.getBytesForaDoHeap() > primeiraOnda; i++) Thread.sleep(50);
+            assertTrue(fora.getBytesForaDoHeap() <= primeiraOnda,
+                    fora.getBytesForaDoHeap() + " bytes depois das exclusões, " + primeiraOnda + " na primeira onda");
+            assertEquals("Ana", fora.buscar(1).getNome());
+        }
+    }
+
+    @Test
+    void fecharDevolveAMemoriaEImpedeOUso() {
+        ArmazenamentoForaDoHeap fora = new ArmazenamentoForaDoHeap();
+        for (int codigo = 0; codigo < 10_000; codigo++) inserir(fora, codigo, "Nome " + codigo, "Cargo", 1000, 1);
+        assertTrue(fora.getBytesForaDoHeap() > 0);
+
+        fora.close();
+        assertEquals(0, fora.getBytesForaDoHeap());
+        assertEquals(0, fora.tamanho());
+        assertThrows(IllegalStateException.class, () -> fora.buscar(1));
+        assertThrows(IllegalStateException.class, () -> fora.inserir(new Funcionario(1, "Ana", null, 1), List.of()));
+        fora.close();
+    }
+
+    private static double reajustarCargo1(int codigo, String cargo, double salario, int dependentes) {
+        return "Cargo 1".equals(cargo) ? salario + 1 : Double.NaN;
+    }
+
+    private static boolean inserir(ArmazenamentoFuncionarios armazenamento, int codigo, String nome, String cargo,
+                                   double salario, int dependentes) {
+        Funcionario f = new Funcionario(codigo, nome, cargo, salario);
+        List<Dependente> deps = new ArrayList<>();
+        for (int i = 0; i < dependentes; i++) deps.add(new Dependente(f, "Dependente " + i + " de " + codigo));
+        return armazenamento.inserir(f, deps);
+    }
+
+    private static List<String> nomes(List<Dependente> dependentes) {
+        List<String> nomes = new ArrayList<>();
+        for (Dependente d : dependentes) nomes.add(d.getNome());
+        return nomes;
+    }
+}
@@ -0,0 +1,82 @@
+package storage;
+
+import model.Dependente;
+import model.Funcionario;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Heap ocupado pelo cadastro em cada armazenamento: o fora do heap não deixa
+ * nada por funcionário no heap (o que o coletor percorre a cada coleta
+ * completa) e devolve a memória nativa no close, sem esperar o coletor.
+ */
+class HeapPorArmazenamentoTest {
+    private static final int FUNCIONARIOS = 200_000;
+    private static final int DEPENDENTES = 2;
+
+    @Test
+    void foraDoHeapNaoDeixaNadaPorFuncionarioNoHeap() throws Exception {
+        long mapa = heapPorFuncionario(new ArmazenamentoMapa());
+        long fora;
+        try (ArmazenamentoForaDoHeap armazenamento = new ArmazenamentoForaDoHeap()) {
+            fora = heapPorFuncionario(armazenamento);
+        }
+        String medidas = String.format(Locale.ROOT, "%d bytes/funcionário no mapa, %d fora do heap", mapa, fora);
+        assertTrue(fora < 8, medidas);
+        assertTrue(mapa > 100, medidas);
+    }
+
+    @Test
+    void closeDevolveAMemoriaNativaSemEsperarOColetor() {
+        long antes = memoriaNativa();
+        ArmazenamentoForaDoHeap armazenamento = new ArmazenamentoForaDoHeap();
+        popular(armazenamento);
+        long ocupada = memoriaNativa() - antes;
+        assertTrue(ocupada >= armazenamento.getBytesForaDoHeap(), ocupada + " bytes de memória nativa");
+
+        armazenamento.close();
+        assertEquals(antes, memoriaNativa());
+    }
+
+    // Heap ocupado pelo cadastro, depois de coletas completas, dividido pelos funcionários
+    private static long heapPorFuncionario(ArmazenamentoFuncionarios armazenamento) throws Exception {
+        long antes = heapUsado();
+        popular(armazenamento);
+        long depois = heapUsado();
+        assertEquals(FUNCIONARIOS, armazenamento.tamanho());
+        return (depois - antes) / FUNCIONARIOS;
+    }
+
+    private static void popular(ArmazenamentoFuncionarios armazenamento) {
+        for (int codigo = 0; codigo < FUNCIONARIOS; codigo++) {
+            Funcionario f = new Funcionario(codigo, "Funcionario " + codigo, "Cargo " + codigo % 50, 1500 + codigo % 9000);
+            List<Dependente> deps = new ArrayList<>(DEPENDENTES);
+            for (int i = 0; i < DEPENDENTES; i++) deps.add(new Dependente(f, "Dependente " + i + " de " + codigo));
+            armazenamento.inserir(f, deps);
+        }
+    }
+
+    private static long heapUsado() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // As Arenas contam no mesmo limite da memória direta (-XX:MaxDirectMemorySize)
+    private static long memoriaNativa() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) return pool.getMemoryUsed();
+        }
+        return 0;
+    }
+}